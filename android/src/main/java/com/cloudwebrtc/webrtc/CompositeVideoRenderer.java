@@ -0,0 +1,436 @@
+package com.cloudwebrtc.webrtc;
+
+import android.graphics.Matrix;
+import android.graphics.SurfaceTexture;
+import android.opengl.EGL14;
+import android.opengl.EGLSurface;
+import android.opengl.GLES20;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.cloudwebrtc.webrtc.utils.AnyThreadSink;
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+
+import org.webrtc.GlRectDrawer;
+import org.webrtc.GlTextureFrameBuffer;
+import org.webrtc.RendererCommon;
+import org.webrtc.ThreadUtils;
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoFrameDrawer;
+import org.webrtc.VideoSink;
+import org.webrtc.VideoTrack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import io.flutter.plugin.common.EventChannel;
+import io.flutter.view.TextureRegistry;
+
+/**
+ * Draws many video tracks as the tiles of a grid into a single Flutter texture, so Flutter
+ * composites one texture instead of one per participant.
+ *
+ * Every tile is a sink on its track keeping the latest frame, with an fps limit of its own. A
+ * new frame on any tile queues the whole grid on a shared {@link VideoRenderThread}, which draws
+ * new frames into per-tile offscreen textures, releases them right away so capturers and
+ * decoders are not held up, and composites all tile textures into the one EGL surface. The
+ * layout and the tiles can be changed at any time without re-creating the texture.
+ *
+ * Main thread only, except for the frame callbacks and {@link #draw}.
+ */
+class CompositeVideoRenderer implements EventChannel.StreamHandler, VideoRenderThread.Target {
+  private static final String TAG = FlutterWebRTCPlugin.TAG;
+  private static final float[] IDENTITY_MATRIX = RendererCommon.identityMatrix();
+
+  /** Looks up a video track by id and owner, as the renderers do. */
+  interface TrackResolver {
+    @Nullable
+    VideoTrack getVideoTrack(String trackId, String ownerTag);
+  }
+
+  /** One tile as requested by Dart. */
+  static class TileSpec {
+    final String trackId;
+    final String ownerTag;
+    final float maxFps;
+    final boolean mirror;
+
+    TileSpec(String trackId, String ownerTag, float maxFps, boolean mirror) {
+      this.trackId = trackId;
+      this.ownerTag = ownerTag;
+      this.maxFps = maxFps;
+      this.mirror = mirror;
+    }
+
+    String key() {
+      return ownerTag + "/" + trackId;
+    }
+  }
+
+  private class Tile implements VideoSink {
+    final String trackId;
+    final String ownerTag;
+    final VideoTrack track;
+    final FrameRateLimiter frameRateLimiter = new FrameRateLimiter();
+    volatile boolean mirror;
+
+    // Guarded by this.
+    private VideoFrame frame;
+    private int frameWidth;
+    private int frameHeight;
+    private int frameRotation = -1;
+
+    // Render thread only.
+    GlTextureFrameBuffer content;
+    boolean hasContent;
+    float contentAspect;
+
+    Tile(TileSpec spec, VideoTrack track) {
+      this.trackId = spec.trackId;
+      this.ownerTag = spec.ownerTag;
+      this.track = track;
+    }
+
+    @Override
+    public void onFrame(VideoFrame newFrame) {
+      if (!frameRateLimiter.accept()) {
+        return;
+      }
+      VideoFrame old;
+      boolean resized;
+      synchronized (this) {
+        // A frame replaced before it was drawn is dropped.
+        old = frame;
+        newFrame.retain();
+        frame = newFrame;
+        resized = frameWidth != newFrame.getRotatedWidth()
+                || frameHeight != newFrame.getRotatedHeight()
+                || frameRotation != newFrame.getRotation();
+        frameWidth = newFrame.getRotatedWidth();
+        frameHeight = newFrame.getRotatedHeight();
+        frameRotation = newFrame.getRotation();
+      }
+      if (old != null) {
+        old.release();
+      }
+      if (resized) {
+        sendTileResolution(this, newFrame);
+      }
+      thread.schedule(CompositeVideoRenderer.this);
+    }
+
+    /** Returns the frame that arrived since the last draw, or null. */
+    synchronized VideoFrame takeFrame() {
+      VideoFrame taken = frame;
+      frame = null;
+      return taken;
+    }
+
+    synchronized void releaseFrame() {
+      if (frame != null) {
+        frame.release();
+        frame = null;
+      }
+    }
+  }
+
+  /** Immutable snapshot of the tiles and their rectangles, relative to the surface size. */
+  private static class Layout {
+    final List<Tile> tiles;
+    /** x, y, width and height of every tile as fractions of the surface, y from the top. */
+    final float[][] rects;
+    final boolean cover;
+
+    Layout(List<Tile> tiles, float[][] rects, boolean cover) {
+      this.tiles = tiles;
+      this.rects = rects;
+      this.cover = cover;
+    }
+  }
+
+  private final int id;
+  private final SurfaceTexture texture;
+  private final TextureRegistry.SurfaceTextureEntry entry;
+  private final VideoRenderThreadPool pool;
+  private final VideoRenderThread thread;
+  private final RemoteTrackSuspender remoteTrackSuspender;
+  private final TrackResolver trackResolver;
+
+  private volatile Layout layout =
+          new Layout(Collections.<Tile>emptyList(), new float[0][], true);
+
+  // Main thread only.
+  private final Map<String, Tile> tilesByKey = new HashMap<>();
+  private List<TileSpec> specs = new ArrayList<>();
+  private int columns;
+  private int width;
+  private int height;
+  private int gap;
+  private boolean cover = true;
+
+  // Render thread only.
+  private EGLSurface eglSurface = EGL14.EGL_NO_SURFACE;
+  private GlRectDrawer drawer;
+  private VideoFrameDrawer frameDrawer;
+  private final Matrix drawMatrix = new Matrix();
+  private final int[] surfaceSize = new int[2];
+
+  EventChannel eventChannel;
+  EventChannel.EventSink eventSink;
+
+  CompositeVideoRenderer(int id, TextureRegistry.SurfaceTextureEntry entry,
+                         VideoRenderThreadPool pool, RemoteTrackSuspender remoteTrackSuspender,
+                         TrackResolver trackResolver) {
+    this.id = id;
+    this.entry = entry;
+    this.texture = entry.surfaceTexture();
+    this.pool = pool;
+    this.remoteTrackSuspender = remoteTrackSuspender;
+    this.trackResolver = trackResolver;
+    this.thread = pool.acquire();
+    thread.post(() -> {
+      eglSurface = thread.createSurface(texture);
+      drawer = new GlRectDrawer();
+      frameDrawer = new VideoFrameDrawer();
+    });
+  }
+
+  void setEventChannel(EventChannel eventChannel) {
+    this.eventChannel = eventChannel;
+  }
+
+  @Override
+  public void onListen(Object o, EventChannel.EventSink sink) {
+    eventSink = new AnyThreadSink(sink);
+  }
+
+  @Override
+  public void onCancel(Object o) {
+    eventSink = null;
+  }
+
+  /**
+   * Shows the tracks of {@code specs}, in order, in a grid of {@code columns} columns (0 for a
+   * square-ish grid) on a {@code width}x{@code height} pixel texture, with {@code gap} pixels
+   * between tiles. With {@code cover} frames are cropped to fill their tile, otherwise they are
+   * letterboxed. Tiles of tracks shown before keep their last frame.
+   */
+  void setLayout(List<TileSpec> specs, int columns, int width, int height, int gap,
+                 boolean cover) {
+    ThreadUtils.checkIsOnMainThread();
+    this.specs = new ArrayList<>(specs);
+    this.columns = columns;
+    this.width = Math.max(1, width);
+    this.height = Math.max(1, height);
+    this.gap = Math.max(0, gap);
+    this.cover = cover;
+    texture.setDefaultBufferSize(this.width, this.height);
+    applyLayout();
+  }
+
+  /** Drops the tiles showing {@code trackId} of {@code ownerTag}, e.g. before it is disposed. */
+  void removeTrack(String trackId, String ownerTag) {
+    List<TileSpec> remaining = new ArrayList<>();
+    for (TileSpec spec : specs) {
+      if (!spec.trackId.equals(trackId) || !spec.ownerTag.equals(ownerTag)) {
+        remaining.add(spec);
+      }
+    }
+    if (remaining.size() != specs.size()) {
+      specs = remaining;
+      applyLayout();
+    }
+  }
+
+  /** Removes all tiles, keeping the texture. */
+  void clearTiles() {
+    specs = new ArrayList<>();
+    applyLayout();
+  }
+
+  void dispose() {
+    ThreadUtils.checkIsOnMainThread();
+    clearTiles();
+    final CountDownLatch released = new CountDownLatch(1);
+    thread.post(() -> {
+      thread.releaseSurface(eglSurface);
+      eglSurface = EGL14.EGL_NO_SURFACE;
+      if (drawer != null) {
+        drawer.release();
+        frameDrawer.release();
+        drawer = null;
+      }
+      released.countDown();
+    });
+    ThreadUtils.awaitUninterruptibly(released);
+    pool.release(thread);
+    if (eventChannel != null) {
+      eventChannel.setStreamHandler(null);
+    }
+    eventSink = null;
+    entry.release();
+  }
+
+  private void applyLayout() {
+    List<Tile> tiles = new ArrayList<>();
+    Map<String, Tile> kept = new HashMap<>();
+    for (TileSpec spec : specs) {
+      String key = spec.key();
+      if (kept.containsKey(key)) {
+        continue;
+      }
+      Tile tile = tilesByKey.remove(key);
+      if (tile == null) {
+        VideoTrack track = trackResolver.getVideoTrack(spec.trackId, spec.ownerTag);
+        if (track == null) {
+          Log.w(TAG, "CompositeVideoRenderer: video track " + spec.trackId + " not found");
+          continue;
+        }
+        tile = new Tile(spec, track);
+        track.addSink(tile);
+        remoteTrackSuspender.sinkAdded(track);
+      }
+      tile.mirror = spec.mirror;
+      tile.frameRateLimiter.setFps(spec.maxFps);
+      kept.put(key, tile);
+      tiles.add(tile);
+    }
+    // Published first, so draws queued behind the tile releases no longer see removed tiles.
+    layout = new Layout(Collections.unmodifiableList(tiles), gridRects(tiles.size()), cover);
+    for (Tile removed : tilesByKey.values()) {
+      removeTile(removed);
+    }
+    tilesByKey.clear();
+    tilesByKey.putAll(kept);
+    thread.schedule(this);
+  }
+
+  private void removeTile(final Tile tile) {
+    try {
+      tile.track.removeSink(tile);
+    } catch (IllegalStateException e) {
+      // The track was disposed already.
+    }
+    remoteTrackSuspender.sinkRemoved(tile.track);
+    tile.releaseFrame();
+    thread.post(() -> {
+      if (tile.content != null) {
+        tile.content.release();
+        tile.content = null;
+      }
+      tile.hasContent = false;
+    });
+  }
+
+  private float[][] gridRects(int count) {
+    float[][] rects = new float[count][];
+    if (count == 0) {
+      return rects;
+    }
+    int cols = columns > 0 ? Math.min(columns, count) : (int) Math.ceil(Math.sqrt(count));
+    int rows = (count + cols - 1) / cols;
+    float cellWidth = Math.max(1f, (width - gap * (cols - 1)) / (float) cols);
+    float cellHeight = Math.max(1f, (height - gap * (rows - 1)) / (float) rows);
+    for (int i = 0; i < count; i++) {
+      int col = i % cols;
+      int row = i / cols;
+      rects[i] = new float[] {
+              col * (cellWidth + gap) / width,
+              row * (cellHeight + gap) / height,
+              cellWidth / width,
+              cellHeight / height
+      };
+    }
+    return rects;
+  }
+
+  @Override
+  public void draw(VideoRenderThread thread) {
+    Layout layout = this.layout;
+    long start = System.nanoTime();
+    if (drawer == null || !thread.makeCurrent(eglSurface, surfaceSize)) {
+      return;
+    }
+    int surfaceWidth = surfaceSize[0];
+    int surfaceHeight = surfaceSize[1];
+    GLES20.glClearColor(0, 0, 0, 0);
+    GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+    for (int i = 0; i < layout.tiles.size(); i++) {
+      Tile tile = layout.tiles.get(i);
+      float[] rect = layout.rects[i];
+      int x = Math.round(rect[0] * surfaceWidth);
+      int y = Math.round(rect[1] * surfaceHeight);
+      int w = Math.max(1, Math.round(rect[2] * surfaceWidth));
+      int h = Math.max(1, Math.round(rect[3] * surfaceHeight));
+      VideoFrame frame = tile.takeFrame();
+      if (frame != null) {
+        tile.contentAspect = frame.getRotatedWidth() / (float) frame.getRotatedHeight();
+      }
+      if (frame == null && (!tile.hasContent || tile.content == null)) {
+        continue;
+      }
+      float tileAspect = w / (float) h;
+      float scaleX = 1f;
+      float scaleY = 1f;
+      if (layout.cover) {
+        // Crop the frame to the tile.
+        if (tile.contentAspect > tileAspect) {
+          scaleX = tileAspect / tile.contentAspect;
+        } else {
+          scaleY = tile.contentAspect / tileAspect;
+        }
+      } else if (tile.contentAspect > tileAspect) {
+        // Letterbox: shrink the viewport instead.
+        int letterboxed = Math.max(1, Math.round(w / tile.contentAspect));
+        y += (h - letterboxed) / 2;
+        h = letterboxed;
+      } else {
+        int letterboxed = Math.max(1, Math.round(h * tile.contentAspect));
+        x += (w - letterboxed) / 2;
+        w = letterboxed;
+      }
+      if (frame != null) {
+        drawMatrix.reset();
+        drawMatrix.preTranslate(0.5f, 0.5f);
+        drawMatrix.preScale(tile.mirror ? -1f : 1f, 1f);
+        drawMatrix.preScale(scaleX, scaleY);
+        drawMatrix.preTranslate(-0.5f, -0.5f);
+        if (tile.content == null) {
+          tile.content = new GlTextureFrameBuffer(GLES20.GL_RGBA);
+        }
+        tile.content.setSize(w, h);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, tile.content.getFrameBufferId());
+        frameDrawer.drawFrame(frame, drawer, drawMatrix, 0, 0, w, h);
+        GLES20.glBindFramebuffer(GLES20.GL_FRAMEBUFFER, 0);
+        frame.release();
+        tile.hasContent = true;
+      }
+      // GL viewports start at the bottom left.
+      drawer.drawRgb(tile.content.getTextureId(), IDENTITY_MATRIX,
+              tile.content.getWidth(), tile.content.getHeight(),
+              x, surfaceHeight - y - h, w, h);
+    }
+    thread.swapBuffers(eglSurface);
+    thread.recordDraw(System.nanoTime() - start);
+  }
+
+  private void sendTileResolution(Tile tile, VideoFrame frame) {
+    ConstraintsMap params = new ConstraintsMap();
+    params.putString("event", "didChangeTileResolution");
+    params.putInt("id", id);
+    params.putString("trackId", tile.trackId);
+    params.putString("ownerTag", tile.ownerTag);
+    params.putInt("width", frame.getRotatedWidth());
+    params.putInt("height", frame.getRotatedHeight());
+    params.putInt("rotation", frame.getRotation());
+    EventChannel.EventSink sink = eventSink;
+    if (sink != null) {
+      sink.success(params.toMap());
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.cloudwebrtc.webrtc;
 
 import com.cloudwebrtc.webrtc.utils.AnyThreadSink;
 import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+import com.cloudwebrtc.webrtc.utils.EventCodec;
 
 import org.webrtc.DataChannel;
 
@@ -18,7 +19,7 @@ class DataChannelObserver implements DataChannel.Observer, EventChannel.StreamHa
     private final DataChannel dataChannel;
 
     private final EventChannel eventChannel;
-    private EventChannel.EventSink eventSink;
+    private volatile EventChannel.EventSink eventSink;
     private final ArrayList eventQueue = new ArrayList();
 
     DataChannelObserver(BinaryMessenger messenger, String peerConnectionId, String flutterId,
@@ -26,7 +27,8 @@ class DataChannelObserver implements DataChannel.Observer, EventChannel.StreamHa
         this.flutterId = flutterId;
         this.dataChannel = dataChannel;
         eventChannel =
-                new EventChannel(messenger, "FlutterWebRTC/dataChannelEvent" + peerConnectionId + flutterId);
+                new EventChannel(messenger, "FlutterWebRTC/dataChannelEvent" + peerConnectionId + flutterId,
+                        EventCodec.METHOD_CODEC);
         eventChannel.setStreamHandler(this);
     }
 
@@ -46,11 +48,14 @@ class DataChannelObserver implements DataChannel.Observer, EventChannel.StreamHa
 
     @Override
     public void onListen(Object o, EventChannel.EventSink sink) {
-        eventSink = new AnyThreadSink(sink);
-        for(Object event : eventQueue) {
-            eventSink.success(event);
+        // Events may be queued concurrently from the signaling thread.
+        synchronized (eventQueue) {
+            eventSink = new AnyThreadSink(sink);
+            for(Object event : eventQueue) {
+                eventSink.success(event);
+            }
+            eventQueue.clear();
         }
-        eventQueue.clear();
     }
 
     @Override
@@ -60,21 +65,14 @@ class DataChannelObserver implements DataChannel.Observer, EventChannel.StreamHa
     
     @Override
     public void onBufferedAmountChange(long amount) {
-        ConstraintsMap params = new ConstraintsMap();
-        params.putString("event", "dataChannelBufferedAmountChange");
-        params.putInt("id", dataChannel.id());
-        params.putLong("bufferedAmount", dataChannel.bufferedAmount());
-        params.putLong("changedAmount", amount);
-        sendEvent(params);
+        sendEvent(new EventCodec.BufferedAmountChangedEvent(
+                dataChannel.id(), dataChannel.bufferedAmount(), amount));
     }
 
     @Override
     public void onStateChange() {
-        ConstraintsMap params = new ConstraintsMap();
-        params.putString("event", "dataChannelStateChanged");
-        params.putInt("id", dataChannel.id());
-        params.putString("state", dataChannelStateString(dataChannel.state()));
-        sendEvent(params);
+        sendEvent(new EventCodec.StateChangedEvent(EventCodec.KIND_DATA_CHANNEL,
+                dataChannel.id(), dataChannelStateString(dataChannel.state())));
     }
 
     @Override
@@ -103,10 +101,16 @@ class DataChannelObserver implements DataChannel.Observer, EventChannel.StreamHa
     }
 
     private void sendEvent(ConstraintsMap params) {
-        if (eventSink != null) {
-            eventSink.success(params.toMap());
-        } else {
-            eventQueue.add(params.toMap());
+        sendEvent(params.toMap());
+    }
+
+    private void sendEvent(Object event) {
+        synchronized (eventQueue) {
+            if (eventSink != null) {
+                eventSink.success(event);
+            } else {
+                eventQueue.add(event);
+            }
         }
     }
 }
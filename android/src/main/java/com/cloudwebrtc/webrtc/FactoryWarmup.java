@@ -0,0 +1,132 @@
+package com.cloudwebrtc.webrtc;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.cloudwebrtc.webrtc.utils.CodecCapabilityCache;
+import com.cloudwebrtc.webrtc.utils.EglUtils;
+
+import org.webrtc.EglBase;
+import org.webrtc.PeerConnectionFactory;
+import org.webrtc.PeerConnectionFactory.InitializationOptions;
+import org.webrtc.video.CustomVideoDecoderFactory;
+import org.webrtc.video.CustomVideoEncoderFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+
+/**
+ * Prepares the parts of {@code initialize} that do not depend on its options, in parallel on
+ * background threads, from the first method call or an explicit {@code prewarm}:
+ *
+ * <ul>
+ *   <li>{@code nativeLibrary}: {@link PeerConnectionFactory#initialize}, which loads and sets up
+ *       the native library,</li>
+ *   <li>{@code egl}: the shared root {@link EglBase},</li>
+ *   <li>{@code codecs}: the encoder and decoder factories, including the slow MediaCodecList
+ *       enumeration, once the native library and EGL are ready. The enumeration is skipped when
+ *       the {@link CodecCapabilityCache} has a valid entry.</li>
+ * </ul>
+ *
+ * The audio device module is not part of the warm-up: it depends on the audio attributes passed
+ * to {@code initialize}. {@code initialize} builds it while the warm-up finishes, then only
+ * creates the factory itself.
+ */
+class FactoryWarmup {
+  private static final String TAG = FlutterWebRTCPlugin.TAG;
+
+  private final Context context;
+  private final Executor executor;
+  private final CountDownLatch baseReady = new CountDownLatch(2);
+  private final CountDownLatch codecsReady = new CountDownLatch(1);
+  private final Map<String, Object> timings = new HashMap<>();
+  private boolean started;
+
+  private volatile CustomVideoEncoderFactory videoEncoderFactory;
+  private volatile CustomVideoDecoderFactory videoDecoderFactory;
+  private volatile CodecCapabilityCache capabilityCache;
+
+  FactoryWarmup(Context context, Executor executor) {
+    this.context = context;
+    this.executor = executor;
+  }
+
+  synchronized void start() {
+    if (started) {
+      return;
+    }
+    started = true;
+    executor.execute(() -> timed("nativeLibrary", baseReady, () ->
+        PeerConnectionFactory.initialize(
+            InitializationOptions.builder(context)
+                .setEnableInternalTracer(true)
+                .createInitializationOptions())));
+    executor.execute(() -> timed("egl", baseReady, EglUtils::getRootEglBase));
+    executor.execute(() -> {
+      try {
+        baseReady.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      timed("codecs", codecsReady, () -> {
+        EglBase.Context eglContext = EglUtils.getRootEglBaseContext();
+        CodecCapabilityCache cache = new CodecCapabilityCache(context);
+        CustomVideoEncoderFactory encoderFactory =
+            new CustomVideoEncoderFactory(eglContext, true, true);
+        CustomVideoDecoderFactory decoderFactory = new CustomVideoDecoderFactory(eglContext);
+        encoderFactory.setCapabilityCache(cache);
+        decoderFactory.setCapabilityCache(cache);
+        encoderFactory.getSupportedCodecs();
+        decoderFactory.getSupportedCodecs();
+        videoEncoderFactory = encoderFactory;
+        videoDecoderFactory = decoderFactory;
+        capabilityCache = cache;
+      });
+    });
+  }
+
+  /** Starts the warm-up if needed and waits until every phase has finished. */
+  void await() {
+    start();
+    try {
+      codecsReady.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  CustomVideoEncoderFactory getVideoEncoderFactory() {
+    return videoEncoderFactory;
+  }
+
+  CustomVideoDecoderFactory getVideoDecoderFactory() {
+    return videoDecoderFactory;
+  }
+
+  CodecCapabilityCache getCapabilityCache() {
+    return capabilityCache;
+  }
+
+  /** Duration of each finished phase in milliseconds. */
+  Map<String, Object> getTimings() {
+    synchronized (timings) {
+      return new HashMap<>(timings);
+    }
+  }
+
+  private void timed(String phase, CountDownLatch done, Runnable task) {
+    long start = System.nanoTime();
+    try {
+      task.run();
+    } catch (Exception e) {
+      Log.e(TAG, "Warm-up phase " + phase + " failed", e);
+    } finally {
+      synchronized (timings) {
+        timings.put(phase + "Ms", (System.nanoTime() - start) / 1e6);
+      }
+      done.countDown();
+    }
+  }
+}
@@ -14,7 +14,7 @@ import org.webrtc.RtpSender;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
@@ -25,6 +25,7 @@ import io.flutter.plugin.common.MethodChannel.Result;
 import com.cloudwebrtc.webrtc.utils.AnyThreadSink;
 import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
 import com.cloudwebrtc.webrtc.utils.ConstraintsArray;
+import com.cloudwebrtc.webrtc.utils.IdAllocator;
 
 public class FlutterRTCFrameCryptor {
 
@@ -102,9 +103,9 @@ public class FlutterRTCFrameCryptor {
     }
 
     private static final String TAG = "FlutterRTCFrameCryptor";
-    private final Map<String, FrameCryptor> frameCryptos = new HashMap<>();
-    private final Map<String, FrameCryptorStateObserver> frameCryptoObservers = new HashMap<>();
-    private final Map<String, FrameCryptorKeyProvider> keyProviders = new HashMap<>();
+    private final Map<String, FrameCryptor> frameCryptos = new ConcurrentHashMap<>();
+    private final Map<String, FrameCryptorStateObserver> frameCryptoObservers = new ConcurrentHashMap<>();
+    private final Map<String, FrameCryptorKeyProvider> keyProviders = new ConcurrentHashMap<>();
     private final StateProvider stateProvider;
     public FlutterRTCFrameCryptor(StateProvider stateProvider) {
         this.stateProvider = stateProvider;
@@ -179,14 +180,17 @@ public class FlutterRTCFrameCryptor {
         String rtpReceiverId = (String) params.get("rtpReceiverId");
 
         if(type.equals("sender")) {
-            RtpSender rtpSender = pco.getRtpSenderById(rtpSenderId);
-
-            FrameCryptor frameCryptor = FrameCryptorFactory.createFrameCryptorForRtpSender(stateProvider.getPeerConnectionFactory(),
-                    rtpSender,
-                    participantId,
-                    frameCryptorAlgorithmFromInt(algorithm),
-                    keyProvider);
-            String frameCryptorId = UUID.randomUUID().toString();
+            FrameCryptor frameCryptor;
+            // The sender wrapper stays valid only while the index is locked.
+            synchronized (pco.getRtpObjects()) {
+                RtpSender rtpSender = pco.getRtpSenderById(rtpSenderId);
+                frameCryptor = FrameCryptorFactory.createFrameCryptorForRtpSender(stateProvider.getPeerConnectionFactory(),
+                        rtpSender,
+                        participantId,
+                        frameCryptorAlgorithmFromInt(algorithm),
+                        keyProvider);
+            }
+            String frameCryptorId = IdAllocator.next();
             frameCryptos.put(frameCryptorId, frameCryptor);
             FrameCryptorStateObserver observer = new FrameCryptorStateObserver(stateProvider.getMessenger(), frameCryptorId);
             frameCryptor.setObserver(observer);
@@ -195,14 +199,17 @@ public class FlutterRTCFrameCryptor {
             paramsResult.putString("frameCryptorId", frameCryptorId);
             result.success(paramsResult.toMap());
         } else if(type.equals("receiver")) {
-            RtpReceiver rtpReceiver = pco.getRtpReceiverById(rtpReceiverId);
-
-            FrameCryptor frameCryptor = FrameCryptorFactory.createFrameCryptorForRtpReceiver(stateProvider.getPeerConnectionFactory(),
-                    rtpReceiver,
-                    participantId,
-                    frameCryptorAlgorithmFromInt(algorithm),
-                    keyProvider);
-            String frameCryptorId = UUID.randomUUID().toString();
+            FrameCryptor frameCryptor;
+            // The receiver wrapper stays valid only while the index is locked.
+            synchronized (pco.getRtpObjects()) {
+                RtpReceiver rtpReceiver = pco.getRtpReceiverById(rtpReceiverId);
+                frameCryptor = FrameCryptorFactory.createFrameCryptorForRtpReceiver(stateProvider.getPeerConnectionFactory(),
+                        rtpReceiver,
+                        participantId,
+                        frameCryptorAlgorithmFromInt(algorithm),
+                        keyProvider);
+            }
+            String frameCryptorId = IdAllocator.next();
             frameCryptos.put(frameCryptorId, frameCryptor);
             FrameCryptorStateObserver observer = new FrameCryptorStateObserver(stateProvider.getMessenger(), frameCryptorId);
             frameCryptor.setObserver(observer);
@@ -287,7 +294,7 @@ public class FlutterRTCFrameCryptor {
     }
 
     private void frameCryptorFactoryCreateKeyProvider(Map<String, Object> params, @NonNull Result result) {
-        String keyProviderId = UUID.randomUUID().toString();
+        String keyProviderId = IdAllocator.next();
         Map<String, Object> keyProviderOptions = (Map<String, Object>) params.get("keyProviderOptions");
         boolean sharedKey = (boolean) keyProviderOptions.get("sharedKey");
         int ratchetWindowSize = (int) keyProviderOptions.get("ratchetWindowSize");
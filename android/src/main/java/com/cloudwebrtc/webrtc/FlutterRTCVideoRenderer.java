@@ -1,15 +1,20 @@
 package com.cloudwebrtc.webrtc;
 
-import android.util.Log;
 import android.graphics.SurfaceTexture;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
 
 import com.cloudwebrtc.webrtc.utils.AnyThreadSink;
 import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
 import com.cloudwebrtc.webrtc.utils.EglUtils;
+import com.cloudwebrtc.webrtc.utils.EventCodec;
 
 import java.util.List;
 
-import org.webrtc.EglBase;
 import org.webrtc.MediaStream;
 import org.webrtc.RendererCommon.RendererEvents;
 import org.webrtc.VideoTrack;
@@ -20,6 +25,10 @@ import io.flutter.view.TextureRegistry;
 public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
 
     private static final String TAG = FlutterWebRTCPlugin.TAG;
+    /** Frame rate while auto-paused, so that the texture becoming visible again is noticed. */
+    private static final float AUTO_PAUSE_PROBE_FPS = 1f;
+    /** Frames not consumed by Flutter for this long mean the texture is not composited. */
+    private static final long AUTO_PAUSE_TIMEOUT_MS = 1000;
     private final SurfaceTexture texture;
     private final TextureRegistry.SurfaceTextureEntry entry;
     private int id = -1;
@@ -27,8 +36,45 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
 
     private String ownerTag;
 
+    // Render policy, main thread only.
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable compositionCheck = this::checkComposited;
+    private float maxFps = Float.POSITIVE_INFINITY;
+    private boolean paused;
+    // Written on the main thread, read on the raster thread too.
+    private volatile boolean autoPause;
+    private volatile boolean autoPaused;
+    private boolean vsyncPacing;
+    private volatile long lastConsumedMs;
+
+    // Frame metrics reporting, main thread only.
+    private final RendererMetrics metrics;
+    private final Runnable metricsReport = this::reportMetrics;
+    private final Runnable freezeCheck = this::checkFreeze;
+    private long metricsIntervalMs;
+    private long freezeThresholdMs;
+
+    /**
+     * How long the EGL resources are kept after the last track was detached; negative keeps them
+     * until disposal. Main thread only.
+     */
+    private long idleReleaseMs;
+    private final Runnable idleRelease = this::releaseIdleTextureRenderer;
+
     public void Dispose() {
         //destroy
+        if (group != null) {
+            group.remove(this);
+        } else {
+            // Dart does not clear srcObject first; without this the track keeps the sink and
+            // counts as rendered.
+            setVideoTrack(null);
+        }
+        mainHandler.removeCallbacks(compositionCheck);
+        mainHandler.removeCallbacks(metricsReport);
+        mainHandler.removeCallbacks(freezeCheck);
+        mainHandler.removeCallbacks(idleRelease);
+        renderSizeTracker.remove(id);
         if (surfaceTextureRenderer != null) {
             surfaceTextureRenderer.release();
         }
@@ -67,30 +113,38 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
 
                 if (eventSink != null) {
                     if (_width != videoWidth || _height != videoHeight) {
-                        ConstraintsMap params = new ConstraintsMap();
-                        params.putString("event", "didTextureChangeVideoSize");
-                        params.putInt("id", id);
-                        params.putDouble("width", (double) videoWidth);
-                        params.putDouble("height", (double) videoHeight);
                         _width = videoWidth;
                         _height = videoHeight;
-                        eventSink.success(params.toMap());
+                        eventSink.success(new EventCodec.VideoSizeChangedEvent(id, videoWidth, videoHeight));
                     }
 
                     if (_rotation != rotation) {
-                        ConstraintsMap params2 = new ConstraintsMap();
-                        params2.putString("event", "didTextureChangeRotation");
-                        params2.putInt("id", id);
-                        params2.putInt("rotation", rotation);
                         _rotation = rotation;
-                        eventSink.success(params2.toMap());
+                        eventSink.success(new EventCodec.RotationChangedEvent(id, rotation));
                     }
                 }
             }
         };
     }
 
-    private final SurfaceTextureRenderer surfaceTextureRenderer;
+    /** Created when a track is first attached, so null while idle. */
+    @Nullable
+    private TextureRenderer surfaceTextureRenderer;
+
+    @Nullable
+    private final VideoRenderThreadPool renderThreads;
+
+    /** The group this renderer is a member of, if any; the group then owns the track sink. */
+    @Nullable
+    private VideoRendererGroup group;
+
+    private final RemoteTrackSuspender remoteTrackSuspender;
+
+    private final RenderSizeTracker renderSizeTracker;
+
+    /** On-screen size in physical pixels, as reported by Dart. */
+    private int viewWidth;
+    private int viewHeight;
 
     /**
      * The {@code VideoTrack}, if any, rendered by this {@code FlutterRTCVideoRenderer}.
@@ -100,16 +154,281 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
     EventChannel eventChannel;
     EventChannel.EventSink eventSink;
 
-    public FlutterRTCVideoRenderer(SurfaceTexture texture, TextureRegistry.SurfaceTextureEntry entry) {
-        this.surfaceTextureRenderer = new SurfaceTextureRenderer("");
-        listenRendererEvents();
-        surfaceTextureRenderer.init(EglUtils.getRootEglBaseContext(), rendererEvents);
-        surfaceTextureRenderer.surfaceCreated(texture);
+    /**
+     * No EGL resources are allocated until a track is attached, so creating renderers ahead of
+     * time is cheap. The texture, and so the texture id, lives until {@link #Dispose}.
+     *
+     * @param renderThreads if not null, frames are drawn on one of these shared threads instead
+     *                      of a render thread owned by this renderer.
+     * @param idleReleaseMs see {@link #setIdleReleaseMs}.
+     */
+    public FlutterRTCVideoRenderer(SurfaceTexture texture, TextureRegistry.SurfaceTextureEntry entry,
+                                   @Nullable VideoRenderThreadPool renderThreads,
+                                   RemoteTrackSuspender remoteTrackSuspender,
+                                   RenderSizeTracker renderSizeTracker,
+                                   long idleReleaseMs) {
+        this.remoteTrackSuspender = remoteTrackSuspender;
+        this.renderSizeTracker = renderSizeTracker;
+        this.renderThreads = renderThreads;
+        this.idleReleaseMs = idleReleaseMs;
+        this.metrics = new RendererMetrics(renderThreads != null);
 
         this.texture = texture;
         this.eventSink = null;
         this.entry = entry;
         this.ownerTag = null;
+        entry.setOnFrameConsumedListener(this::onTextureFrameConsumed);
+    }
+
+    /**
+     * Limits rendering to {@code maxFps} (infinite for no limit), or stops it while
+     * {@code paused}; the last frame stays on screen. With {@code autoPause} the renderer
+     * additionally drops to {@link #AUTO_PAUSE_PROBE_FPS} while Flutter does not composite its
+     * texture, and restores the policy as soon as a frame is consumed again. With
+     * {@code vsyncPacing} frames are presented at most once per display refresh.
+     */
+    public void setRenderPolicy(float maxFps, boolean paused, boolean autoPause,
+                                boolean vsyncPacing) {
+        this.maxFps = maxFps;
+        this.paused = paused;
+        this.vsyncPacing = vsyncPacing;
+        mainHandler.removeCallbacks(compositionCheck);
+        this.autoPause = autoPause;
+        if (autoPause) {
+            lastConsumedMs = SystemClock.uptimeMillis();
+            mainHandler.postDelayed(compositionCheck, AUTO_PAUSE_TIMEOUT_MS / 2);
+        } else {
+            setAutoPaused(false);
+        }
+        applyRenderPolicy();
+    }
+
+    /** Sets the size, in physical pixels, the texture is shown at. */
+    public void setViewSize(int width, int height) {
+        viewWidth = width;
+        viewHeight = height;
+        if (group != null) {
+            ((SharedSurfaceTextureRenderer) surfaceTextureRenderer).setTargetSize(width, height);
+        }
+        reportViewSize();
+    }
+
+    /**
+     * Sends the frame metrics as a {@code didUpdateMetrics} event every {@code intervalMs}, and
+     * a {@code didChangeFreeze} event whenever no frame was rendered for
+     * {@code freezeThresholdMs} while frames are expected, and again once they are rendered.
+     * 0 turns the respective event off.
+     */
+    public void setMetricsOptions(long intervalMs, long freezeThresholdMs) {
+        mainHandler.removeCallbacks(metricsReport);
+        mainHandler.removeCallbacks(freezeCheck);
+        this.metricsIntervalMs = intervalMs;
+        this.freezeThresholdMs = freezeThresholdMs;
+        if (intervalMs > 0) {
+            mainHandler.postDelayed(metricsReport, intervalMs);
+        }
+        if (freezeThresholdMs > 0) {
+            mainHandler.postDelayed(freezeCheck, freezeCheckPeriodMs());
+        } else {
+            updateFreeze(false);
+        }
+    }
+
+    public ConstraintsMap getMetrics() {
+        ConstraintsMap params = metrics.toMap();
+        params.putInt("id", id);
+        return params;
+    }
+
+    private void reportMetrics() {
+        ConstraintsMap params = getMetrics();
+        params.putString("event", "didUpdateMetrics");
+        if (eventSink != null) {
+            eventSink.success(params.toMap());
+        }
+        mainHandler.postDelayed(metricsReport, metricsIntervalMs);
+    }
+
+    private long freezeCheckPeriodMs() {
+        return Math.max(freezeThresholdMs / 2, 50);
+    }
+
+    private void checkFreeze() {
+        updateFreeze(videoTrack != null && !paused && !autoPaused);
+        mainHandler.postDelayed(freezeCheck, freezeCheckPeriodMs());
+    }
+
+    private void updateFreeze(boolean expectFrames) {
+        long thresholdMs = freezeThresholdMs;
+        if (!Float.isInfinite(maxFps) && maxFps > 0) {
+            // A frame rate limit spaces frames out by design.
+            thresholdMs = Math.max(thresholdMs, (long) (2000 / maxFps));
+        }
+        Boolean frozen = metrics.checkFreeze(thresholdMs, expectFrames);
+        if (frozen == null) {
+            return;
+        }
+        ConstraintsMap params = new ConstraintsMap();
+        params.putString("event", "didChangeFreeze");
+        params.putInt("id", id);
+        params.putBoolean("frozen", frozen);
+        if (!frozen) {
+            params.putLong("durationMs", metrics.lastFreezeMs());
+        }
+        if (eventSink != null) {
+            eventSink.success(params.toMap());
+        }
+    }
+
+    /**
+     * Makes this renderer a member of {@code group}: its current source is dropped and its
+     * texture is drawn by the group from then on.
+     */
+    void joinGroup(VideoRendererGroup group) {
+        setVideoTrack(null);
+        mainHandler.removeCallbacks(idleRelease);
+        this.mediaStream = null;
+        SharedSurfaceTextureRenderer sink = new SharedSurfaceTextureRenderer(group, metrics);
+        replaceTextureRenderer(sink);
+        sink.setTargetSize(viewWidth, viewHeight);
+        this.group = group;
+        group.addSink(sink);
+    }
+
+    /** Leaves the group, rendering nothing on its own until a new source is set. */
+    void leaveGroup() {
+        setVideoTrack(null);
+        group.removeSink((SharedSurfaceTextureRenderer) surfaceTextureRenderer);
+        group = null;
+        // An own renderer is created when the next track is attached.
+        surfaceTextureRenderer.release();
+        surfaceTextureRenderer = null;
+    }
+
+    boolean isGrouped() {
+        return group != null;
+    }
+
+    /** Shows the track of the group; the group itself is the track sink. */
+    void setGroupTrack(@Nullable VideoTrack videoTrack, @Nullable String ownerTag) {
+        this.ownerTag = ownerTag;
+        setVideoTrack(videoTrack);
+    }
+
+    /**
+     * Releases the EGL resources {@code idleReleaseMs} after the last track was detached from
+     * now on; negative keeps them until disposal.
+     */
+    public void setIdleReleaseMs(long idleReleaseMs) {
+        this.idleReleaseMs = idleReleaseMs;
+        if (videoTrack == null) {
+            scheduleIdleRelease();
+        }
+    }
+
+    /** Creates the renderer drawing into the texture unless it exists. */
+    private void ensureTextureRenderer() {
+        mainHandler.removeCallbacks(idleRelease);
+        if (surfaceTextureRenderer == null) {
+            replaceTextureRenderer(renderThreads != null
+                    ? new SharedSurfaceTextureRenderer(renderThreads, metrics)
+                    : new SurfaceTextureRenderer("", metrics));
+        }
+    }
+
+    private void scheduleIdleRelease() {
+        mainHandler.removeCallbacks(idleRelease);
+        if (surfaceTextureRenderer != null && group == null && idleReleaseMs >= 0) {
+            mainHandler.postDelayed(idleRelease, idleReleaseMs);
+        }
+    }
+
+    /**
+     * Frees the EGL context and surface of a renderer without a track. The texture keeps
+     * showing the last frame drawn.
+     */
+    private void releaseIdleTextureRenderer() {
+        if (surfaceTextureRenderer != null && videoTrack == null && group == null) {
+            surfaceTextureRenderer.release();
+            surfaceTextureRenderer = null;
+        }
+    }
+
+    /** Swaps the renderer drawing into the texture; only one may be connected at a time. */
+    private void replaceTextureRenderer(TextureRenderer renderer) {
+        if (surfaceTextureRenderer != null) {
+            surfaceTextureRenderer.release();
+        }
+        surfaceTextureRenderer = renderer;
+        listenRendererEvents();
+        renderer.init(EglUtils.getRootEglBaseContext(), rendererEvents);
+        renderer.surfaceCreated(texture);
+        applyRenderPolicy();
+    }
+
+    private void reportViewSize() {
+        renderSizeTracker.update(id, ownerTag, videoTrack != null ? videoTrack.id() : null,
+                viewWidth, viewHeight);
+    }
+
+    private void applyRenderPolicy() {
+        if (surfaceTextureRenderer == null) {
+            // Applied once the renderer is created.
+            return;
+        }
+        surfaceTextureRenderer.setVsyncPacing(vsyncPacing);
+        if (paused) {
+            surfaceTextureRenderer.pauseVideo();
+        } else if (autoPaused) {
+            surfaceTextureRenderer.setFpsReduction(Math.min(maxFps, AUTO_PAUSE_PROBE_FPS));
+        } else if (Float.isInfinite(maxFps)) {
+            surfaceTextureRenderer.disableFpsReduction();
+        } else {
+            surfaceTextureRenderer.setFpsReduction(maxFps);
+        }
+    }
+
+    private void setAutoPaused(boolean autoPaused) {
+        if (this.autoPaused == autoPaused) {
+            return;
+        }
+        this.autoPaused = autoPaused;
+        applyRenderPolicy();
+        ConstraintsMap params = new ConstraintsMap();
+        params.putString("event", "didChangeAutoPause");
+        params.putInt("id", id);
+        params.putBoolean("paused", autoPaused);
+        if (eventSink != null) {
+            eventSink.success(params.toMap());
+        }
+    }
+
+    /** Called by Flutter, on the raster thread, whenever it composites a new frame. */
+    private void onTextureFrameConsumed() {
+        lastConsumedMs = SystemClock.uptimeMillis();
+        // Only the resume needs the main thread; posting for every composited frame would flood it.
+        if (autoPause && autoPaused) {
+            mainHandler.post(() -> {
+                if (autoPause) {
+                    setAutoPaused(false);
+                }
+            });
+        }
+    }
+
+    private void checkComposited() {
+        if (!autoPause) {
+            return;
+        }
+        if (videoTrack != null && !paused
+                && SystemClock.uptimeMillis() - lastConsumedMs > AUTO_PAUSE_TIMEOUT_MS) {
+            setAutoPaused(true);
+            // A frame consumed meanwhile may have missed the flag and not posted a resume.
+            if (SystemClock.uptimeMillis() - lastConsumedMs <= AUTO_PAUSE_TIMEOUT_MS) {
+                setAutoPaused(false);
+            }
+        }
+        mainHandler.postDelayed(compositionCheck, AUTO_PAUSE_TIMEOUT_MS / 2);
     }
 
     public void setEventChannel(EventChannel eventChannel) {
@@ -135,7 +454,15 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
      * resources (if rendering is in progress).
      */
     private void removeRendererFromVideoTrack() {
-        videoTrack.removeSink(surfaceTextureRenderer);
+        if (group != null) {
+            return;
+        }
+        try {
+            videoTrack.removeSink(surfaceTextureRenderer);
+        } catch (IllegalStateException e) {
+            // The track was disposed already.
+        }
+        remoteTrackSuspender.sinkRemoved(videoTrack);
     }
 
     /**
@@ -147,18 +474,9 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
      *                    {@code FlutterRTCVideoRenderer} or {@code null}.
      */
     public void setStream(MediaStream mediaStream, String ownerTag) {
-        VideoTrack videoTrack;
         this.mediaStream = mediaStream;
         this.ownerTag = ownerTag;
-        if (mediaStream == null) {
-            videoTrack = null;
-        } else {
-            List<VideoTrack> videoTracks = mediaStream.videoTracks;
-
-            videoTrack = videoTracks.isEmpty() ? null : videoTracks.get(0);
-        }
-
-        setVideoTrack(videoTrack);
+        setVideoTrack(findVideoTrack(mediaStream, null));
     }
    /**
      * Sets the {@code MediaStream} to be rendered by this {@code FlutterRTCVideoRenderer}.
@@ -171,24 +489,30 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
      *                    {@code FlutterRTCVideoRenderer} or {@code null}.
      */
     public void setStream(MediaStream mediaStream,String trackId, String ownerTag) {
-        VideoTrack videoTrack;
         this.mediaStream = mediaStream;
         this.ownerTag = ownerTag;
+        setVideoTrack(findVideoTrack(mediaStream, trackId));
+    }
+
+    /**
+     * Returns the video track {@code trackId} of {@code mediaStream}, or its first video track
+     * if there is no such track.
+     */
+    @Nullable
+    static VideoTrack findVideoTrack(@Nullable MediaStream mediaStream, @Nullable String trackId) {
         if (mediaStream == null) {
-            videoTrack = null;
-        } else {
-            List<VideoTrack> videoTracks = mediaStream.videoTracks;
+            return null;
+        }
+        List<VideoTrack> videoTracks = mediaStream.videoTracks;
 
-            videoTrack = videoTracks.isEmpty() ? null : videoTracks.get(0);
+        VideoTrack videoTrack = videoTracks.isEmpty() ? null : videoTracks.get(0);
 
-            for (VideoTrack track : videoTracks){
-                if (track.id().equals(trackId)){
-                    videoTrack = track;
-                }
+        for (VideoTrack track : videoTracks){
+            if (track.id().equals(trackId)){
+                videoTrack = track;
             }
         }
-
-        setVideoTrack(videoTrack);
+        return videoTrack;
     }
 
     /**
@@ -206,6 +530,10 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
             }
 
             this.videoTrack = videoTrack;
+            lastConsumedMs = SystemClock.uptimeMillis();
+            updateFreeze(false);
+            metrics.resetFreeze();
+            reportViewSize();
 
             if (videoTrack != null) {
                 try {
@@ -216,6 +544,7 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
                 }
             } else {
                 Log.w(TAG, "FlutterRTCVideoRenderer.setVideoTrack, set video track to null");
+                scheduleIdleRelease();
             }
         }
     }
@@ -223,36 +552,35 @@ public class FlutterRTCVideoRenderer implements EventChannel.StreamHandler {
     /**
      * Starts rendering {@link #videoTrack} if rendering is not in progress and
      * all preconditions for the start of rendering are met.
+     *
+     * The EGL context and surface are created for the first track and then
+     * kept, so the last frame of the previous track stays on screen until the
+     * new track delivers one; only first frame and resolution tracking start
+     * over.
      */
     private void tryAddRendererToVideoTrack() throws Exception {
         if (videoTrack != null) {
-            EglBase.Context sharedContext = EglUtils.getRootEglBaseContext();
+            ensureTextureRenderer();
+            listenRendererEvents();
+            surfaceTextureRenderer.resetFrameTracking(rendererEvents);
 
-            if (sharedContext == null) {
-                // If SurfaceViewRenderer#init() is invoked, it will throw a
-                // RuntimeException which will very likely kill the application.
-                Log.e(TAG, "Failed to render a VideoTrack!");
+            if (group != null) {
                 return;
             }
-
-            surfaceTextureRenderer.release();
-            listenRendererEvents();
-            surfaceTextureRenderer.init(sharedContext, rendererEvents);
-            surfaceTextureRenderer.surfaceCreated(texture);
-
             videoTrack.addSink(surfaceTextureRenderer);
+            remoteTrackSuspender.sinkAdded(videoTrack);
         }
     }
 
     public boolean checkMediaStream(String id, String ownerTag) {
-        if (null == id || null == mediaStream || ownerTag == null || !ownerTag.equals(this.ownerTag)) {
+        if (null == id || null == mediaStream || ownerTag == null || group != null || !ownerTag.equals(this.ownerTag)) {
             return false;
         }
         return id.equals(mediaStream.getId());
     }
 
     public boolean checkVideoTrack(String id, String ownerTag) {
-        if (null == id || null == videoTrack  || ownerTag == null || !ownerTag.equals(this.ownerTag)) {
+        if (null == id || null == videoTrack  || ownerTag == null || group != null || !ownerTag.equals(this.ownerTag)) {
             return false;
         }
         return id.equals(videoTrack.id());
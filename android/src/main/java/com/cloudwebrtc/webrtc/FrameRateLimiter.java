@@ -0,0 +1,38 @@
+package com.cloudwebrtc.webrtc;
+
+/**
+ * Decides which incoming frames a renderer draws under an fps limit. Frames are accepted at most
+ * once per period, measured from the last accepted frame; a limit of 0 pauses rendering.
+ */
+class FrameRateLimiter {
+  private boolean paused;
+  private long minPeriodNs;
+  private long nextFrameTimeNs;
+
+  /** {@code fps} of 0 pauses, {@link Float#POSITIVE_INFINITY} removes the limit. */
+  synchronized void setFps(float fps) {
+    paused = fps <= 0f;
+    minPeriodNs = paused || Float.isInfinite(fps) ? 0 : (long) (1e9 / fps);
+    nextFrameTimeNs = System.nanoTime();
+  }
+
+  synchronized boolean isPaused() {
+    return paused;
+  }
+
+  /** Whether a frame arriving now should be drawn. */
+  synchronized boolean accept() {
+    if (paused) {
+      return false;
+    }
+    if (minPeriodNs == 0) {
+      return true;
+    }
+    long now = System.nanoTime();
+    if (now < nextFrameTimeNs) {
+      return false;
+    }
+    nextFrameTimeNs = Math.max(nextFrameTimeNs + minPeriodNs, now);
+    return true;
+  }
+}
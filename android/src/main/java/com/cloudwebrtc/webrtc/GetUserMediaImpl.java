@@ -79,6 +79,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 import io.flutter.plugin.common.MethodChannel.Result;
 
@@ -103,8 +105,9 @@ class GetUserMediaImpl {
 
     static final String TAG = FlutterWebRTCPlugin.TAG;
 
-    private final Map<String, VideoCapturerInfo> mVideoCapturers = new HashMap<>();
-    private final Map<String, SurfaceTextureHelper> mSurfaceTextureHelpers = new HashMap<>();
+    // Capturers are added on the media executor and removed from capturer teardown threads.
+    private final Map<String, VideoCapturerInfo> mVideoCapturers = new ConcurrentHashMap<>();
+    private final Map<String, SurfaceTextureHelper> mSurfaceTextureHelpers = new ConcurrentHashMap<>();
     private final StateProvider stateProvider;
     private final Context applicationContext;
 
@@ -118,6 +121,15 @@ class GetUserMediaImpl {
     private boolean isTorchOn;
     private Intent mediaProjectionData = null;
 
+    /**
+     * Where {@code getUserMedia} continues once permissions have been granted. Permission results
+     * are delivered on the main thread, so this lets capturer setup move back off it.
+     */
+    private Executor mediaExecutor = Runnable::run;
+
+    /** Where capturers are stopped, as {@code stopCapture} blocks until the camera is closed. */
+    private Executor lifecycleExecutor = r -> new Thread(r).start();
+
     public void screenRequestPermissions(ResultReceiver resultReceiver) {
         mediaProjectionData = null;
         final Activity activity = stateProvider.getActivity();
@@ -234,6 +246,14 @@ class GetUserMediaImpl {
         this.applicationContext = applicationContext;
     }
 
+    void setMediaExecutor(Executor mediaExecutor) {
+        this.mediaExecutor = mediaExecutor;
+    }
+
+    void setLifecycleExecutor(Executor lifecycleExecutor) {
+        this.lifecycleExecutor = lifecycleExecutor;
+    }
+
     static private void resultError(String method, String error, Result result) {
         String errorMsg = method + "(): " + error;
         result.error(method, errorMsg, null);
@@ -476,7 +496,8 @@ class GetUserMediaImpl {
                     public void invoke(Object... args) {
                         List<String> grantedPermissions = (List<String>) args[0];
 
-                        getUserMedia(constraints, result, mediaStream, grantedPermissions);
+                        mediaExecutor.execute(() ->
+                                getUserMedia(constraints, result, mediaStream, grantedPermissions));
                     }
                 },
                 /* errorCallback */ new Callback() {
@@ -820,31 +841,36 @@ class GetUserMediaImpl {
     }
 
     void removeVideoCapturerSync(String id) {
-        synchronized (mVideoCapturers) {
-            VideoCapturerInfo info = mVideoCapturers.get(id);
-            if (info != null) {
-                try {
-                    info.capturer.stopCapture();
-                } catch (InterruptedException e) {
-                    Log.e(TAG, "removeVideoCapturer() Failed to stop video capturer");
-                } finally {
-                    info.capturer.dispose();
-                    mVideoCapturers.remove(id);
-                    SurfaceTextureHelper helper = mSurfaceTextureHelpers.get(id);
-                    if (helper != null) {
-                        helper.stopListening();
-                        helper.dispose();
-                        mSurfaceTextureHelpers.remove(id);
-                    }
+        // Removing first makes each capturer owned by exactly one caller, so several capturers
+        // can be stopped in parallel.
+        VideoCapturerInfo info = mVideoCapturers.remove(id);
+        if (info != null) {
+            try {
+                info.capturer.stopCapture();
+            } catch (InterruptedException e) {
+                Log.e(TAG, "removeVideoCapturer() Failed to stop video capturer");
+            } finally {
+                info.capturer.dispose();
+                SurfaceTextureHelper helper = mSurfaceTextureHelpers.remove(id);
+                if (helper != null) {
+                    helper.stopListening();
+                    helper.dispose();
                 }
             }
         }
     }
 
     void removeVideoCapturer(String id) {
-        new Thread(() -> {
-            removeVideoCapturerSync(id);
-        }).start();
+        lifecycleExecutor.execute(() -> removeVideoCapturerSync(id));
+    }
+
+    boolean hasVideoCapturer(String id) {
+        return mVideoCapturers.containsKey(id);
+    }
+
+    /** Track ids of all running capturers, whether or not their track is still in a stream. */
+    List<String> getVideoCapturerIds() {
+        return new ArrayList<>(mVideoCapturers.keySet());
     }
 
     @RequiresApi(api = VERSION_CODES.M)
@@ -953,6 +979,9 @@ class GetUserMediaImpl {
         MediaRecorderImpl mediaRecorder = new MediaRecorderImpl(id, videoTrack, interceptor);
         mediaRecorder.startRecording(new File(path));
         mediaRecorders.append(id, mediaRecorder);
+        if (videoTrack != null) {
+            stateProvider.getRemoteTrackSuspender().sinkAdded(videoTrack);
+        }
     }
 
     void stopRecording(Integer id) {
@@ -960,6 +989,9 @@ class GetUserMediaImpl {
         if (mediaRecorder != null) {
             mediaRecorder.stopRecording();
             mediaRecorders.remove(id);
+            if (mediaRecorder.getVideoTrack() != null) {
+                stateProvider.getRemoteTrackSuspender().sinkRemoved(mediaRecorder.getVideoTrack());
+            }
             File file = mediaRecorder.getRecordFile();
             if (file != null) {
                 ContentValues values = new ContentValues(3);
@@ -0,0 +1,87 @@
+package com.cloudwebrtc.webrtc;
+
+import androidx.annotation.Nullable;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Global index from a stream or track id to the object and its owner, either
+ * {@link #LOCAL_OWNER} or the id of the peer connection that received it.
+ *
+ * The same id can be owned by several owners at once (a loopback call sees its own local track
+ * ids on the remote side), so every id maps to a small owner table. Lookups are lock free;
+ * updates happen on add/remove events and are serialized on the index.
+ */
+public final class MediaObjectIndex<T> {
+  public static final String LOCAL_OWNER = "local";
+
+  private final ConcurrentHashMap<String, ConcurrentHashMap<String, T>> entries =
+          new ConcurrentHashMap<>();
+
+  public synchronized void put(String id, String owner, T value) {
+    ConcurrentHashMap<String, T> owners = entries.get(id);
+    if (owners == null) {
+      owners = new ConcurrentHashMap<>();
+      entries.put(id, owners);
+    }
+    owners.put(owner, value);
+  }
+
+  public synchronized void remove(String id, String owner) {
+    ConcurrentHashMap<String, T> owners = entries.get(id);
+    if (owners != null) {
+      owners.remove(owner);
+      if (owners.isEmpty()) {
+        entries.remove(id);
+      }
+    }
+  }
+
+  /** Drops every entry of {@code owner}, e.g. when its peer connection is closed. */
+  public synchronized void removeOwner(String owner) {
+    Iterator<Map.Entry<String, ConcurrentHashMap<String, T>>> it = entries.entrySet().iterator();
+    while (it.hasNext()) {
+      ConcurrentHashMap<String, T> owners = it.next().getValue();
+      owners.remove(owner);
+      if (owners.isEmpty()) {
+        it.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /** The object with {@code id} owned by {@code owner}. */
+  @Nullable
+  public T get(String id, String owner) {
+    ConcurrentHashMap<String, T> owners = entries.get(id);
+    return owners != null ? owners.get(owner) : null;
+  }
+
+  /** The object with {@code id} owned by any peer connection. */
+  @Nullable
+  public T getRemote(String id) {
+    ConcurrentHashMap<String, T> owners = entries.get(id);
+    if (owners == null) {
+      return null;
+    }
+    for (Map.Entry<String, T> entry : owners.entrySet()) {
+      if (!LOCAL_OWNER.equals(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  public boolean contains(String id) {
+    return entries.containsKey(id);
+  }
+
+  public int size() {
+    return entries.size();
+  }
+}
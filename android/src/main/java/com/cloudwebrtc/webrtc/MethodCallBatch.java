@@ -0,0 +1,181 @@
+package com.cloudwebrtc.webrtc;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+import com.cloudwebrtc.webrtc.utils.PluginMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * Runs an {@code executeBatch} call: an ordered list of {@code {"method", "arguments"}}
+ * operations executed back to back without returning to Dart in between.
+ *
+ * Argument values of the form {@code {"$ref": step, "path": "a.b.0"}} are replaced with the
+ * result of an earlier step, optionally narrowed by a dot separated path of map keys and list
+ * indexes. Each step is handed to the {@link StepHandler} like a regular call, so it runs on the
+ * same executor it would have used on its own; the next step is dispatched once the previous one
+ * has produced its result, and its latency is recorded under its own method name. The first
+ * failing step aborts the batch. Methods the plugin answers before dispatching, listed in
+ * {@link #UNBATCHABLE_METHODS}, are rejected.
+ */
+class MethodCallBatch {
+  interface StepHandler {
+    /** Dispatches {@code call} as if it came from Dart. */
+    void handle(MethodCall call, Result result);
+  }
+
+  static final String REF_KEY = "$ref";
+  static final String PATH_KEY = "path";
+
+  static final Set<String> UNBATCHABLE_METHODS = new HashSet<>(Arrays.asList(
+          "executeBatch",
+          "prewarm",
+          "getPluginMetrics",
+          "setMainThreadWatchdog",
+          "getMainThreadStalls"
+  ));
+
+  private final StepHandler handler;
+  private final List<?> operations;
+  private final Result result;
+  @Nullable
+  private final PluginMetrics metrics;
+  private final ArrayList<Object> results = new ArrayList<>();
+
+  MethodCallBatch(StepHandler handler, List<?> operations, Result result,
+                  @Nullable PluginMetrics metrics) {
+    this.handler = handler;
+    this.operations = operations;
+    this.result = result;
+    this.metrics = metrics;
+  }
+
+  void start() {
+    next();
+  }
+
+  private void next() {
+    final int index = results.size();
+    if (index == operations.size()) {
+      ConstraintsMap params = new ConstraintsMap();
+      params.putArray("results", results);
+      result.success(params.toMap());
+      return;
+    }
+    final MethodCall call;
+    try {
+      Object operation = operations.get(index);
+      if (!(operation instanceof Map)) {
+        throw new IllegalArgumentException("operation is not a map");
+      }
+      Map<?, ?> map = (Map<?, ?>) operation;
+      Object method = map.get("method");
+      if (!(method instanceof String)) {
+        throw new IllegalArgumentException("missing method");
+      }
+      if (UNBATCHABLE_METHODS.contains(method)) {
+        throw new IllegalArgumentException(method + " cannot run inside executeBatch");
+      }
+      call = new MethodCall((String) method, resolve(map.get("arguments")));
+    } catch (Exception e) {
+      fail(index, null, e.getMessage());
+      return;
+    }
+    final long startNanos = System.nanoTime();
+    final Result stepResult = new Result() {
+      @Override
+      public void success(@Nullable Object value) {
+        record(call.method, startNanos, false);
+        results.add(value);
+        next();
+      }
+
+      @Override
+      public void error(@NonNull String errorCode, @Nullable String errorMessage,
+                        @Nullable Object errorDetails) {
+        record(call.method, startNanos, true);
+        fail(index, call.method, errorMessage);
+      }
+
+      @Override
+      public void notImplemented() {
+        record(call.method, startNanos, true);
+        fail(index, call.method, "not implemented");
+      }
+    };
+    handler.handle(call, stepResult);
+  }
+
+  private void record(String method, long startNanos, boolean error) {
+    if (metrics != null) {
+      metrics.record(method, System.nanoTime() - startNanos, error);
+    }
+  }
+
+  private void fail(int index, @Nullable String method, @Nullable String message) {
+    ConstraintsMap details = new ConstraintsMap();
+    details.putInt("failedIndex", index);
+    details.putArray("results", results);
+    result.error("executeBatch",
+            "executeBatch(): step " + index + (method != null ? " (" + method + ")" : "")
+                    + " failed: " + message,
+            details.toMap());
+  }
+
+  private Object resolve(Object value) {
+    if (value instanceof Map) {
+      Map<?, ?> map = (Map<?, ?>) value;
+      if (map.containsKey(REF_KEY)) {
+        return lookup(map.get(REF_KEY), map.get(PATH_KEY));
+      }
+      Map<Object, Object> resolved = new HashMap<>();
+      for (Map.Entry<?, ?> entry : map.entrySet()) {
+        resolved.put(entry.getKey(), resolve(entry.getValue()));
+      }
+      return resolved;
+    }
+    if (value instanceof List) {
+      ArrayList<Object> resolved = new ArrayList<>();
+      for (Object item : (List<?>) value) {
+        resolved.add(resolve(item));
+      }
+      return resolved;
+    }
+    return value;
+  }
+
+  private Object lookup(Object step, Object path) {
+    if (!(step instanceof Number)) {
+      throw new IllegalArgumentException("invalid reference " + step);
+    }
+    int index = ((Number) step).intValue();
+    if (index < 0 || index >= results.size()) {
+      throw new IllegalArgumentException("reference to step " + index + " which has not run");
+    }
+    Object value = results.get(index);
+    if (path == null || path.toString().isEmpty()) {
+      return value;
+    }
+    for (String key : path.toString().split("\\.")) {
+      if (value instanceof Map) {
+        value = ((Map<?, ?>) value).get(key);
+      } else if (value instanceof List) {
+        value = ((List<?>) value).get(Integer.parseInt(key));
+      } else {
+        throw new IllegalArgumentException("cannot resolve " + path + " in step " + index);
+      }
+    }
+    return value;
+  }
+}
@@ -0,0 +1,252 @@
+package com.cloudwebrtc.webrtc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.cloudwebrtc.webrtc.utils.MainThreadWatchdog;
+import com.cloudwebrtc.webrtc.utils.SerialExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+
+/**
+ * Moves method calls off the main thread.
+ *
+ * Calls carrying a {@code peerConnectionId} run on a serial executor owned by that peer
+ * connection, so operations on one connection stay ordered while different connections run in
+ * parallel. Factory, media and frame cryptor calls share one global serial executor. Calls that
+ * touch renderers, audio routing or the activity must stay on the main thread and are run inline.
+ */
+class MethodCallDispatcher {
+  private static final String TAG = FlutterWebRTCPlugin.TAG;
+
+  /** Methods that need the main thread (SurfaceTexture/EGL setup, AudioSwitch, activity). */
+  private static final Set<String> MAIN_THREAD_METHODS = new HashSet<>(Arrays.asList(
+          "createVideoRenderer",
+          "videoRendererDispose",
+          "videoRendererSetSrcObject",
+          "videoRendererSetRenderPolicy",
+          "videoRendererSetViewSize",
+          "videoRendererSetMetricsOptions",
+          "videoRendererGetMetrics",
+          "createVideoRendererGroup",
+          "videoRendererGroupAdd",
+          "videoRendererGroupRemove",
+          "videoRendererGroupSetSrcObject",
+          "videoRendererGroupDispose",
+          "createCompositeVideoRenderer",
+          "compositeVideoRendererSetLayout",
+          "compositeVideoRendererDispose",
+          "setSharedVideoRendering",
+          "setVideoRendererIdleRelease",
+          "getVideoRenderingStats",
+          "mediaStreamAddTrack",
+          "mediaStreamRemoveTrack",
+          "streamDispose",
+          "trackDispose",
+          "getSources",
+          "requestCapturePermission",
+          "getDisplayMedia",
+          "selectAudioOutput",
+          "selectAudioInput",
+          "setPreferredInputDevice",
+          "clearAndroidCommunicationDevice",
+          "setMicrophoneMute",
+          "setAndroidAudioConfiguration",
+          "enableSpeakerphone",
+          "enableSpeakerphoneButPreferBluetooth"
+  ));
+
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final Executor mainThreadExecutor = r -> {
+    if (Looper.getMainLooper() == Looper.myLooper()) {
+      r.run();
+    } else {
+      mainHandler.post(r);
+    }
+  };
+  private final ExecutorService pool = Executors.newCachedThreadPool(new ThreadFactory() {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable r) {
+      return new Thread(r, "FlutterWebRTC-worker-" + count.incrementAndGet());
+    }
+  });
+  /** Bounded pool for parallel teardown of capturers. */
+  private final ExecutorService lifecyclePool = Executors.newFixedThreadPool(
+          Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())),
+          new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+              return new Thread(r, "FlutterWebRTC-lifecycle-" + count.incrementAndGet());
+            }
+          });
+  private final SerialExecutor globalExecutor = new SerialExecutor(pool);
+  private final ConcurrentHashMap<String, SerialExecutor> peerConnectionExecutors =
+          new ConcurrentHashMap<>();
+
+  /**
+   * Runs {@code task} on the executor selected for {@code call}. Exceptions thrown by the task are
+   * reported through {@code result} rather than crashing the worker thread.
+   */
+  void dispatch(final MethodCall call, final Result result, final Runnable task) {
+    executorFor(call).execute(MainThreadWatchdog.INSTANCE.wrap(call.method, () -> {
+      try {
+        task.run();
+      } catch (Exception e) {
+        Log.e(TAG, "Failed to handle " + call.method, e);
+        result.error(call.method, call.method + "(): " + e.getMessage(), null);
+      }
+    }));
+  }
+
+  Executor executorFor(MethodCall call) {
+    String method = call.method;
+    if (MAIN_THREAD_METHODS.contains(method)) {
+      return mainThreadExecutor;
+    }
+    if (method.startsWith("frameCryptor") || method.startsWith("keyProvider")) {
+      return globalExecutor;
+    }
+    String peerConnectionId = null;
+    if (call.arguments instanceof Map) {
+      peerConnectionId = call.argument("peerConnectionId");
+    }
+    if (peerConnectionId == null || peerConnectionId.isEmpty()) {
+      return globalExecutor;
+    }
+    return executorForPeerConnection(peerConnectionId);
+  }
+
+  Executor executorForPeerConnection(String peerConnectionId) {
+    SerialExecutor executor = peerConnectionExecutors.get(peerConnectionId);
+    if (executor == null) {
+      SerialExecutor created = new SerialExecutor(pool);
+      executor = peerConnectionExecutors.putIfAbsent(peerConnectionId, created);
+      if (executor == null) {
+        executor = created;
+      }
+    }
+    return executor;
+  }
+
+  /** The serial executor shared by factory and media operations. */
+  Executor globalExecutor() {
+    return globalExecutor;
+  }
+
+  /** Shared worker pool for independent background work such as factory warm-up. */
+  Executor backgroundExecutor() {
+    return pool;
+  }
+
+  /** The bounded executor used to release capturers and peer connections. */
+  Executor lifecycleExecutor() {
+    return lifecyclePool;
+  }
+
+  /**
+   * Runs {@code tasks} in parallel on the lifecycle pool and waits for all of them, at most
+   * {@code timeoutMs}. Returns the number of tasks that did not finish in time.
+   */
+  int runInParallel(List<Runnable> tasks, long timeoutMs) {
+    if (tasks.isEmpty()) {
+      return 0;
+    }
+    List<Callable<Object>> callables = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      callables.add(Executors.callable(task));
+    }
+    int unfinished = 0;
+    try {
+      for (Future<Object> future : lifecyclePool.invokeAll(callables, timeoutMs, TimeUnit.MILLISECONDS)) {
+        if (future.isCancelled()) {
+          unfinished++;
+        } else {
+          try {
+            future.get();
+          } catch (ExecutionException e) {
+            Log.e(TAG, "Teardown task failed", e.getCause());
+          }
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return tasks.size();
+    }
+    return unfinished;
+  }
+
+  /**
+   * Queues each task behind the work already queued for its peer connection, so it runs after
+   * every call made for that connection so far, and returns one future per task. The connections'
+   * executors are forgotten right away: later calls for them get a new executor and must not
+   * find the connection any more.
+   */
+  List<Future<?>> submitToPeerConnections(Map<String, Runnable> tasks) {
+    List<Future<?>> futures = new ArrayList<>(tasks.size());
+    for (Map.Entry<String, Runnable> entry : tasks.entrySet()) {
+      FutureTask<Object> future = new FutureTask<>(entry.getValue(), null);
+      executorForPeerConnection(entry.getKey()).execute(future);
+      releasePeerConnection(entry.getKey());
+      futures.add(future);
+    }
+    return futures;
+  }
+
+  /**
+   * Waits for {@code futures}, at most {@code timeoutMs} in total, and returns the ones that are
+   * still running.
+   */
+  List<Future<?>> awaitAll(List<Future<?>> futures, long timeoutMs) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    List<Future<?>> unfinished = new ArrayList<>();
+    for (Future<?> future : futures) {
+      try {
+        future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        unfinished.add(future);
+      } catch (ExecutionException e) {
+        Log.e(TAG, "Teardown task failed", e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        unfinished.add(future);
+      }
+    }
+    return unfinished;
+  }
+
+  /** Forgets the executor of a disposed peer connection. Tasks already queued still run. */
+  void releasePeerConnection(String peerConnectionId) {
+    peerConnectionExecutors.remove(peerConnectionId);
+  }
+
+  void dispose() {
+    peerConnectionExecutors.clear();
+    pool.shutdown();
+    lifecyclePool.shutdown();
+  }
+}
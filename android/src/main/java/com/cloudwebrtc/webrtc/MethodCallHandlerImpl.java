@@ -11,6 +11,8 @@ import android.hardware.Camera.CameraInfo;
 import android.media.AudioAttributes;
 import android.media.AudioDeviceInfo;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.util.LongSparseArray;
 
@@ -28,8 +30,12 @@ import com.cloudwebrtc.webrtc.utils.Callback;
 import com.cloudwebrtc.webrtc.utils.ConstraintsArray;
 import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
 import com.cloudwebrtc.webrtc.utils.EglUtils;
+import com.cloudwebrtc.webrtc.utils.EventCodec;
+import com.cloudwebrtc.webrtc.utils.IdAllocator;
+import com.cloudwebrtc.webrtc.utils.MainThreadWatchdog;
 import com.cloudwebrtc.webrtc.utils.ObjectType;
 import com.cloudwebrtc.webrtc.utils.PermissionUtils;
+import com.cloudwebrtc.webrtc.utils.PluginMetrics;
 import com.cloudwebrtc.webrtc.utils.Utils;
 import com.twilio.audioswitch.AudioDevice;
 
@@ -56,7 +62,6 @@ import org.webrtc.PeerConnection.RtcpMuxPolicy;
 import org.webrtc.PeerConnection.SdpSemantics;
 import org.webrtc.PeerConnection.TcpCandidatePolicy;
 import org.webrtc.PeerConnectionFactory;
-import org.webrtc.PeerConnectionFactory.InitializationOptions;
 import org.webrtc.PeerConnectionFactory.Options;
 import org.webrtc.RtpCapabilities;
 import org.webrtc.RtpSender;
@@ -73,11 +78,14 @@ import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import io.flutter.plugin.common.BinaryMessenger;
 import io.flutter.plugin.common.EventChannel;
@@ -90,14 +98,28 @@ import io.flutter.view.TextureRegistry.SurfaceTextureEntry;
 public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
   static public final String TAG = "FlutterWebRTCPlugin";
 
-  private final Map<String, PeerConnectionObserver> mPeerConnectionObservers = new HashMap<>();
+  /** Upper bound for each parallel phase of {@code disposeAll}. */
+  private static final long TEARDOWN_TIMEOUT_MS = 5000;
+  /**
+   * Peer connection teardowns of an earlier {@code disposeAll} that did not finish in time; the
+   * next call waits for them before releasing capturers. Global executor only.
+   */
+  private List<Future<?>> pendingPeerConnectionTeardowns = new ArrayList<>();
+
+  private final Map<String, PeerConnectionObserver> mPeerConnectionObservers = new ConcurrentHashMap<>();
   private final BinaryMessenger messenger;
   private final Context context;
   private final TextureRegistry textures;
-  private PeerConnectionFactory mFactory;
-  private final Map<String, MediaStream> localStreams = new HashMap<>();
-  private final Map<String, MediaStreamTrack> localTracks = new HashMap<>();
+  // Written by initialize on the global executor, read from every other executor.
+  private volatile PeerConnectionFactory mFactory;
+  private final Map<String, MediaStream> localStreams = new ConcurrentHashMap<>();
+  private final Map<String, MediaStreamTrack> localTracks = new ConcurrentHashMap<>();
+  private final MediaObjectIndex<MediaStream> streamIndex = new MediaObjectIndex<>();
+  private final MediaObjectIndex<MediaStreamTrack> trackIndex = new MediaObjectIndex<>();
   private final LongSparseArray<FlutterRTCVideoRenderer> renders = new LongSparseArray<>();
+  private final LongSparseArray<VideoRendererGroup> rendererGroups = new LongSparseArray<>();
+  private int nextRendererGroupId = 1;
+  private final LongSparseArray<CompositeVideoRenderer> compositeRenders = new LongSparseArray<>();
 
   /**
    * The implementation of {@code getUserMedia} extracted into a separate file in order to reduce
@@ -115,10 +137,38 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
 
   private CustomVideoDecoderFactory videoDecoderFactory;
 
+  private final MethodCallDispatcher dispatcher = new MethodCallDispatcher();
+
+  private final PluginMetrics metrics = new PluginMetrics();
+
+  private final FactoryWarmup warmup;
+
+  private final PeerConnectionPool peerConnectionPool;
+
+  private final VideoRenderThreadPool renderThreads = new VideoRenderThreadPool();
+
+  private final RemoteTrackSuspender remoteTrackSuspender = new RemoteTrackSuspender();
+
+  private final RenderSizeTracker renderSizeTracker =
+          new RenderSizeTracker(this::sendPreferredResolution);
+
+  /** Whether new renderers draw on {@link #renderThreads} instead of their own thread. */
+  private volatile boolean sharedRendering;
+
+  /** How long idle renderers keep their EGL resources; negative keeps them. Main thread only. */
+  private long rendererIdleReleaseMs = 5000;
+
+  /** Converted RTP capabilities keyed by "sender:kind" / "receiver:kind". */
+  private final ConcurrentHashMap<String, Map<String, Object>> rtpCapabilities =
+          new ConcurrentHashMap<>();
+
   MethodCallHandlerImpl(Context context, BinaryMessenger messenger, TextureRegistry textureRegistry) {
     this.context = context;
     this.textures = textureRegistry;
     this.messenger = messenger;
+    this.warmup = new FactoryWarmup(context, dispatcher.backgroundExecutor());
+    this.peerConnectionPool = new PeerConnectionPool(this::createPeerConnectionObserver,
+            dispatcher.backgroundExecutor());
   }
 
   static private void resultError(String method, String error, Result result) {
@@ -133,27 +183,39 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
       mediaStream.dispose();
     }
     localStreams.clear();
+    streamIndex.removeOwner(MediaObjectIndex.LOCAL_OWNER);
     for (final MediaStreamTrack track : localTracks.values()) {
       track.dispose();
     }
     localTracks.clear();
+    trackIndex.removeOwner(MediaObjectIndex.LOCAL_OWNER);
     for (final PeerConnectionObserver connection : mPeerConnectionObservers.values()) {
       peerConnectionDispose(connection);
     }
     mPeerConnectionObservers.clear();
+    peerConnectionPool.clear();
+    renderThreads.dispose();
+    dispatcher.dispose();
   }
-  private void initialize(int networkIgnoreMask, boolean forceSWCodec, List<String> forceSWCodecList,
+  /**
+   * Creates the factory. Runs on a worker thread; builds the audio device module, which depends
+   * on the options, while {@link FactoryWarmup} finishes the option independent phases, then
+   * waits for them and builds the factory. Returns the duration of every phase, or null if the
+   * factory already exists.
+   */
+  @Nullable
+  private Map<String, Object> initialize(int networkIgnoreMask, boolean forceSWCodec, List<String> forceSWCodecList,
   @Nullable ConstraintsMap androidAudioConfiguration) {
     if (mFactory != null) {
-      return;
+      return null;
     }
+    final long start = System.nanoTime();
+    warmup.start();
 
-    PeerConnectionFactory.initialize(
-            InitializationOptions.builder(context)
-                    .setEnableInternalTracer(true)
-                    .createInitializationOptions());
-
+    long phaseStart = System.nanoTime();
     getUserMediaImpl = new GetUserMediaImpl(this, context);
+    getUserMediaImpl.setMediaExecutor(dispatcher.globalExecutor());
+    getUserMediaImpl.setLifecycleExecutor(dispatcher.lifecycleExecutor());
 
     frameCryptor = new FlutterRTCFrameCryptor(this);
 
@@ -189,18 +251,27 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
     audioDeviceModule = audioDeviceModuleBuilder.createAudioDeviceModule();
 
     getUserMediaImpl.audioDeviceModule = (JavaAudioDeviceModule) audioDeviceModule;
+    final long audioDeviceModuleNanos = System.nanoTime() - phaseStart;
+
+    phaseStart = System.nanoTime();
+    warmup.await();
+    final long warmupWaitNanos = System.nanoTime() - phaseStart;
 
+    phaseStart = System.nanoTime();
     final Options options = new Options();
     options.networkIgnoreMask = networkIgnoreMask;
 
     final PeerConnectionFactory.Builder factoryBuilder = PeerConnectionFactory.builder()
             .setOptions(options);
 
-    // Initialize EGL contexts required for HW acceleration.
-    EglBase.Context eglContext = EglUtils.getRootEglBaseContext();
-
-    videoEncoderFactory = new CustomVideoEncoderFactory(eglContext, true, true);
-    videoDecoderFactory = new CustomVideoDecoderFactory(eglContext);
+    videoEncoderFactory = warmup.getVideoEncoderFactory();
+    videoDecoderFactory = warmup.getVideoDecoderFactory();
+    if (videoEncoderFactory == null || videoDecoderFactory == null) {
+      // Warm-up failed, fall back to creating them here.
+      EglBase.Context eglContext = EglUtils.getRootEglBaseContext();
+      videoEncoderFactory = new CustomVideoEncoderFactory(eglContext, true, true);
+      videoDecoderFactory = new CustomVideoDecoderFactory(eglContext);
+    }
 
     factoryBuilder
             .setVideoEncoderFactory(videoEncoderFactory)
@@ -215,12 +286,67 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
             .setAudioDeviceModule(audioDeviceModule)
             .createPeerConnectionFactory();
 
+    ConstraintsMap phases = new ConstraintsMap(warmup.getTimings());
+    phases.putDouble("warmupWaitMs", warmupWaitNanos / 1e6);
+    phases.putDouble("audioDeviceModuleMs", audioDeviceModuleNanos / 1e6);
+    phases.putDouble("factoryMs", (System.nanoTime() - phaseStart) / 1e6);
+    ConstraintsMap params = new ConstraintsMap();
+    params.putDouble("totalMs", (System.nanoTime() - start) / 1e6);
+    params.putMap("phases", phases.toMap());
+    return params.toMap();
   }
 
   @Override
   public void onMethodCall(MethodCall call, @NonNull Result notSafeResult) {
+    // Started by the first call, not on attach, so apps that never use WebRTC do not load the
+    // native library or enumerate codecs.
+    warmup.start();
+    if (call.method.equals("prewarm")) {
+      notSafeResult.success(null);
+      return;
+    }
+    if (call.method.equals("getPluginMetrics")) {
+      Boolean reset = call.argument("reset");
+      Map<String, Object> snapshot = metrics.toMap();
+      if (reset != null && reset) {
+        metrics.reset();
+      }
+      notSafeResult.success(snapshot);
+      return;
+    }
+    if (call.method.equals("setMainThreadWatchdog")) {
+      Boolean enabled = call.argument("enabled");
+      Number thresholdMs = call.argument("thresholdMs");
+      MainThreadWatchdog.INSTANCE.setEnabled(enabled != null && enabled,
+              thresholdMs != null ? thresholdMs.longValue() : 0);
+      notSafeResult.success(null);
+      return;
+    }
+    if (call.method.equals("getMainThreadStalls")) {
+      Boolean clear = call.argument("clear");
+      ConstraintsMap params = new ConstraintsMap();
+      params.putArray("stalls", MainThreadWatchdog.INSTANCE.getStalls(clear != null && clear));
+      notSafeResult.success(params.toMap());
+      return;
+    }
+    final AnyThreadResult result = new AnyThreadResult(notSafeResult, call.method, metrics);
+    if (call.method.equals("executeBatch")) {
+      List<?> operations = call.argument("operations");
+      if (operations == null) {
+        resultError("executeBatch", "operations is null", result);
+        return;
+      }
+      new MethodCallBatch(
+              (step, stepResult) -> dispatcher.dispatch(step, stepResult,
+                      () -> handleMethodCall(step, stepResult)),
+              operations, result, metrics).start();
+      return;
+    }
+    MainThreadWatchdog.INSTANCE.run(call.method,
+            () -> dispatcher.dispatch(call, result, () -> handleMethodCall(call, result)));
+  }
 
-    final AnyThreadResult result = new AnyThreadResult(notSafeResult);
+  private void handleMethodCall(MethodCall call, @NonNull Result result) {
     switch (call.method) {
       case "initialize": {
         int networkIgnoreMask = Options.ADAPTER_TYPE_UNKNOWN;
@@ -279,8 +405,8 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
             androidAudioConfiguration = constraintsMap.getMap("androidAudioConfiguration");
         }
 
-        initialize(networkIgnoreMask, forceSWCodec, forceSWCodecList, androidAudioConfiguration);
-        result.success(null);
+        result.success(initialize(networkIgnoreMask, forceSWCodec, forceSWCodecList,
+                androidAudioConfiguration));
         break;
       }
       case "createPeerConnection": {
@@ -293,6 +419,29 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         result.success(res.toMap());
         break;
       }
+      case "prewarmPeerConnections": {
+        Map<String, Object> configuration = call.argument("configuration");
+        Map<String, Object> constraints = call.argument("constraints");
+        Integer count = call.argument("count");
+        Number maxAgeMs = call.argument("maxAgeMs");
+        if (mFactory == null) {
+          resultError("prewarmPeerConnections", "factory is not initialized", result);
+          break;
+        }
+        if (configuration == null) {
+          resultError("prewarmPeerConnections", "configuration is null", result);
+          break;
+        }
+        peerConnectionPool.configure(configuration, constraints, count != null ? count : 1,
+                maxAgeMs != null ? maxAgeMs.longValue() : 0);
+        result.success(peerConnectionPool.getStats().toMap());
+        break;
+      }
+      case "clearPeerConnectionPool": {
+        peerConnectionPool.clear();
+        result.success(null);
+        break;
+      }
       case "getUserMedia": {
         Map<String, Object> constraints = call.argument("constraints");
         ConstraintsMap constraintsMap = new ConstraintsMap(constraints);
@@ -324,7 +473,7 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         List<Object> audioTracks = new ArrayList<>();
         List<Object> videoTracks = new ArrayList<>();
         for (AudioTrack track : stream.audioTracks) {
-          localTracks.put(track.id(), track);
+          putLocalTrack(track.id(), track);
           Map<String, Object> trackMap = new HashMap<>();
           trackMap.put("enabled", track.enabled());
           trackMap.put("id", track.id());
@@ -335,7 +484,7 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
           audioTracks.add(trackMap);
         }
         for (VideoTrack track : stream.videoTracks) {
-          localTracks.put(track.id(), track);
+          putLocalTrack(track.id(), track);
           Map<String, Object> trackMap = new HashMap<>();
           trackMap.put("enabled", track.enabled());
           trackMap.put("id", track.id());
@@ -381,18 +530,20 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         String tone = call.argument("tone");
         int duration = call.argument("duration");
         int gap = call.argument("gap");
-        PeerConnection peerConnection = getPeerConnection(peerConnectionId);
-        if (peerConnection != null) {
-          RtpSender audioSender = null;
-          for (RtpSender sender : peerConnection.getSenders()) {
-
-            if (sender != null && sender.track() != null && sender.track().kind().equals("audio")) {
-              audioSender = sender;
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+        if (pco != null && pco.getPeerConnection() != null) {
+          synchronized (pco.getRtpObjects()) {
+            RtpSender audioSender = null;
+            for (RtpSender sender : pco.getRtpObjects().getSenders()) {
+
+              if (sender != null && sender.track() != null && sender.track().kind().equals("audio")) {
+                audioSender = sender;
+              }
+            }
+            if (audioSender != null) {
+              DtmfSender dtmfSender = audioSender.dtmf();
+              dtmfSender.insertDtmf(tone, duration, gap);
             }
-          }
-          if (audioSender != null) {
-            DtmfSender dtmfSender = audioSender.dtmf();
-            dtmfSender.insertDtmf(tone, duration, gap);
           }
           result.success("success");
         } else {
@@ -466,6 +617,12 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
             renderer.setVideoTrack((VideoTrack) localTracks.get(trackId));
           }
         }
+        for (int i = 0; i < rendererGroups.size(); i++) {
+          VideoRendererGroup group = rendererGroups.valueAt(i);
+          if (group.checkMediaStream(streamId, "local")) {
+            group.setVideoTrack((VideoTrack) localTracks.get(trackId));
+          }
+        }
         break;
       }
       case "mediaStreamRemoveTrack": {
@@ -493,6 +650,10 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         result.success(null);
         break;
       }
+      case "disposeAll": {
+        disposeAll(result);
+        break;
+      }
       case "peerConnectionDispose": {
         String peerConnectionId = call.argument("peerConnectionId");
         peerConnectionDispose(peerConnectionId);
@@ -502,13 +663,16 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
       case "createVideoRenderer": {
         SurfaceTextureEntry entry = textures.createSurfaceTexture();
         SurfaceTexture surfaceTexture = entry.surfaceTexture();
-        FlutterRTCVideoRenderer render = new FlutterRTCVideoRenderer(surfaceTexture, entry);
+        FlutterRTCVideoRenderer render = new FlutterRTCVideoRenderer(surfaceTexture, entry,
+                sharedRendering ? renderThreads : null, remoteTrackSuspender, renderSizeTracker,
+                rendererIdleReleaseMs);
         renders.put(entry.id(), render);
 
         EventChannel eventChannel =
                 new EventChannel(
                         messenger,
-                        "FlutterWebRTC/Texture" + entry.id());
+                        "FlutterWebRTC/Texture" + entry.id(),
+                        EventCodec.METHOD_CODEC);
 
         eventChannel.setStreamHandler(render);
         render.setEventChannel(eventChannel);
@@ -519,6 +683,227 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         result.success(params.toMap());
         break;
       }
+      case "videoRendererSetRenderPolicy": {
+        int textureId = call.argument("textureId");
+        Number maxFps = call.argument("maxFps");
+        Boolean paused = call.argument("paused");
+        Boolean autoPause = call.argument("autoPause");
+        Boolean vsyncPacing = call.argument("vsyncPacing");
+        FlutterRTCVideoRenderer render = renders.get(textureId);
+        if (render == null) {
+          resultError("videoRendererSetRenderPolicy", "render [" + textureId + "] not found !", result);
+          return;
+        }
+        render.setRenderPolicy(maxFps != null ? maxFps.floatValue() : Float.POSITIVE_INFINITY,
+                paused != null && paused, autoPause != null && autoPause,
+                vsyncPacing != null && vsyncPacing);
+        result.success(null);
+        break;
+      }
+      case "videoRendererSetViewSize": {
+        int textureId = call.argument("textureId");
+        int width = call.argument("width");
+        int height = call.argument("height");
+        FlutterRTCVideoRenderer render = renders.get(textureId);
+        if (render == null) {
+          resultError("videoRendererSetViewSize", "render [" + textureId + "] not found !", result);
+          return;
+        }
+        render.setViewSize(width, height);
+        result.success(null);
+        break;
+      }
+      case "videoRendererSetMetricsOptions": {
+        int textureId = call.argument("textureId");
+        Number intervalMs = call.argument("intervalMs");
+        Number freezeThresholdMs = call.argument("freezeThresholdMs");
+        FlutterRTCVideoRenderer render = renders.get(textureId);
+        if (render == null) {
+          resultError("videoRendererSetMetricsOptions", "render [" + textureId + "] not found !", result);
+          return;
+        }
+        render.setMetricsOptions(intervalMs != null ? intervalMs.longValue() : 0,
+                freezeThresholdMs != null ? freezeThresholdMs.longValue() : 0);
+        result.success(null);
+        break;
+      }
+      case "videoRendererGetMetrics": {
+        int textureId = call.argument("textureId");
+        FlutterRTCVideoRenderer render = renders.get(textureId);
+        if (render == null) {
+          resultError("videoRendererGetMetrics", "render [" + textureId + "] not found !", result);
+          return;
+        }
+        result.success(render.getMetrics().toMap());
+        break;
+      }
+      case "setRemoteTrackSuspension": {
+        Boolean enabled = call.argument("enabled");
+        Number graceMs = call.argument("graceMs");
+        String mode = call.argument("mode");
+        remoteTrackSuspender.configure(enabled != null && enabled,
+                graceMs != null ? graceMs.longValue() : 3000, mode);
+        result.success(remoteTrackSuspender.getStats().toMap());
+        break;
+      }
+      case "setVideoRendererIdleRelease": {
+        Number idleMs = call.argument("idleMs");
+        rendererIdleReleaseMs = idleMs != null ? idleMs.longValue() : -1;
+        for (int i = 0; i < renders.size(); i++) {
+          renders.valueAt(i).setIdleReleaseMs(rendererIdleReleaseMs);
+        }
+        result.success(null);
+        break;
+      }
+      case "setSharedVideoRendering": {
+        Boolean enabled = call.argument("enabled");
+        Integer threads = call.argument("threads");
+        if (threads != null) {
+          renderThreads.setMaxThreads(threads);
+        }
+        sharedRendering = enabled != null && enabled;
+        result.success(null);
+        break;
+      }
+      case "getVideoRenderingStats": {
+        ConstraintsMap params = renderThreads.getStats();
+        params.putBoolean("shared", sharedRendering);
+        params.putInt("renderers", renders.size());
+        result.success(params.toMap());
+        break;
+      }
+      case "createVideoRendererGroup": {
+        int groupId = nextRendererGroupId++;
+        rendererGroups.put(groupId,
+                new VideoRendererGroup(groupId, renderThreads, remoteTrackSuspender));
+        ConstraintsMap params = new ConstraintsMap();
+        params.putInt("groupId", groupId);
+        result.success(params.toMap());
+        break;
+      }
+      case "videoRendererGroupAdd":
+      case "videoRendererGroupRemove": {
+        int groupId = call.argument("groupId");
+        int textureId = call.argument("textureId");
+        VideoRendererGroup group = rendererGroups.get(groupId);
+        if (group == null) {
+          resultError(call.method, "group [" + groupId + "] not found !", result);
+          return;
+        }
+        FlutterRTCVideoRenderer render = renders.get(textureId);
+        if (render == null) {
+          resultError(call.method, "render [" + textureId + "] not found !", result);
+          return;
+        }
+        if (call.method.equals("videoRendererGroupRemove")) {
+          group.remove(render);
+        } else if (render.isGrouped()) {
+          resultError(call.method, "render [" + textureId + "] is already in a renderer group", result);
+          return;
+        } else {
+          group.add(render);
+        }
+        result.success(null);
+        break;
+      }
+      case "videoRendererGroupSetSrcObject": {
+        int groupId = call.argument("groupId");
+        String streamId = call.argument("streamId");
+        String ownerTag = call.argument("ownerTag");
+        String trackId = call.argument("trackId");
+        VideoRendererGroup group = rendererGroups.get(groupId);
+        if (group == null) {
+          resultError("videoRendererGroupSetSrcObject", "group [" + groupId + "] not found !", result);
+          return;
+        }
+        MediaStream stream = null;
+        if ("local".equals(ownerTag)) {
+          stream = localStreams.get(streamId);
+        } else if (ownerTag != null && !ownerTag.isEmpty()) {
+          stream = getStreamForId(streamId, ownerTag);
+        }
+        group.setStream(stream, trackId, ownerTag);
+        result.success(null);
+        break;
+      }
+      case "videoRendererGroupDispose": {
+        int groupId = call.argument("groupId");
+        VideoRendererGroup group = rendererGroups.get(groupId);
+        if (group == null) {
+          resultError("videoRendererGroupDispose", "group [" + groupId + "] not found !", result);
+          return;
+        }
+        group.dispose();
+        rendererGroups.delete(groupId);
+        result.success(null);
+        break;
+      }
+      case "createCompositeVideoRenderer": {
+        SurfaceTextureEntry entry = textures.createSurfaceTexture();
+        CompositeVideoRenderer render = new CompositeVideoRenderer((int) entry.id(), entry,
+                renderThreads, remoteTrackSuspender, (trackId, ownerTag) -> {
+                  MediaStreamTrack track = getTrackForId(trackId,
+                          "local".equals(ownerTag) ? null : ownerTag);
+                  return track instanceof VideoTrack ? (VideoTrack) track : null;
+                });
+        compositeRenders.put(entry.id(), render);
+
+        EventChannel eventChannel =
+                new EventChannel(
+                        messenger,
+                        "FlutterWebRTC/Texture" + entry.id(),
+                        EventCodec.METHOD_CODEC);
+
+        eventChannel.setStreamHandler(render);
+        render.setEventChannel(eventChannel);
+
+        ConstraintsMap params = new ConstraintsMap();
+        params.putInt("textureId", (int) entry.id());
+        result.success(params.toMap());
+        break;
+      }
+      case "compositeVideoRendererSetLayout": {
+        int textureId = call.argument("textureId");
+        List<Map<String, Object>> tiles = call.argument("tiles");
+        Integer columns = call.argument("columns");
+        int width = call.argument("width");
+        int height = call.argument("height");
+        Integer gap = call.argument("gap");
+        String objectFit = call.argument("objectFit");
+        CompositeVideoRenderer render = compositeRenders.get(textureId);
+        if (render == null) {
+          resultError("compositeVideoRendererSetLayout", "render [" + textureId + "] not found !", result);
+          return;
+        }
+        List<CompositeVideoRenderer.TileSpec> specs = new ArrayList<>();
+        if (tiles != null) {
+          for (Map<String, Object> tile : tiles) {
+            ConstraintsMap tileMap = new ConstraintsMap(tile);
+            specs.add(new CompositeVideoRenderer.TileSpec(
+                    tileMap.getString("trackId"),
+                    tileMap.hasKey("ownerTag") ? tileMap.getString("ownerTag") : "local",
+                    tileMap.hasKey("maxFps") && !tileMap.isNull("maxFps")
+                            ? (float) tileMap.getDouble("maxFps") : Float.POSITIVE_INFINITY,
+                    tileMap.hasKey("mirror") && tileMap.getBoolean("mirror")));
+          }
+        }
+        render.setLayout(specs, columns != null ? columns : 0, width, height,
+                gap != null ? gap : 0, !"contain".equals(objectFit));
+        result.success(null);
+        break;
+      }
+      case "compositeVideoRendererDispose": {
+        int textureId = call.argument("textureId");
+        CompositeVideoRenderer render = compositeRenders.get(textureId);
+        if (render == null) {
+          resultError("compositeVideoRendererDispose", "render [" + textureId + "] not found !", result);
+          return;
+        }
+        render.dispose();
+        compositeRenders.delete(textureId);
+        result.success(null);
+        break;
+      }
       case "videoRendererDispose": {
         int textureId = call.argument("textureId");
         FlutterRTCVideoRenderer render = renders.get(textureId);
@@ -541,6 +926,10 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
           resultError("videoRendererSetSrcObject", "render [" + textureId + "] not found !", result);
           return;
         }
+        if (render.isGrouped()) {
+          resultError("videoRendererSetSrcObject", "render [" + textureId + "] is in a renderer group", result);
+          return;
+        }
         MediaStream stream = null;
         if (ownerTag.equals("local")) {
           stream = localStreams.get(streamId);
@@ -825,6 +1214,17 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         getTransceivers(peerConnectionId, result);
         break;
       }
+      case "getPeerConnectionSnapshot": {
+        String peerConnectionId = call.argument("peerConnectionId");
+        Map<String, Object> knownVersions = call.argument("knownVersions");
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+        if (pco == null || pco.getPeerConnection() == null) {
+          resultError("getPeerConnectionSnapshot", "peerConnection is null", result);
+        } else {
+          pco.getSnapshot(knownVersions, result);
+        }
+        break;
+      }
       case "setPreferredInputDevice": {
         if (Build.VERSION.SDK_INT > Build.VERSION_CODES.LOLLIPOP_MR1) {
           String deviceId = call.argument("deviceId");
@@ -837,22 +1237,12 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
       }
       case "getRtpSenderCapabilities": {
         String kind = call.argument("kind");
-        MediaStreamTrack.MediaType mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
-        if (kind.equals("video")) {
-          mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
-        }
-        RtpCapabilities capabilities = mFactory.getRtpSenderCapabilities(mediaType);
-        result.success(capabilitiestoMap(capabilities).toMap());
+        result.success(getRtpCapabilities(true, kind));
         break;
       }
       case "getRtpReceiverCapabilities": {
         String kind = call.argument("kind");
-        MediaStreamTrack.MediaType mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
-        if (kind.equals("video")) {
-          mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
-        }
-        RtpCapabilities capabilities = mFactory.getRtpReceiverCapabilities(mediaType);
-        result.success(capabilitiestoMap(capabilities).toMap());
+        result.success(getRtpCapabilities(false, kind));
         break;
       }
       case "setCodecPreferences": {
@@ -919,6 +1309,65 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
     }
   }
 
+  private void sendPreferredResolution(String ownerTag, String trackId, int width, int height) {
+    PeerConnectionObserver pco = mPeerConnectionObservers.get(ownerTag);
+    if (pco == null) {
+      return;
+    }
+    ConstraintsMap params = new ConstraintsMap();
+    params.putString("event", "preferredResolution");
+    params.putString("trackId", trackId);
+    params.putInt("width", width);
+    params.putInt("height", height);
+    pco.sendEvent(params);
+  }
+
+  /**
+   * Sender or receiver capabilities for {@code kind}. They are fixed once the factory exists, so
+   * the converted map is built once and shared; it is read-only at every level.
+   */
+  private Map<String, Object> getRtpCapabilities(boolean sender, String kind) {
+    String key = (sender ? "sender:" : "receiver:") + kind;
+    Map<String, Object> capabilitiesMap = rtpCapabilities.get(key);
+    if (capabilitiesMap != null) {
+      return capabilitiesMap;
+    }
+    MediaStreamTrack.MediaType mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_AUDIO;
+    if (kind.equals("video")) {
+      mediaType = MediaStreamTrack.MediaType.MEDIA_TYPE_VIDEO;
+    }
+    RtpCapabilities capabilities = sender
+            ? mFactory.getRtpSenderCapabilities(mediaType)
+            : mFactory.getRtpReceiverCapabilities(mediaType);
+    capabilitiesMap = readOnlyMap(capabilitiestoMap(capabilities).toMap());
+    rtpCapabilities.put(key, capabilitiesMap);
+    return capabilitiesMap;
+  }
+
+  /** Unmodifiable copy of {@code map}, including the maps and lists nested in it. */
+  private static Map<String, Object> readOnlyMap(Map<String, Object> map) {
+    Map<String, Object> copy = new HashMap<>();
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      copy.put(entry.getKey(), readOnlyValue(entry.getValue()));
+    }
+    return Collections.unmodifiableMap(copy);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object readOnlyValue(Object value) {
+    if (value instanceof Map) {
+      return readOnlyMap((Map<String, Object>) value);
+    }
+    if (value instanceof List) {
+      List<Object> copy = new ArrayList<>();
+      for (Object item : (List<Object>) value) {
+        copy.add(readOnlyValue(item));
+      }
+      return Collections.unmodifiableList(copy);
+    }
+    return value;
+  }
+
   private ConstraintsMap capabilitiestoMap(RtpCapabilities capabilities) {
     ConstraintsMap capabilitiesMap = new ConstraintsMap();
     ConstraintsArray codecArr = new ConstraintsArray();
@@ -1244,6 +1693,20 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
   }
 
   public String peerConnectionInit(ConstraintsMap configuration, ConstraintsMap constraints) {
+    PeerConnectionObserver observer =
+            peerConnectionPool.take(configuration.toMap(), constraints.toMap());
+    if (observer == null) {
+      observer = createPeerConnectionObserver(configuration, constraints);
+    }
+    String peerConnectionId = observer.getId();
+    observer.setExecutor(dispatcher.executorForPeerConnection(peerConnectionId));
+    mPeerConnectionObservers.put(peerConnectionId, observer);
+    return peerConnectionId;
+  }
+
+  /** Creates a peer connection and its observer, used directly and by the prewarm pool. */
+  private PeerConnectionObserver createPeerConnectionObserver(ConstraintsMap configuration,
+                                                              ConstraintsMap constraints) {
     String peerConnectionId = getNextStreamUUID();
     RTCConfiguration conf = parseRTCConfiguration(configuration);
     PeerConnectionObserver observer = new PeerConnectionObserver(conf, this, messenger, peerConnectionId);
@@ -1253,22 +1716,33 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
             parseMediaConstraints(constraints),
             observer);
     observer.setPeerConnection(peerConnection);
-    mPeerConnectionObservers.put(peerConnectionId, observer);
-    return peerConnectionId;
+    return observer;
   }
 
   @Override
   public boolean putLocalStream(String streamId, MediaStream stream) {
     localStreams.put(streamId, stream);
+    streamIndex.put(streamId, MediaObjectIndex.LOCAL_OWNER, stream);
     return true;
   }
 
   @Override
   public boolean putLocalTrack(String trackId, MediaStreamTrack track) {
     localTracks.put(trackId, track);
+    trackIndex.put(trackId, MediaObjectIndex.LOCAL_OWNER, track);
     return true;
   }
 
+  private void removeLocalStream(String streamId) {
+    localStreams.remove(streamId);
+    streamIndex.remove(streamId, MediaObjectIndex.LOCAL_OWNER);
+  }
+
+  private void removeLocalTrack(String trackId) {
+    localTracks.remove(trackId);
+    trackIndex.remove(trackId, MediaObjectIndex.LOCAL_OWNER);
+  }
+
   @Override
   public MediaStreamTrack getLocalTrack(String trackId) {
     return localTracks.get(trackId);
@@ -1276,24 +1750,27 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
 
   @Override
   public String getNextStreamUUID() {
-    String uuid;
-
-    do {
-      uuid = UUID.randomUUID().toString();
-    } while (getStreamForId(uuid, "") != null);
-
-    return uuid;
+    return IdAllocator.next();
   }
 
   @Override
   public String getNextTrackUUID() {
-    String uuid;
+    return IdAllocator.next();
+  }
 
-    do {
-      uuid = UUID.randomUUID().toString();
-    } while (getTrackForId(uuid, null) != null);
+  @Override
+  public MediaObjectIndex<MediaStream> getStreamIndex() {
+    return streamIndex;
+  }
+
+  @Override
+  public MediaObjectIndex<MediaStreamTrack> getTrackIndex() {
+    return trackIndex;
+  }
 
-    return uuid;
+  @Override
+  public RemoteTrackSuspender getRemoteTrackSuspender() {
+    return remoteTrackSuspender;
   }
 
   @Override
@@ -1324,21 +1801,11 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
   }
 
   MediaStream getStreamForId(String id, String peerConnectionId) {
-    MediaStream stream = null;
+    MediaStream stream;
     if (peerConnectionId.length() > 0) {
-      PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
-      if (pco != null) {
-        stream = pco.remoteStreams.get(id);
-      }
+      stream = streamIndex.get(id, peerConnectionId);
     } else {
-      for (Entry<String, PeerConnectionObserver> entry : mPeerConnectionObservers
-              .entrySet()) {
-        PeerConnectionObserver pco = entry.getValue();
-        stream = pco.remoteStreams.get(id);
-        if (stream != null) {
-          break;
-        }
-      }
+      stream = streamIndex.getRemote(id);
     }
     if (stream == null) {
       stream = localStreams.get(id);
@@ -1351,19 +1818,26 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
     MediaStreamTrack track = localTracks.get(trackId);
 
     if (track == null) {
-      for (Entry<String, PeerConnectionObserver> entry : mPeerConnectionObservers.entrySet()) {
-        if (peerConnectionId != null && entry.getKey().compareTo(peerConnectionId) != 0)
-          continue;
-
-        PeerConnectionObserver pco = entry.getValue();
-        track = pco.remoteTracks.get(trackId);
+      track = peerConnectionId != null
+              ? trackIndex.get(trackId, peerConnectionId)
+              : trackIndex.getRemote(trackId);
+    }
 
-        if (track == null) {
+    if (track == null) {
+      // Receivers of transceivers added locally are only indexed once onTrack fires for them,
+      // before that they are found through the connection's own transceivers, or through those
+      // of every connection if the caller does not know which one.
+      if (peerConnectionId != null) {
+        PeerConnectionObserver pco = mPeerConnectionObservers.get(peerConnectionId);
+        if (pco != null) {
           track = pco.getTransceiversTrack(trackId);
         }
-
-        if (track != null) {
-          break;
+      } else {
+        for (PeerConnectionObserver pco : mPeerConnectionObservers.values()) {
+          track = pco.getTransceiversTrack(trackId);
+          if (track != null) {
+            break;
+          }
         }
       }
     }
@@ -1460,12 +1934,12 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
   private void createLocalMediaStream(Result result) {
     String streamId = getNextStreamUUID();
     MediaStream mediaStream = mFactory.createLocalMediaStream(streamId);
-    localStreams.put(streamId, mediaStream);
 
     if (mediaStream == null) {
       resultError("createLocalMediaStream", "Failed to create new media stream", result);
       return;
     }
+    putLocalStream(streamId, mediaStream);
     Map<String, Object> resultMap = new HashMap<>();
     resultMap.put("streamId", mediaStream.getId());
     result.success(resultMap);
@@ -1482,7 +1956,7 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
     if (track.kind().equals("video")) {
       getUserMediaImpl.removeVideoCapturer(trackId);
     }
-    localTracks.remove(trackId);
+    removeLocalTrack(trackId);
   }
 
   public void mediaStreamTrackSetEnabled(final String id, final boolean enabled, String peerConnectionId) {
@@ -1569,7 +2043,7 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
       return;
     }
     track.setEnabled(false); // should we do this?
-    localTracks.remove(_trackId);
+    removeLocalTrack(_trackId);
     if (track.kind().equals("audio")) {
       stream.removeTrack((AudioTrack) track);
     } else if (track.kind().equals("video")) {
@@ -1731,6 +2205,10 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
 
         @Override
         public void onSetSuccess() {
+          PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
+          if (pco != null) {
+            pco.scheduleTransceiverChanges();
+          }
           result.success(null);
         }
 
@@ -1764,6 +2242,10 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
 
         @Override
         public void onSetSuccess() {
+          PeerConnectionObserver pco = mPeerConnectionObservers.get(id);
+          if (pco != null) {
+            pco.scheduleTransceiverChanges();
+          }
           result.success(null);
         }
 
@@ -1838,6 +2320,7 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
       if (peerConnectionDispose(pco)) {
 
         mPeerConnectionObservers.remove(id);
+        dispatcher.releasePeerConnection(id);
       }
     } else {
       Log.d(TAG, "peerConnectionDispose() peerConnectionObserver is null");
@@ -1847,6 +2330,133 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
     }
   }
 
+  /**
+   * Tears down every peer connection, capturer and local stream at once, in dependency order:
+   * renderers are detached first, then peer connections are disposed and capturers stopped in
+   * parallel on the lifecycle executor, and finally the local streams are released. Reports the
+   * time spent in each phase.
+   */
+  private void disposeAll(Result result) {
+    final long start = System.nanoTime();
+    ConstraintsMap phases = new ConstraintsMap();
+
+    long phaseStart = System.nanoTime();
+    CountDownLatch renderersDetached = new CountDownLatch(1);
+    new Handler(Looper.getMainLooper()).post(() -> {
+      for (int i = 0; i < rendererGroups.size(); i++) {
+        rendererGroups.valueAt(i).setStream(null, null, null);
+      }
+      for (int i = 0; i < compositeRenders.size(); i++) {
+        compositeRenders.valueAt(i).clearTiles();
+      }
+      for (int i = 0; i < renders.size(); i++) {
+        renders.valueAt(i).setStream(null, null);
+      }
+      renderersDetached.countDown();
+    });
+    try {
+      renderersDetached.await(TEARDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    phases.putDouble("renderersMs", (System.nanoTime() - phaseStart) / 1e6);
+
+    phaseStart = System.nanoTime();
+    // Each connection is disposed on its own serial executor, after the calls already queued for
+    // it, so none of them can touch the native connection once it is freed.
+    Map<String, Runnable> teardowns = new HashMap<>();
+    for (final String id : new ArrayList<>(mPeerConnectionObservers.keySet())) {
+      final PeerConnectionObserver pco = mPeerConnectionObservers.remove(id);
+      if (pco != null && pco.getPeerConnection() != null) {
+        teardowns.put(id, pco::dispose);
+      } else {
+        dispatcher.releasePeerConnection(id);
+      }
+    }
+    int peerConnections = teardowns.size();
+    List<Future<?>> disposing = new ArrayList<>(pendingPeerConnectionTeardowns);
+    disposing.addAll(dispatcher.submitToPeerConnections(teardowns));
+    pendingPeerConnectionTeardowns = dispatcher.awaitAll(disposing, TEARDOWN_TIMEOUT_MS);
+    AudioSwitchManager.instance.stop();
+    phases.putDouble("peerConnectionsMs", (System.nanoTime() - phaseStart) / 1e6);
+    int timedOut = pendingPeerConnectionTeardowns.size();
+    if (timedOut > 0) {
+      // Capturers and tracks may still be used by the connections being disposed.
+      disposeAllFailed(timedOut + " peer connections are still being disposed, capturers and"
+              + " streams were kept", start, peerConnections, 0, 0, timedOut, phases, result);
+      return;
+    }
+
+    phaseStart = System.nanoTime();
+    List<Runnable> tasks = new ArrayList<>();
+    // Taken from the registry, so capturers of tracks removed from their stream stop as well.
+    for (final String trackId : getUserMediaImpl.getVideoCapturerIds()) {
+      tasks.add(() -> getUserMediaImpl.removeVideoCapturerSync(trackId));
+    }
+    int capturers = tasks.size();
+    timedOut = dispatcher.runInParallel(tasks, TEARDOWN_TIMEOUT_MS);
+    phases.putDouble("capturersMs", (System.nanoTime() - phaseStart) / 1e6);
+    if (timedOut > 0) {
+      disposeAllFailed(timedOut + " capturers did not stop in time, streams were kept", start,
+              peerConnections, capturers, 0, timedOut, phases, result);
+      return;
+    }
+
+    phaseStart = System.nanoTime();
+    int streams = 0;
+    for (final String streamId : new ArrayList<>(localStreams.keySet())) {
+      MediaStream stream = localStreams.get(streamId);
+      if (stream == null) {
+        continue;
+      }
+      for (VideoTrack track : new ArrayList<>(stream.videoTracks)) {
+        removeLocalTrack(track.id());
+        stream.removeTrack(track);
+      }
+      for (AudioTrack track : new ArrayList<>(stream.audioTracks)) {
+        removeLocalTrack(track.id());
+        stream.removeTrack(track);
+      }
+      removeLocalStream(streamId);
+      streams++;
+    }
+    // Tracks that are in no local stream any more, e.g. after mediaStreamRemoveTrack. Their
+    // capturers are stopped and the connections that could send them are gone.
+    for (final String trackId : new ArrayList<>(localTracks.keySet())) {
+      MediaStreamTrack track = localTracks.get(trackId);
+      removeLocalTrack(trackId);
+      if (track != null) {
+        track.dispose();
+      }
+    }
+    phases.putDouble("streamsMs", (System.nanoTime() - phaseStart) / 1e6);
+
+    result.success(disposeAllReport(start, peerConnections, capturers, streams, 0, phases));
+  }
+
+  private static Map<String, Object> disposeAllReport(long start, int peerConnections,
+                                                      int capturers, int streams, int timedOut,
+                                                      ConstraintsMap phases) {
+    ConstraintsMap params = new ConstraintsMap();
+    params.putDouble("totalMs", (System.nanoTime() - start) / 1e6);
+    params.putInt("peerConnections", peerConnections);
+    params.putInt("capturers", capturers);
+    params.putInt("streams", streams);
+    params.putInt("timedOut", timedOut);
+    params.putMap("phases", phases.toMap());
+    return params.toMap();
+  }
+
+  /** Reports a phase that did not finish in time; the report so far is in the error details. */
+  private static void disposeAllFailed(String error, long start, int peerConnections,
+                                       int capturers, int streams, int timedOut,
+                                       ConstraintsMap phases, Result result) {
+    String errorMsg = "disposeAll(): " + error;
+    result.error("disposeAll", errorMsg,
+            disposeAllReport(start, peerConnections, capturers, streams, timedOut, phases));
+    Log.d(TAG, errorMsg);
+  }
+
   public boolean peerConnectionDispose(final PeerConnectionObserver pco) {
     if (pco.getPeerConnection() == null) {
       Log.d(TAG, "peerConnectionDispose() peerConnection is null");
@@ -1861,7 +2471,7 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
     MediaStream stream = localStreams.get(streamId);
     if (stream != null) {
       streamDispose(stream);
-      localStreams.remove(streamId);
+      removeLocalStream(streamId);
       removeStreamForRendererById(streamId);
     } else {
       Log.d(TAG, "streamDispose() mediaStream is null");
@@ -1871,13 +2481,13 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
   public void streamDispose(final MediaStream stream) {
     List<VideoTrack> videoTracks = stream.videoTracks;
     for (VideoTrack track : videoTracks) {
-      localTracks.remove(track.id());
+      removeLocalTrack(track.id());
       getUserMediaImpl.removeVideoCapturer(track.id());
       stream.removeTrack(track);
     }
     List<AudioTrack> audioTracks = stream.audioTracks;
     for (AudioTrack track : audioTracks) {
-      localTracks.remove(track.id());
+      removeLocalTrack(track.id());
       stream.removeTrack(track);
     }
   }
@@ -1889,6 +2499,12 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         renderer.setStream(null, "");
       }
     }
+    for (int i = 0; i < rendererGroups.size(); i++) {
+      VideoRendererGroup group = rendererGroups.valueAt(i);
+      if (group.checkMediaStream(streamId, "local")) {
+        group.setStream(null, null, null);
+      }
+    }
   }
 
   private void removeTrackForRendererById(String trackId) {
@@ -1898,6 +2514,15 @@ public class MethodCallHandlerImpl implements MethodCallHandler, StateProvider {
         renderer.setStream(null, null);
       }
     }
+    for (int i = 0; i < rendererGroups.size(); i++) {
+      VideoRendererGroup group = rendererGroups.valueAt(i);
+      if (group.checkVideoTrack(trackId, "local")) {
+        group.setStream(null, null, null);
+      }
+    }
+    for (int i = 0; i < compositeRenders.size(); i++) {
+      compositeRenders.valueAt(i).removeTrack(trackId, "local");
+    }
   }
 
   public void createDataChannel(final String peerConnectionId, String label, ConstraintsMap config,
@@ -8,6 +8,8 @@ import com.cloudwebrtc.webrtc.audio.AudioSwitchManager;
 import com.cloudwebrtc.webrtc.utils.AnyThreadSink;
 import com.cloudwebrtc.webrtc.utils.ConstraintsArray;
 import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+import com.cloudwebrtc.webrtc.utils.EventCodec;
+import com.cloudwebrtc.webrtc.utils.IdAllocator;
 import com.cloudwebrtc.webrtc.utils.Utils;
 
 import io.flutter.plugin.common.BinaryMessenger;
@@ -21,11 +23,17 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.webrtc.AudioTrack;
 import org.webrtc.CandidatePairChangeEvent;
@@ -42,21 +50,48 @@ import org.webrtc.RtpParameters;
 import org.webrtc.RtpReceiver;
 import org.webrtc.RtpSender;
 import org.webrtc.RtpTransceiver;
+import org.webrtc.SessionDescription;
 import org.webrtc.VideoTrack;
 
 class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.StreamHandler {
   private final static String TAG = FlutterWebRTCPlugin.TAG;
-  private final Map<String, DataChannel> dataChannels = new HashMap<>();
+  // Registries below are written from the plugin executor of this connection and from WebRTC
+  // signaling callbacks, so they are all concurrent maps.
+  private final Map<String, DataChannel> dataChannels = new ConcurrentHashMap<>();
   private final BinaryMessenger messenger;
   private final String id;
   private PeerConnection peerConnection;
   private final PeerConnection.RTCConfiguration configuration;
-  final Map<String, MediaStream> remoteStreams = new HashMap<>();
-  final Map<String, MediaStreamTrack> remoteTracks = new HashMap<>();
-  final Map<String, RtpTransceiver> transceivers = new HashMap<>();
+  final Map<String, MediaStream> remoteStreams = new ConcurrentHashMap<>();
+  final Map<String, MediaStreamTrack> remoteTracks = new ConcurrentHashMap<>();
+  /** Generated ids of transceivers that have no mid yet, mapped to their sender id. */
+  final Map<String, String> transceivers = new ConcurrentHashMap<>();
+  private volatile RtpObjectIndex rtpObjects;
+  // Bumped whenever the matching section of getPeerConnectionSnapshot may have changed.
+  private final AtomicLong stateVersion = new AtomicLong(1);
+  private final AtomicLong descriptionVersion = new AtomicLong(1);
+  private final AtomicLong rtpVersion = new AtomicLong(1);
+  /** Last reported mid, directions and encodings of each transceiver, keyed by sender id. */
+  private final Map<String, Map<String, Object>> reportedTransceivers = new HashMap<>();
+  /** Senders whose parameters were set since the last transceiver scan. */
+  private final Set<String> changedSenderParameters =
+      Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+  private final AtomicBoolean transceiverScanPending = new AtomicBoolean();
+  /** {@link #descriptionVersion} at the last transceiver scan, guarded by this. */
+  private long scannedDescriptionVersion;
+  /** Set before the native connection is disposed, guarded by this. */
+  private boolean disposed;
+  /** The serial executor of this connection, used for work triggered by WebRTC callbacks. */
+  private Executor executor = Runnable::run;
   private final StateProvider stateProvider;
   private final EventChannel eventChannel;
-  private EventChannel.EventSink eventSink;
+  private volatile EventChannel.EventSink eventSink;
+  /**
+   * Events sent before Dart first listened, e.g. while the connection was set up by an
+   * executeBatch call. Guarded by itself.
+   */
+  private final ArrayList<Object> eventQueue = new ArrayList<>();
+  private boolean listened;
 
   PeerConnectionObserver(PeerConnection.RTCConfiguration configuration, StateProvider stateProvider, BinaryMessenger messenger, String id) {
     this.configuration = configuration;
@@ -64,7 +99,8 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     this.messenger = messenger;
     this.id = id;
 
-    eventChannel = new EventChannel(messenger, "FlutterWebRTC/peerConnectionEvent" + id);
+    eventChannel = new EventChannel(messenger, "FlutterWebRTC/peerConnectionEvent" + id,
+        EventCodec.METHOD_CODEC);
     eventChannel.setStreamHandler(this);
   }
 
@@ -76,7 +112,16 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
 
   @Override
   public void onListen(Object o, EventChannel.EventSink sink) {
-    eventSink = new AnyThreadSink(sink);
+    // Events may be queued concurrently from the signaling thread.
+    synchronized (eventQueue) {
+      AnyThreadSink anyThreadSink = new AnyThreadSink(sink);
+      for (Object event : eventQueue) {
+        anyThreadSink.success(event);
+      }
+      eventQueue.clear();
+      listened = true;
+      eventSink = anyThreadSink;
+    }
   }
 
   @Override
@@ -90,20 +135,81 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
 
   void setPeerConnection(PeerConnection peerConnection) {
     this.peerConnection = peerConnection;
+    this.rtpObjects = new RtpObjectIndex(peerConnection,
+        configuration.sdpSemantics == PeerConnection.SdpSemantics.UNIFIED_PLAN);
+  }
+
+  void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  Executor getExecutor() {
+    return executor;
+  }
+
+  RtpObjectIndex getRtpObjects() {
+    return rtpObjects;
+  }
+
+  /**
+   * Reports a change of senders, receivers or transceivers. Observer callbacks may arrive before
+   * {@link #setPeerConnection} on the signaling thread.
+   */
+  private void invalidateRtpObjects() {
+    rtpVersion.incrementAndGet();
+    RtpObjectIndex index = rtpObjects;
+    if (index != null) {
+      index.invalidate();
+    }
+  }
+
+  /**
+   * Returns the mid of {@code transceiver}, or a generated id that stays the same until the
+   * transceiver gets a mid.
+   */
+  private String transceiverIdFor(RtpTransceiver transceiver) {
+    String mid = transceiver.getMid();
+    if (mid != null) {
+      return mid;
+    }
+    String senderId = transceiver.getSender().id();
+    synchronized (transceivers) {
+      for (Map.Entry<String, String> entry : transceivers.entrySet()) {
+        if (senderId.equals(entry.getValue())) {
+          return entry.getKey();
+        }
+      }
+      String transceiverId = stateProvider.getNextStreamUUID();
+      transceivers.put(transceiverId, senderId);
+      return transceiverId;
+    }
   }
 
   void restartIce() {
     peerConnection.restartIce();
   }
 
+  String getId() {
+    return id;
+  }
+
   void close() {
     peerConnection.close();
     remoteStreams.clear();
+    for (String trackId : remoteTracks.keySet()) {
+      stateProvider.getRemoteTrackSuspender().trackRemoved(this, trackId);
+    }
     remoteTracks.clear();
+    stateProvider.getStreamIndex().removeOwner(id);
+    stateProvider.getTrackIndex().removeOwner(id);
     dataChannels.clear();
   }
 
   void dispose() {
+    // Waits for a running transceiver scan; later ones see the flag and return.
+    synchronized (this) {
+      disposed = true;
+    }
     this.close();
     peerConnection.dispose();
     eventChannel.setStreamHandler(null);
@@ -169,36 +275,23 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
   }
 
   RtpTransceiver getRtpTransceiverById(String id) {
-    RtpTransceiver transceiver = transceivers.get(id);
-    if (null == transceiver) {
-      List<RtpTransceiver> transceivers = peerConnection.getTransceivers();
-      for (RtpTransceiver t : transceivers) {
-        if (id.equals(t.getMid())) {
-          transceiver = t;
-        }
-      }
+    String senderId = transceivers.get(id);
+    RtpTransceiver transceiver = null;
+    if (senderId != null) {
+      transceiver = rtpObjects.getTransceiverBySenderId(senderId);
+    }
+    if (transceiver == null) {
+      transceiver = rtpObjects.getTransceiverByMid(id);
     }
     return transceiver;
   }
 
   RtpSender getRtpSenderById(String id) {
-    List<RtpSender> senders = peerConnection.getSenders();
-    for (RtpSender sender : senders) {
-      if (id.equals(sender.id())) {
-        return sender;
-      }
-    }
-    return null;
+    return rtpObjects.getSender(id);
   }
 
   RtpReceiver getRtpReceiverById(String id) {
-    List<RtpReceiver> receivers = peerConnection.getReceivers();
-    for (RtpReceiver receiver : receivers) {
-      if (id.equals(receiver.id())) {
-        return receiver;
-      }
-    }
-    return null;
+    return rtpObjects.getReceiver(id);
   }
 
   void handleStatsReport(RTCStatsReport rtcStatsReport, Result result) {
@@ -274,27 +367,17 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
       return;
     }
 
-    RtpSender sender = null;
-    RtpReceiver receiver = null;
-    for (RtpSender s : peerConnection.getSenders()) {
-      if (s.track() != null && trackId.equals(s.track().id())) {
-        sender = s;
-        break;
+    synchronized (rtpObjects) {
+      RtpSender sender = rtpObjects.getSenderForTrack(trackId);
+      RtpReceiver receiver = rtpObjects.getReceiverForTrack(trackId);
+      if (sender != null) {
+        peerConnection.getStats(sender, rtcStatsReport -> handleStatsReport(rtcStatsReport, result));
+      } else if (receiver != null) {
+        peerConnection.getStats(receiver, rtcStatsReport -> handleStatsReport(rtcStatsReport, result));
+      } else {
+        resultError("peerConnectionGetStats", "MediaStreamTrack not found for id: " + trackId, result);
       }
     }
-    for (RtpReceiver r : peerConnection.getReceivers()) {
-      if (r.track() != null && trackId.equals(r.track().id())) {
-        receiver = r;
-        break;
-      }
-    }
-    if (sender != null) {
-      peerConnection.getStats(sender, rtcStatsReport -> handleStatsReport(rtcStatsReport, result));
-    } else if (receiver != null) {
-      peerConnection.getStats(receiver, rtcStatsReport -> handleStatsReport(rtcStatsReport, result));
-    } else {
-      resultError("peerConnectionGetStats", "MediaStreamTrack not found for id: " + trackId, result);
-    }
   }
 
   void getStats(final Result result) {
@@ -305,10 +388,9 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
   @Override
   public void onIceCandidate(final IceCandidate candidate) {
     Log.d(TAG, "onIceCandidate");
-    ConstraintsMap params = new ConstraintsMap();
-    params.putString("event", "onCandidate");
-    params.putMap("candidate", candidateToMap(candidate));
-    sendEvent(params);
+    // Gathered candidates are added to the local description.
+    descriptionVersion.incrementAndGet();
+    sendEvent(new EventCodec.IceCandidateEvent(candidate.sdpMid, candidate.sdpMLineIndex, candidate.sdp));
   }
 
   @Override
@@ -332,10 +414,9 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
 
   @Override
   public void onIceConnectionChange(PeerConnection.IceConnectionState iceConnectionState) {
-    ConstraintsMap params = new ConstraintsMap();
-    params.putString("event", "iceConnectionState");
-    params.putString("state", Utils.iceConnectionStateString(iceConnectionState));
-    sendEvent(params);
+    stateVersion.incrementAndGet();
+    sendEvent(EventCodec.stateChanged(EventCodec.KIND_ICE_CONNECTION,
+        Utils.iceConnectionStateString(iceConnectionState)));
   }
 
   @Override
@@ -350,10 +431,9 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
   @Override
   public void onIceGatheringChange(PeerConnection.IceGatheringState iceGatheringState) {
     Log.d(TAG, "onIceGatheringChange" + iceGatheringState.name());
-    ConstraintsMap params = new ConstraintsMap();
-    params.putString("event", "iceGatheringState");
-    params.putString("state", Utils.iceGatheringStateString(iceGatheringState));
-    sendEvent(params);
+    stateVersion.incrementAndGet();
+    sendEvent(EventCodec.stateChanged(EventCodec.KIND_ICE_GATHERING,
+        Utils.iceGatheringStateString(iceGatheringState)));
   }
 
   private String getUIDForStream(MediaStream mediaStream) {
@@ -388,6 +468,7 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     if (streamUID == null) {
       streamUID = stateProvider.getNextStreamUUID();
       remoteStreams.put(streamId, mediaStream);
+      stateProvider.getStreamIndex().put(streamId, id, mediaStream);
     }
 
     ConstraintsMap params = new ConstraintsMap();
@@ -402,7 +483,7 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
       VideoTrack track = mediaStream.videoTracks.get(i);
       String trackId = track.id();
 
-      remoteTracks.put(trackId, track);
+      putRemoteTrack(trackId, track);
 
       ConstraintsMap trackInfo = new ConstraintsMap();
       trackInfo.putString("id", trackId);
@@ -417,7 +498,7 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
       AudioTrack track = mediaStream.audioTracks.get(i);
       String trackId = track.id();
 
-      remoteTracks.put(trackId, track);
+      putRemoteTrack(trackId, track);
 
       ConstraintsMap trackInfo = new ConstraintsMap();
       trackInfo.putString("id", trackId);
@@ -435,9 +516,27 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
   }
 
   void sendEvent(ConstraintsMap event) {
-    if (eventSink != null) {
-      eventSink.success(event.toMap());
+    sendEvent(event.toMap());
+  }
+
+  /**
+   * Sends either a map or one of the typed records understood by {@link EventCodec}.
+   */
+  void sendEvent(Object event) {
+    EventChannel.EventSink sink = eventSink;
+    if (sink == null) {
+      synchronized (eventQueue) {
+        sink = eventSink;
+        if (sink == null) {
+          // Dropped once Dart has cancelled its subscription.
+          if (!listened) {
+            eventQueue.add(event);
+          }
+          return;
+        }
+      }
     }
+    sink.success(event);
   }
 
   @Override
@@ -446,10 +545,10 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     String streamId = mediaStream.getId();
 
     for (VideoTrack track : mediaStream.videoTracks) {
-      this.remoteTracks.remove(track.id());
+      removeRemoteTrack(track.id());
     }
     for (AudioTrack track : mediaStream.audioTracks) {
-      this.remoteTracks.remove(track.id());
+      removeRemoteTrack(track.id());
     }
 
     ConstraintsMap params = new ConstraintsMap();
@@ -458,13 +557,209 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     sendEvent(params);
   }
 
+  private void putRemoteTrack(String trackId, MediaStreamTrack track) {
+    remoteTracks.put(trackId, track);
+    stateProvider.getTrackIndex().put(trackId, id, track);
+    if (track instanceof VideoTrack) {
+      stateProvider.getRemoteTrackSuspender().trackAdded(this, (VideoTrack) track);
+    }
+  }
+
+  private void removeRemoteTrack(String trackId) {
+    remoteTracks.remove(trackId);
+    stateProvider.getTrackIndex().remove(trackId, id);
+    stateProvider.getRemoteTrackSuspender().trackRemoved(this, trackId);
+  }
+
+  /**
+   * Removes the receive direction of the transceiver receiving {@code trackId}. Returns the
+   * previous direction, or null if the track has no transceiver or is not being received.
+   */
+  @Nullable
+  RtpTransceiver.RtpTransceiverDirection suspendReceiving(String trackId) {
+    synchronized (rtpObjects) {
+      RtpTransceiver transceiver = getTransceiverForRemoteTrack(trackId);
+      if (transceiver == null) {
+        return null;
+      }
+      RtpTransceiver.RtpTransceiverDirection direction = transceiver.getDirection();
+      if (direction == RtpTransceiver.RtpTransceiverDirection.SEND_RECV) {
+        transceiver.setDirection(RtpTransceiver.RtpTransceiverDirection.SEND_ONLY);
+      } else if (direction == RtpTransceiver.RtpTransceiverDirection.RECV_ONLY) {
+        transceiver.setDirection(RtpTransceiver.RtpTransceiverDirection.INACTIVE);
+      } else {
+        return null;
+      }
+      rtpVersion.incrementAndGet();
+      scheduleTransceiverChanges();
+      return direction;
+    }
+  }
+
+  /**
+   * Adds the receive direction back to the transceiver receiving {@code trackId}, keeping any
+   * change to its send direction made while it was suspended.
+   */
+  void resumeReceiving(String trackId) {
+    synchronized (rtpObjects) {
+      RtpTransceiver transceiver = getTransceiverForRemoteTrack(trackId);
+      if (transceiver == null) {
+        return;
+      }
+      RtpTransceiver.RtpTransceiverDirection direction = transceiver.getDirection();
+      if (direction == RtpTransceiver.RtpTransceiverDirection.SEND_ONLY) {
+        transceiver.setDirection(RtpTransceiver.RtpTransceiverDirection.SEND_RECV);
+      } else if (direction == RtpTransceiver.RtpTransceiverDirection.INACTIVE) {
+        transceiver.setDirection(RtpTransceiver.RtpTransceiverDirection.RECV_ONLY);
+      } else {
+        return;
+      }
+      rtpVersion.incrementAndGet();
+      scheduleTransceiverChanges();
+    }
+  }
+
+  @Nullable
+  private RtpTransceiver getTransceiverForRemoteTrack(String trackId) {
+    if (rtpObjects == null) {
+      return null;
+    }
+    for (RtpTransceiver transceiver : rtpObjects.getTransceivers()) {
+      MediaStreamTrack track = transceiver.getReceiver().track();
+      if (track != null && trackId.equals(track.id())) {
+        return transceiver;
+      }
+    }
+    return null;
+  }
+
+  void sendRemoteTrackSuspension(String trackId, boolean suspended, String mode) {
+    ConstraintsMap params = new ConstraintsMap();
+    params.putString("event", "remoteTrackSuspensionChanged");
+    params.putString("trackId", trackId);
+    params.putBoolean("suspended", suspended);
+    params.putString("mode", mode);
+    sendEvent(params);
+  }
+
   @Override
   public void onTrack(RtpTransceiver transceiver) {
+    invalidateRtpObjects();
+    // Indexed here so that lookups by id never have to walk the transceivers of every
+    // connection. Unlike the lists returned by getTransceivers(), this wrapper is not disposed
+    // by later calls.
+    MediaStreamTrack track = transceiver.getReceiver().track();
+    if (track != null) {
+      stateProvider.getTrackIndex().put(track.id(), id, track);
+    }
+    scheduleTransceiverChanges();
+  }
+
+  /**
+   * Compares mids, directions and send encodings of all transceivers with what was last reported
+   * and sends a single {@code transceiverChanged} event listing only the fields that changed,
+   * plus transceivers that are gone. Runs on the connection executor.
+   *
+   * Requests made while a scan is pending are covered by it, so a renegotiation firing onTrack
+   * for many transceivers scans once. Send encodings are only read again, over JNI, for senders
+   * that are new, had their parameters set, or after a description was applied; otherwise the
+   * last reported encodings are reused.
+   */
+  void scheduleTransceiverChanges() {
+    if (configuration.sdpSemantics != PeerConnection.SdpSemantics.UNIFIED_PLAN) {
+      return;
+    }
+    if (transceiverScanPending.compareAndSet(false, true)) {
+      executor.execute(this::sendTransceiverChanges);
+    }
+  }
+
+  private synchronized void sendTransceiverChanges() {
+    // Cleared before reading, so that a change reported during the scan schedules another one.
+    transceiverScanPending.set(false);
+    if (disposed || rtpObjects == null) {
+      return;
+    }
+    try {
+      scanTransceivers();
+    } catch (Exception e) {
+      // A transceiver or sender was disposed in the meantime.
+      Log.w(TAG, "Transceiver scan failed", e);
+    }
+  }
+
+  /** Body of {@link #sendTransceiverChanges}, called with this held. */
+  private void scanTransceivers() {
+    long description = descriptionVersion.get();
+    boolean descriptionChanged = description != scannedDescriptionVersion;
+    scannedDescriptionVersion = description;
+    synchronized (rtpObjects) {
+      ConstraintsArray changes = new ConstraintsArray();
+      Set<String> senderIds = new HashSet<>();
+      for (RtpTransceiver transceiver : rtpObjects.getTransceivers()) {
+        String senderId = transceiver.getSender().id();
+        senderIds.add(senderId);
+        Map<String, Object> current = new HashMap<>();
+        current.put("mid", transceiver.getMid() != null ? transceiver.getMid() : "");
+        current.put("direction", transceiverDirectionString(transceiver.getDirection()));
+        RtpTransceiver.RtpTransceiverDirection currentDirection = transceiver.getCurrentDirection();
+        current.put("currentDirection",
+            currentDirection != null ? transceiverDirectionString(currentDirection) : null);
+        Map<String, Object> previous = reportedTransceivers.get(senderId);
+        boolean parametersChanged = changedSenderParameters.remove(senderId);
+        if (previous == null || descriptionChanged || parametersChanged) {
+          current.put("encodings",
+              encodingsToList(transceiver.getSender().getParameters().encodings));
+        } else {
+          current.put("encodings", previous.get("encodings"));
+        }
+        reportedTransceivers.put(senderId, current);
+
+        Map<String, Object> change = new HashMap<>();
+        for (Map.Entry<String, Object> entry : current.entrySet()) {
+          if (previous == null || !Objects.equals(previous.get(entry.getKey()), entry.getValue())) {
+            change.put(entry.getKey(), entry.getValue());
+          }
+        }
+        if (!change.isEmpty()) {
+          change.put("transceiverId", transceiverIdFor(transceiver));
+          change.put("senderId", senderId);
+          changes.pushMap(new ConstraintsMap(change));
+        }
+      }
+      Iterator<String> it = reportedTransceivers.keySet().iterator();
+      while (it.hasNext()) {
+        String senderId = it.next();
+        if (!senderIds.contains(senderId)) {
+          it.remove();
+          ConstraintsMap change = new ConstraintsMap();
+          change.putString("senderId", senderId);
+          change.putBoolean("removed", true);
+          changes.pushMap(change);
+        }
+      }
+      if (changes.size() == 0) {
+        return;
+      }
+      ConstraintsMap params = new ConstraintsMap();
+      params.putString("event", "transceiverChanged");
+      params.putArray("changes", changes.toArrayList());
+      sendEvent(params);
+    }
   }
 
   @Override
   public void onAddTrack(RtpReceiver receiver, MediaStream[] mediaStreams) {
     Log.d(TAG, "onAddTrack");
+    invalidateRtpObjects();
+    if (receiver.track() != null && stateProvider.getRemoteTrackSuspender()
+            .restoreTrack(this, receiver.track().id())) {
+      // Received again after resuming; Dart and the renderers still have the track.
+      return;
+    }
+    if (receiver.track() != null) {
+      putRemoteTrack(receiver.track().id(), receiver.track());
+    }
     // for plan-b
     for (MediaStream stream : mediaStreams) {
       String streamId = stream.getId();
@@ -505,15 +800,11 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     params.putMap("receiver", rtpReceiverToMap(receiver));
 
     if (this.configuration.sdpSemantics == PeerConnection.SdpSemantics.UNIFIED_PLAN) {
-      List<RtpTransceiver> transceivers = peerConnection.getTransceivers();
-      for (RtpTransceiver transceiver : transceivers) {
-        if (transceiver.getReceiver() != null && receiver.id().equals(transceiver.getReceiver().id())) {
-          String transceiverId = transceiver.getMid();
-          if (null == transceiverId) {
-            transceiverId = stateProvider.getNextStreamUUID();
-            this.transceivers.put(transceiverId,transceiver);
+      synchronized (rtpObjects) {
+        for (RtpTransceiver transceiver : rtpObjects.getTransceivers()) {
+          if (transceiver.getReceiver() != null && receiver.id().equals(transceiver.getReceiver().id())) {
+            params.putMap("transceiver", transceiverToMap(transceiverIdFor(transceiver), transceiver));
           }
-          params.putMap("transceiver", transceiverToMap(transceiverId, transceiver));
         }
       }
     }
@@ -523,9 +814,15 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
   @Override
   public void onRemoveTrack(RtpReceiver rtpReceiver) {
     Log.d(TAG, "onRemoveTrack");
+    invalidateRtpObjects();
 
     MediaStreamTrack track = rtpReceiver.track();
     String trackId = track.id();
+    if (stateProvider.getRemoteTrackSuspender().hideRemoval(this, trackId)) {
+      // Suspended by the plugin, not removed by the remote peer; kept until it is resumed.
+      return;
+    }
+    removeRemoteTrack(trackId);
     ConstraintsMap trackInfo = new ConstraintsMap();
     trackInfo.putString("id", trackId);
     trackInfo.putString("label", track.kind());
@@ -572,19 +869,19 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
 
   @Override
   public void onSignalingChange(PeerConnection.SignalingState signalingState) {
-    ConstraintsMap params = new ConstraintsMap();
-    params.putString("event", "signalingState");
-    params.putString("state", Utils.signalingStateString(signalingState));
-    sendEvent(params);
+    stateVersion.incrementAndGet();
+    descriptionVersion.incrementAndGet();
+    invalidateRtpObjects();
+    sendEvent(EventCodec.stateChanged(EventCodec.KIND_SIGNALING,
+        Utils.signalingStateString(signalingState)));
   }
 
   @Override
   public void onConnectionChange(PeerConnection.PeerConnectionState connectionState) {
     Log.d(TAG, "onConnectionChange" + connectionState.name());
-    ConstraintsMap params = new ConstraintsMap();
-    params.putString("event", "peerConnectionState");
-    params.putString("state", Utils.connectionStateString(connectionState));
-    sendEvent(params);
+    stateVersion.incrementAndGet();
+    sendEvent(EventCodec.stateChanged(EventCodec.KIND_PEER_CONNECTION,
+        Utils.connectionStateString(connectionState)));
   }
 
   @Nullable
@@ -768,34 +1065,7 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     }
     info.putArray("headerExtensions", headerExtensions.toArrayList());
 
-    ConstraintsArray encodings = new ConstraintsArray();
-    for (RtpParameters.Encoding encoding : rtpParameters.encodings) {
-      ConstraintsMap map = new ConstraintsMap();
-      map.putBoolean("active", encoding.active);
-      if (encoding.rid != null) {
-        map.putString("rid", encoding.rid);
-      }
-      if (encoding.maxBitrateBps != null) {
-        map.putInt("maxBitrate", encoding.maxBitrateBps);
-      }
-      if (encoding.minBitrateBps != null) {
-        map.putInt("minBitrate", encoding.minBitrateBps);
-      }
-      if (encoding.maxFramerate != null) {
-        map.putInt("maxFramerate", encoding.maxFramerate);
-      }
-      if (encoding.numTemporalLayers != null) {
-        map.putInt("numTemporalLayers", encoding.numTemporalLayers);
-      }
-      if (encoding.scaleResolutionDownBy != null) {
-        map.putDouble("scaleResolutionDownBy", encoding.scaleResolutionDownBy);
-      }
-      if (encoding.ssrc != null) {
-        map.putLong("ssrc", encoding.ssrc);
-      }
-      encodings.pushMap(map);
-    }
-    info.putArray("encodings", encodings.toArrayList());
+    info.putArray("encodings", encodingsToList(rtpParameters.encodings));
 
     ConstraintsArray codecs = new ConstraintsArray();
     for (RtpParameters.Codec codec : rtpParameters.codecs) {
@@ -829,6 +1099,37 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     return info.toMap();
   }
 
+  private ArrayList<Object> encodingsToList(List<RtpParameters.Encoding> encodingList) {
+    ConstraintsArray encodings = new ConstraintsArray();
+    for (RtpParameters.Encoding encoding : encodingList) {
+      ConstraintsMap map = new ConstraintsMap();
+      map.putBoolean("active", encoding.active);
+      if (encoding.rid != null) {
+        map.putString("rid", encoding.rid);
+      }
+      if (encoding.maxBitrateBps != null) {
+        map.putInt("maxBitrate", encoding.maxBitrateBps);
+      }
+      if (encoding.minBitrateBps != null) {
+        map.putInt("minBitrate", encoding.minBitrateBps);
+      }
+      if (encoding.maxFramerate != null) {
+        map.putInt("maxFramerate", encoding.maxFramerate);
+      }
+      if (encoding.numTemporalLayers != null) {
+        map.putInt("numTemporalLayers", encoding.numTemporalLayers);
+      }
+      if (encoding.scaleResolutionDownBy != null) {
+        map.putDouble("scaleResolutionDownBy", encoding.scaleResolutionDownBy);
+      }
+      if (encoding.ssrc != null) {
+        map.putLong("ssrc", encoding.ssrc);
+      }
+      encodings.pushMap(map);
+    }
+    return encodings.toArrayList();
+  }
+
   @Nullable
   private Map<String, Object> mediaStreamToMap(MediaStream stream) {
     ConstraintsMap params = new ConstraintsMap();
@@ -915,19 +1216,23 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
 
   public void addTrack(MediaStreamTrack track, List<String> streamIds, Result result) {
     RtpSender sender = peerConnection.addTrack(track, streamIds);
+    invalidateRtpObjects();
     result.success(rtpSenderToMap(sender));
   }
 
   public void removeTrack(String senderId, Result result) {
-    RtpSender sender = getRtpSenderById(senderId);
-    if (sender == null) {
-      resultError("removeTrack", "sender is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpSender sender = getRtpSenderById(senderId);
+      if (sender == null) {
+        resultError("removeTrack", "sender is null", result);
+        return;
+      }
+      boolean res = peerConnection.removeTrack(sender);
+      invalidateRtpObjects();
+      Map<String, Object> params = new HashMap<>();
+      params.put("result", res);
+      result.success(params);
     }
-    boolean res = peerConnection.removeTrack(sender);
-    Map<String, Object> params = new HashMap<>();
-    params.put("result", res);
-    result.success(params);
   }
 
   public void addTransceiver(MediaStreamTrack track, Map<String, Object> transceiverInit, Result result) {
@@ -937,12 +1242,8 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     } else {
       transceiver = peerConnection.addTransceiver(track);
     }
-    String transceiverId = transceiver.getMid();
-    if (null == transceiverId) {
-      transceiverId = stateProvider.getNextStreamUUID();
-    }
-    transceivers.put(transceiverId, transceiver);
-    result.success(transceiverToMap(transceiverId, transceiver));
+    invalidateRtpObjects();
+    result.success(transceiverToMap(transceiverIdFor(transceiver), transceiver));
   }
 
   public void addTransceiverOfType(String mediaType, Map<String, Object> transceiverInit, Result result) {
@@ -952,196 +1253,280 @@ class PeerConnectionObserver implements PeerConnection.Observer, EventChannel.St
     } else {
       transceiver = peerConnection.addTransceiver(stringToMediaType(mediaType));
     }
-    String transceiverId = transceiver.getMid();
-    if (null == transceiverId) {
-      transceiverId = stateProvider.getNextStreamUUID();
-    }
-    transceivers.put(transceiverId, transceiver);
-    result.success(transceiverToMap(transceiverId, transceiver));
+    invalidateRtpObjects();
+    result.success(transceiverToMap(transceiverIdFor(transceiver), transceiver));
   }
 
   public void rtpTransceiverSetDirection(String direction, String transceiverId, Result result) {
-    RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
-    if (transceiver == null) {
-      resultError("rtpTransceiverSetDirection", "transceiver is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
+      if (transceiver == null) {
+        resultError("rtpTransceiverSetDirection", "transceiver is null", result);
+        return;
+      }
+      transceiver.setDirection(stringToTransceiverDirection(direction));
+      rtpVersion.incrementAndGet();
+      result.success(null);
     }
-    transceiver.setDirection(stringToTransceiverDirection(direction));
-    result.success(null);
   }
 
   public void rtpTransceiverSetCodecPreferences(String transceiverId, List<Map<String, Object>> codecs, Result result) {
-      RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
-      if (transceiver == null) {
-          resultError("rtpTransceiverSetCodecPreferences", "transceiver is null", result);
-          return;
+    synchronized (rtpObjects) {
+        RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
+        if (transceiver == null) {
+            resultError("rtpTransceiverSetCodecPreferences", "transceiver is null", result);
+            return;
+        }
+        List<RtpCapabilities.CodecCapability> preferedCodecs = new ArrayList<>();
+        for(Map<String, Object> codec : codecs) {
+              RtpCapabilities.CodecCapability codecCapability = new RtpCapabilities.CodecCapability();
+              String mimeType = (String) codec.get("mimeType");
+              List<String> mimeTypeParts = Arrays.asList(mimeType.split("/"));
+              codecCapability.name = mimeTypeParts.get(1);
+              codecCapability.kind = stringToMediaType(mimeTypeParts.get(0));
+              codecCapability.mimeType = mimeType;
+              codecCapability.clockRate = (int) codec.get("clockRate");
+              if(codec.get("numChannels") != null)
+                  codecCapability.numChannels = (int) codec.get("numChannels");
+              if(codec.get("sdpFmtpLine") != null && codec.get("sdpFmtpLine") != "") {
+                  String sdpFmtpLine = (String) codec.get("sdpFmtpLine");
+                  codecCapability.parameters = new HashMap<>();
+                  String[] parameters = sdpFmtpLine.split(";");
+                  for(String parameter : parameters) {
+                      if(parameter.contains("=")) {
+                          List<String> parameterParts = Arrays.asList(parameter.split("="));
+                          codecCapability.parameters.put(parameterParts.get(0), parameterParts.get(1));
+                      } else {
+                          codecCapability.parameters.put("", parameter);
+                      }
+                  }
+              } else {
+                  codecCapability.parameters = new HashMap<>();
+              }
+              preferedCodecs.add(codecCapability);
       }
-      List<RtpCapabilities.CodecCapability> preferedCodecs = new ArrayList<>();
-      for(Map<String, Object> codec : codecs) {
-            RtpCapabilities.CodecCapability codecCapability = new RtpCapabilities.CodecCapability();
-            String mimeType = (String) codec.get("mimeType");
-            List<String> mimeTypeParts = Arrays.asList(mimeType.split("/"));
-            codecCapability.name = mimeTypeParts.get(1);
-            codecCapability.kind = stringToMediaType(mimeTypeParts.get(0));
-            codecCapability.mimeType = mimeType;
-            codecCapability.clockRate = (int) codec.get("clockRate");
-            if(codec.get("numChannels") != null)
-                codecCapability.numChannels = (int) codec.get("numChannels");
-            if(codec.get("sdpFmtpLine") != null && codec.get("sdpFmtpLine") != "") {
-                String sdpFmtpLine = (String) codec.get("sdpFmtpLine");
-                codecCapability.parameters = new HashMap<>();
-                String[] parameters = sdpFmtpLine.split(";");
-                for(String parameter : parameters) {
-                    if(parameter.contains("=")) {
-                        List<String> parameterParts = Arrays.asList(parameter.split("="));
-                        codecCapability.parameters.put(parameterParts.get(0), parameterParts.get(1));
-                    } else {
-                        codecCapability.parameters.put("", parameter);
-                    }
-                }
-            } else {
-                codecCapability.parameters = new HashMap<>();
-            }
-            preferedCodecs.add(codecCapability);
+      transceiver.setCodecPreferences(preferedCodecs);
+      result.success(null);
     }
-    transceiver.setCodecPreferences(preferedCodecs);
-    result.success(null);
   }
 
   public void rtpTransceiverGetDirection(String transceiverId, Result result) {
-    RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
-    if (transceiver == null) {
-      resultError("rtpTransceiverGetDirection", "transceiver is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
+      if (transceiver == null) {
+        resultError("rtpTransceiverGetDirection", "transceiver is null", result);
+        return;
+      }
+      ConstraintsMap params = new ConstraintsMap();
+      params.putString("result", transceiverDirectionString(transceiver.getDirection()));
+      result.success(params.toMap());
     }
-    ConstraintsMap params = new ConstraintsMap();
-    params.putString("result", transceiverDirectionString(transceiver.getDirection()));
-    result.success(params.toMap());
   }
 
   public void rtpTransceiverGetCurrentDirection(String transceiverId, Result result) {
-    RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
-    if (transceiver == null) {
-      resultError("rtpTransceiverGetCurrentDirection", "transceiver is null", result);
-      return;
-    }
-    RtpTransceiver.RtpTransceiverDirection direction = transceiver.getCurrentDirection();
-    if (direction == null) {
-      result.success(null);
-    } else {
-      ConstraintsMap params = new ConstraintsMap();
-      params.putString("result", transceiverDirectionString(direction));
-      result.success(params.toMap());
+    synchronized (rtpObjects) {
+      RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
+      if (transceiver == null) {
+        resultError("rtpTransceiverGetCurrentDirection", "transceiver is null", result);
+        return;
+      }
+      RtpTransceiver.RtpTransceiverDirection direction = transceiver.getCurrentDirection();
+      if (direction == null) {
+        result.success(null);
+      } else {
+        ConstraintsMap params = new ConstraintsMap();
+        params.putString("result", transceiverDirectionString(direction));
+        result.success(params.toMap());
+      }
     }
   }
 
   public void rtpTransceiverStop(String transceiverId, Result result) {
-    RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
-    if (transceiver == null) {
-      resultError("rtpTransceiverStop", "transceiver is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpTransceiver transceiver = getRtpTransceiverById(transceiverId);
+      if (transceiver == null) {
+        resultError("rtpTransceiverStop", "transceiver is null", result);
+        return;
+      }
+      transceiver.stop();
+      rtpVersion.incrementAndGet();
+      result.success(null);
     }
-    transceiver.stop();
-    result.success(null);
   }
 
   public void rtpSenderSetParameters(String rtpSenderId, Map<String, Object> parameters, Result result) {
-    RtpSender sender = getRtpSenderById(rtpSenderId);
-    if (sender == null) {
-      resultError("rtpSenderSetParameters", "sender is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpSender sender = getRtpSenderById(rtpSenderId);
+      if (sender == null) {
+        resultError("rtpSenderSetParameters", "sender is null", result);
+        return;
+      }
+      final RtpParameters updatedParameters = updateRtpParameters(sender.getParameters(), parameters);
+      final Boolean success = sender.setParameters(updatedParameters);
+      changedSenderParameters.add(rtpSenderId);
+      rtpVersion.incrementAndGet();
+      ConstraintsMap params = new ConstraintsMap();
+      params.putBoolean("result", success);
+      result.success(params.toMap());
     }
-    final RtpParameters updatedParameters = updateRtpParameters(sender.getParameters(), parameters);
-    final Boolean success = sender.setParameters(updatedParameters);
-    ConstraintsMap params = new ConstraintsMap();
-    params.putBoolean("result", success);
-    result.success(params.toMap());
   }
 
   public void rtpSenderSetTrack(String rtpSenderId, MediaStreamTrack track, Result result, boolean replace) {
-    RtpSender sender = getRtpSenderById(rtpSenderId);
-    if (sender == null) {
-      resultError("rtpSenderSetTrack", "sender is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpSender sender = getRtpSenderById(rtpSenderId);
+      if (sender == null) {
+        resultError("rtpSenderSetTrack", "sender is null", result);
+        return;
+      }
+      sender.setTrack(track, false);
+      invalidateRtpObjects();
+      result.success(null);
     }
-    sender.setTrack(track, false);
-    result.success(null);
   }
 
   public void rtpSenderSetStreams(String rtpSenderId, List<String> streamIds, Result result) {
-    RtpSender sender = getRtpSenderById(rtpSenderId);
-    if (sender == null) {
-      resultError("rtpSenderSetStream", "sender is null", result);
-      return;
+    synchronized (rtpObjects) {
+      RtpSender sender = getRtpSenderById(rtpSenderId);
+      if (sender == null) {
+        resultError("rtpSenderSetStream", "sender is null", result);
+        return;
+      }
+      sender.setStreams(streamIds);
+      result.success(null);
     }
-    sender.setStreams(streamIds);
-    result.success(null);
   }
 
   public void getSenders(Result result) {
-    List<RtpSender> senders = peerConnection.getSenders();
-    ConstraintsArray sendersParams = new ConstraintsArray();
-    for (RtpSender sender : senders) {
-      sendersParams.pushMap(new ConstraintsMap(rtpSenderToMap(sender)));
+    synchronized (rtpObjects) {
+      List<RtpSender> senders = rtpObjects.getSenders();
+      ConstraintsArray sendersParams = new ConstraintsArray();
+      for (RtpSender sender : senders) {
+        sendersParams.pushMap(new ConstraintsMap(rtpSenderToMap(sender)));
+      }
+      ConstraintsMap params = new ConstraintsMap();
+      params.putArray("senders", sendersParams.toArrayList());
+      result.success(params.toMap());
     }
-    ConstraintsMap params = new ConstraintsMap();
-    params.putArray("senders", sendersParams.toArrayList());
-    result.success(params.toMap());
   }
 
   public void getReceivers(Result result) {
-    List<RtpReceiver> receivers = peerConnection.getReceivers();
-    ConstraintsArray receiversParams = new ConstraintsArray();
-    for (RtpReceiver receiver : receivers) {
-      receiversParams.pushMap(new ConstraintsMap(rtpReceiverToMap(receiver)));
+    synchronized (rtpObjects) {
+      List<RtpReceiver> receivers = rtpObjects.getReceivers();
+      ConstraintsArray receiversParams = new ConstraintsArray();
+      for (RtpReceiver receiver : receivers) {
+        receiversParams.pushMap(new ConstraintsMap(rtpReceiverToMap(receiver)));
+      }
+      ConstraintsMap params = new ConstraintsMap();
+      params.putArray("receivers", receiversParams.toArrayList());
+      result.success(params.toMap());
     }
-    ConstraintsMap params = new ConstraintsMap();
-    params.putArray("receivers", receiversParams.toArrayList());
-    result.success(params.toMap());
   }
 
   public void getTransceivers(Result result) {
-    List<RtpTransceiver> transceivers = peerConnection.getTransceivers();
-    ConstraintsArray transceiversParams = new ConstraintsArray();
-    for (RtpTransceiver transceiver : transceivers) {
-      String transceiverId = transceiver.getMid();
-      if (null == transceiverId) {
-        transceiverId = stateProvider.getNextStreamUUID();
-        this.transceivers.put(transceiverId,transceiver);
+    synchronized (rtpObjects) {
+      List<RtpTransceiver> transceivers = rtpObjects.getTransceivers();
+      ConstraintsArray transceiversParams = new ConstraintsArray();
+      for (RtpTransceiver transceiver : transceivers) {
+        transceiversParams.pushMap(new ConstraintsMap(transceiverToMap(transceiverIdFor(transceiver), transceiver)));
       }
-      transceiversParams.pushMap(new ConstraintsMap(transceiverToMap(transceiverId, transceiver)));
+      ConstraintsMap params = new ConstraintsMap();
+      params.putArray("transceivers", transceiversParams.toArrayList());
+      result.success(params.toMap());
     }
+  }
+
+  /**
+   * Collects state, descriptions and senders/receivers/transceivers in one pass. Each section
+   * carries a version in {@code versions}; sections whose version equals the one in
+   * {@code knownVersions} are left out, so callers only pay for what changed.
+   */
+  public void getSnapshot(@Nullable Map<String, Object> knownVersions, Result result) {
+    // Versions are read before the data, so a change that races with this snapshot shows up as
+    // a newer version next time rather than being missed.
+    long state = stateVersion.get();
+    long description = descriptionVersion.get();
+    long rtp = rtpVersion.get();
+
     ConstraintsMap params = new ConstraintsMap();
-    params.putArray("transceivers", transceiversParams.toArrayList());
+    if (!isKnownVersion(knownVersions, "state", state)) {
+      ConstraintsMap stateParams = new ConstraintsMap();
+      stateParams.putString("signalingState", Utils.signalingStateString(peerConnection.signalingState()));
+      stateParams.putString("iceGatheringState", Utils.iceGatheringStateString(peerConnection.iceGatheringState()));
+      stateParams.putString("iceConnectionState", Utils.iceConnectionStateString(peerConnection.iceConnectionState()));
+      stateParams.putString("connectionState", Utils.connectionStateString(peerConnection.connectionState()));
+      params.putMap("state", stateParams.toMap());
+    }
+    if (!isKnownVersion(knownVersions, "description", description)) {
+      ConstraintsMap descriptionParams = new ConstraintsMap();
+      putSessionDescription(descriptionParams, "localDescription", peerConnection.getLocalDescription());
+      putSessionDescription(descriptionParams, "remoteDescription", peerConnection.getRemoteDescription());
+      params.putMap("description", descriptionParams.toMap());
+    }
+    if (!isKnownVersion(knownVersions, "rtp", rtp)) {
+      synchronized (rtpObjects) {
+        ConstraintsArray sendersParams = new ConstraintsArray();
+        for (RtpSender sender : rtpObjects.getSenders()) {
+          sendersParams.pushMap(new ConstraintsMap(rtpSenderToMap(sender)));
+        }
+        ConstraintsArray receiversParams = new ConstraintsArray();
+        for (RtpReceiver receiver : rtpObjects.getReceivers()) {
+          receiversParams.pushMap(new ConstraintsMap(rtpReceiverToMap(receiver)));
+        }
+        ConstraintsArray transceiversParams = new ConstraintsArray();
+        for (RtpTransceiver transceiver : rtpObjects.getTransceivers()) {
+          transceiversParams.pushMap(new ConstraintsMap(transceiverToMap(transceiverIdFor(transceiver), transceiver)));
+        }
+        ConstraintsMap rtpParams = new ConstraintsMap();
+        rtpParams.putArray("senders", sendersParams.toArrayList());
+        rtpParams.putArray("receivers", receiversParams.toArrayList());
+        rtpParams.putArray("transceivers", transceiversParams.toArrayList());
+        params.putMap("rtp", rtpParams.toMap());
+      }
+    }
+    ConstraintsMap versions = new ConstraintsMap();
+    versions.putLong("state", state);
+    versions.putLong("description", description);
+    versions.putLong("rtp", rtp);
+    params.putMap("versions", versions.toMap());
     result.success(params.toMap());
   }
 
+  private static boolean isKnownVersion(@Nullable Map<String, Object> knownVersions, String section,
+                                        long version) {
+    if (knownVersions == null) {
+      return false;
+    }
+    Object known = knownVersions.get(section);
+    return known instanceof Number && ((Number) known).longValue() == version;
+  }
+
+  private static void putSessionDescription(ConstraintsMap params, String key,
+                                            @Nullable SessionDescription sdp) {
+    if (sdp == null) {
+      params.putNull(key);
+      return;
+    }
+    ConstraintsMap sdpParams = new ConstraintsMap();
+    sdpParams.putString("sdp", sdp.description);
+    sdpParams.putString("type", sdp.type.canonicalForm());
+    params.putMap(key, sdpParams.toMap());
+  }
+
+  /**
+   * The receiver track of a transceiver that has not fired onTrack yet. Like all wrappers from
+   * {@link RtpObjectIndex} it is disposed by the next rebuild, after which onTrack has indexed a
+   * lasting one.
+   */
   protected MediaStreamTrack getTransceiversTrack(String trackId) {
     if (this.configuration.sdpSemantics != PeerConnection.SdpSemantics.UNIFIED_PLAN) {
       return null;
     }
-    MediaStreamTrack track = null;
-    List<RtpTransceiver> transceivers = peerConnection.getTransceivers();
-    for (RtpTransceiver transceiver : transceivers) {
-      RtpReceiver receiver = transceiver.getReceiver();
-      if (receiver != null) {
-        if (receiver.track() != null && receiver.track().id().equals(trackId)) {
-          track = receiver.track();
-          break;
-        }
-      }
-    }
-    return track;
+    RtpReceiver receiver = rtpObjects.getReceiverForTrack(trackId);
+    return receiver != null ? receiver.track() : null;
   }
 
   public String getNextDataChannelUUID() {
-    String uuid;
-
-    do {
-      uuid = UUID.randomUUID().toString();
-    } while (dataChannels.get(uuid) != null);
-
-    return uuid;
+    return IdAllocator.next();
   }
 
 }
@@ -0,0 +1,233 @@
+package com.cloudwebrtc.webrtc;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Peer connections created ahead of {@code createPeerConnection}, per configuration.
+ *
+ * Pooled connections are created with an ICE candidate pool, so the port allocator starts
+ * gathering host, STUN and TURN candidates right away instead of after
+ * {@code setLocalDescription}. {@code createPeerConnection} with an identical configuration and
+ * constraints takes an idle connection and the pool refills itself in the background. Idle
+ * connections older than {@code maxAgeMs} are dropped on take, since their TURN allocations may
+ * no longer be usable.
+ */
+class PeerConnectionPool {
+  private static final String TAG = FlutterWebRTCPlugin.TAG;
+  /** Candidate pool size for pooled connections whose configuration does not set one. */
+  static final int DEFAULT_ICE_CANDIDATE_POOL_SIZE = 1;
+
+  interface Creator {
+    PeerConnectionObserver create(ConstraintsMap configuration, ConstraintsMap constraints);
+  }
+
+  private static class Idle {
+    final PeerConnectionObserver observer;
+    final long createdAt = System.currentTimeMillis();
+
+    Idle(PeerConnectionObserver observer) {
+      this.observer = observer;
+    }
+  }
+
+  private static class Slot {
+    final ConstraintsMap configuration;
+    final ConstraintsMap constraints;
+    final ArrayDeque<Idle> idle = new ArrayDeque<>();
+    int size;
+    long maxAgeMs;
+    int pending;
+    int hits;
+    int misses;
+
+    Slot(ConstraintsMap configuration, ConstraintsMap constraints) {
+      this.configuration = configuration;
+      this.constraints = constraints;
+    }
+  }
+
+  private final Creator creator;
+  private final Executor executor;
+  private final Map<String, Slot> slots = new HashMap<>();
+
+  PeerConnectionPool(Creator creator, Executor executor) {
+    this.creator = creator;
+    this.executor = executor;
+  }
+
+  /**
+   * Key of a configuration and its constraints, independent of map iteration order, so that
+   * the maps sent by {@code createPeerConnection} match the ones sent when prewarming.
+   */
+  static String keyFor(@Nullable Map<String, Object> configuration,
+                       @Nullable Map<String, Object> constraints) {
+    return canonical(configuration != null ? configuration : new HashMap<>()) + "|"
+        + canonical(constraints != null ? constraints : new HashMap<>());
+  }
+
+  /**
+   * Keeps {@code size} idle connections for the configuration, or removes its slot and disposes
+   * the idle connections when {@code size} is 0.
+   */
+  void configure(Map<String, Object> configuration, @Nullable Map<String, Object> constraints,
+                 int size, long maxAgeMs) {
+    String key = keyFor(configuration, constraints);
+    List<Idle> released = new ArrayList<>();
+    synchronized (this) {
+      Slot slot = slots.get(key);
+      if (size <= 0) {
+        if (slot != null) {
+          slots.remove(key);
+          released.addAll(slot.idle);
+        }
+      } else {
+        if (slot == null) {
+          ConstraintsMap pooledConfiguration = new ConstraintsMap(new HashMap<>(configuration));
+          if (!pooledConfiguration.hasKey("iceCandidatePoolSize")) {
+            pooledConfiguration.putInt("iceCandidatePoolSize", DEFAULT_ICE_CANDIDATE_POOL_SIZE);
+          }
+          slot = new Slot(pooledConfiguration,
+              new ConstraintsMap(constraints != null ? constraints : new HashMap<>()));
+          slots.put(key, slot);
+        }
+        slot.size = size;
+        slot.maxAgeMs = maxAgeMs;
+        while (slot.idle.size() > size) {
+          released.add(slot.idle.pollLast());
+        }
+        refill(slot);
+      }
+    }
+    for (Idle idle : released) {
+      idle.observer.dispose();
+    }
+  }
+
+  /** An idle connection for the configuration, or null if there is none. */
+  @Nullable
+  PeerConnectionObserver take(@Nullable Map<String, Object> configuration,
+                              @Nullable Map<String, Object> constraints) {
+    String key = keyFor(configuration, constraints);
+    List<Idle> expired = new ArrayList<>();
+    PeerConnectionObserver observer = null;
+    synchronized (this) {
+      Slot slot = slots.get(key);
+      if (slot == null) {
+        return null;
+      }
+      long now = System.currentTimeMillis();
+      while (!slot.idle.isEmpty()) {
+        Idle idle = slot.idle.pollFirst();
+        if (slot.maxAgeMs > 0 && now - idle.createdAt > slot.maxAgeMs) {
+          expired.add(idle);
+        } else {
+          observer = idle.observer;
+          break;
+        }
+      }
+      if (observer != null) {
+        slot.hits++;
+      } else {
+        slot.misses++;
+      }
+      refill(slot);
+    }
+    for (Idle idle : expired) {
+      idle.observer.dispose();
+    }
+    return observer;
+  }
+
+  /** Disposes every idle connection and forgets all configurations. */
+  void clear() {
+    List<Idle> released = new ArrayList<>();
+    synchronized (this) {
+      for (Slot slot : slots.values()) {
+        released.addAll(slot.idle);
+      }
+      slots.clear();
+    }
+    for (Idle idle : released) {
+      idle.observer.dispose();
+    }
+  }
+
+  synchronized ConstraintsMap getStats() {
+    ConstraintsMap params = new ConstraintsMap();
+    int idle = 0;
+    int pending = 0;
+    int hits = 0;
+    int misses = 0;
+    for (Slot slot : slots.values()) {
+      idle += slot.idle.size();
+      pending += slot.pending;
+      hits += slot.hits;
+      misses += slot.misses;
+    }
+    params.putInt("configurations", slots.size());
+    params.putInt("idle", idle);
+    params.putInt("pending", pending);
+    params.putInt("hits", hits);
+    params.putInt("misses", misses);
+    return params;
+  }
+
+  /** Schedules the creation of the connections the slot is missing. Called with the lock held. */
+  private void refill(final Slot slot) {
+    while (slot.idle.size() + slot.pending < slot.size) {
+      slot.pending++;
+      executor.execute(() -> create(slot));
+    }
+  }
+
+  private void create(Slot slot) {
+    PeerConnectionObserver observer = null;
+    try {
+      observer = creator.create(slot.configuration, slot.constraints);
+    } catch (Exception e) {
+      Log.e(TAG, "Failed to prewarm a peer connection", e);
+    }
+    boolean keep;
+    synchronized (this) {
+      slot.pending--;
+      keep = observer != null && slots.containsValue(slot)
+          && slot.idle.size() < slot.size;
+      if (keep) {
+        slot.idle.addLast(new Idle(observer));
+      }
+    }
+    if (!keep && observer != null) {
+      observer.dispose();
+    }
+  }
+
+  private static String canonical(@Nullable Object value) {
+    if (value instanceof Map) {
+      TreeMap<String, String> sorted = new TreeMap<>();
+      for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+        sorted.put(String.valueOf(entry.getKey()), canonical(entry.getValue()));
+      }
+      return sorted.toString();
+    }
+    if (value instanceof List) {
+      StringBuilder builder = new StringBuilder("[");
+      for (Object item : (List<?>) value) {
+        builder.append(canonical(item)).append(',');
+      }
+      return builder.append(']').toString();
+    }
+    return String.valueOf(value);
+  }
+}
@@ -0,0 +1,268 @@
+package com.cloudwebrtc.webrtc;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+
+import org.webrtc.RtpTransceiver;
+import org.webrtc.VideoTrack;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Suspends remote video tracks nobody renders.
+ *
+ * Renderers and recorders report the sinks they attach to video tracks. A remote video track
+ * without sinks for {@code graceMs} is suspended, and resumed as soon as a sink is attached
+ * again. Two modes are supported:
+ *
+ * <ul>
+ *   <li>{@link #MODE_DIRECTION}: the receiving transceiver loses its receive direction
+ *       (sendrecv becomes sendonly, recvonly becomes inactive). This stops reception and
+ *       decoding, but needs a renegotiation, which WebRTC requests through
+ *       {@code onRenegotiationNeeded}.</li>
+ *   <li>{@link #MODE_DISABLE_TRACK}: the track is disabled. No renegotiation is needed, but only
+ *       frame delivery stops, the stream is still received and decoded.</li>
+ * </ul>
+ *
+ * Every transition is reported on the owning peer connection as a
+ * {@code remoteTrackSuspensionChanged} event.
+ *
+ * The renegotiation of {@link #MODE_DIRECTION} removes the track from its receiver, and resuming
+ * adds it again. Both are internal to the suspension: {@link #hideRemoval} keeps the track known
+ * while it is suspended and {@link #restoreTrack} recognizes it when it comes back, so renderers
+ * keep their track and Dart sees neither event. Tracks are keyed by owner tag and id, as track
+ * ids are only unique within one peer connection.
+ */
+class RemoteTrackSuspender {
+  private static final String TAG = FlutterWebRTCPlugin.TAG;
+
+  static final String MODE_DIRECTION = "direction";
+  static final String MODE_DISABLE_TRACK = "disableTrack";
+
+  private static class Entry {
+    final PeerConnectionObserver pco;
+    final VideoTrack track;
+    final String key;
+    int sinks;
+    boolean suspended;
+    /** Mode the track was suspended with. */
+    String suspendedMode;
+    boolean wasEnabled;
+    RtpTransceiver.RtpTransceiverDirection previousDirection;
+    Runnable pendingSuspend;
+    /** The receiver dropped the track while suspended and the plugin kept it. */
+    boolean removalHidden;
+
+    Entry(PeerConnectionObserver pco, VideoTrack track) {
+      this.pco = pco;
+      this.track = track;
+      this.key = key(pco, track.id());
+    }
+
+    static String key(PeerConnectionObserver pco, String trackId) {
+      return pco.getId() + "/" + trackId;
+    }
+  }
+
+  private final Handler handler = new Handler(Looper.getMainLooper());
+  private final Map<String, Entry> entries = new HashMap<>();
+  /** The same entries by the track renderers attach their sinks to. */
+  private final Map<VideoTrack, Entry> entriesByTrack = new IdentityHashMap<>();
+  private boolean enabled;
+  private long graceMs = 3000;
+  private String mode = MODE_DIRECTION;
+
+  synchronized void configure(boolean enabled, long graceMs, String mode) {
+    this.enabled = enabled;
+    this.graceMs = graceMs;
+    this.mode = MODE_DISABLE_TRACK.equals(mode) ? MODE_DISABLE_TRACK : MODE_DIRECTION;
+    for (Entry entry : entries.values()) {
+      if (!enabled) {
+        cancelSuspend(entry);
+        if (entry.suspended) {
+          resume(entry);
+        }
+      } else if (entry.sinks == 0 && !entry.suspended) {
+        scheduleSuspend(entry);
+      }
+    }
+  }
+
+  /** A remote video track of {@code pco} was added. */
+  synchronized void trackAdded(PeerConnectionObserver pco, VideoTrack track) {
+    if (entries.containsKey(Entry.key(pco, track.id()))) {
+      return;
+    }
+    Entry entry = new Entry(pco, track);
+    entries.put(entry.key, entry);
+    entriesByTrack.put(track, entry);
+    if (enabled) {
+      scheduleSuspend(entry);
+    }
+  }
+
+  /** A remote video track of {@code pco} was removed or {@code pco} was closed. */
+  synchronized void trackRemoved(PeerConnectionObserver pco, String trackId) {
+    Entry entry = entries.remove(Entry.key(pco, trackId));
+    if (entry != null) {
+      entriesByTrack.remove(entry.track);
+      cancelSuspend(entry);
+    }
+  }
+
+  /**
+   * Whether the removal of {@code trackId} from its receiver was caused by suspending it with
+   * {@link #MODE_DIRECTION}. If so the track is kept, and the caller must keep it as well and not
+   * report the removal.
+   */
+  synchronized boolean hideRemoval(PeerConnectionObserver pco, String trackId) {
+    Entry entry = entries.get(Entry.key(pco, trackId));
+    if (entry == null || !entry.suspended || !MODE_DIRECTION.equals(entry.suspendedMode)) {
+      return false;
+    }
+    entry.removalHidden = true;
+    return true;
+  }
+
+  /**
+   * Whether {@code trackId} is received again after {@link #hideRemoval} kept it. The caller
+   * must then keep the track it already has and not report it as new.
+   */
+  synchronized boolean restoreTrack(PeerConnectionObserver pco, String trackId) {
+    Entry entry = entries.get(Entry.key(pco, trackId));
+    if (entry == null || !entry.removalHidden) {
+      return false;
+    }
+    entry.removalHidden = false;
+    return true;
+  }
+
+  synchronized void sinkAdded(VideoTrack track) {
+    Entry entry = entriesByTrack.get(track);
+    if (entry == null) {
+      return;
+    }
+    entry.sinks++;
+    cancelSuspend(entry);
+    if (entry.suspended) {
+      resume(entry);
+    }
+  }
+
+  synchronized void sinkRemoved(VideoTrack track) {
+    Entry entry = entriesByTrack.get(track);
+    if (entry == null || entry.sinks == 0) {
+      return;
+    }
+    entry.sinks--;
+    if (entry.sinks == 0 && enabled) {
+      scheduleSuspend(entry);
+    }
+  }
+
+  synchronized ConstraintsMap getStats() {
+    int suspended = 0;
+    for (Entry entry : entries.values()) {
+      if (entry.suspended) {
+        suspended++;
+      }
+    }
+    ConstraintsMap params = new ConstraintsMap();
+    params.putBoolean("enabled", enabled);
+    params.putString("mode", mode);
+    params.putLong("graceMs", graceMs);
+    params.putInt("tracks", entries.size());
+    params.putInt("suspended", suspended);
+    return params;
+  }
+
+  // The following are called with the lock held.
+
+  private void scheduleSuspend(final Entry entry) {
+    cancelSuspend(entry);
+    entry.pendingSuspend = () -> {
+      synchronized (RemoteTrackSuspender.this) {
+        entry.pendingSuspend = null;
+        if (enabled && entry.sinks == 0 && !entry.suspended
+                && entries.get(entry.key) == entry) {
+          suspend(entry);
+        }
+      }
+    };
+    handler.postDelayed(entry.pendingSuspend, graceMs);
+  }
+
+  private void cancelSuspend(Entry entry) {
+    if (entry.pendingSuspend != null) {
+      handler.removeCallbacks(entry.pendingSuspend);
+      entry.pendingSuspend = null;
+    }
+  }
+
+  private void suspend(final Entry entry) {
+    entry.suspended = true;
+    entry.suspendedMode = mode;
+    final String trackId = entry.track.id();
+    if (MODE_DISABLE_TRACK.equals(mode)) {
+      execute(entry, () -> {
+        boolean wasEnabled = entry.track.enabled();
+        entry.track.setEnabled(false);
+        synchronized (RemoteTrackSuspender.this) {
+          entry.wasEnabled = wasEnabled;
+        }
+        entry.pco.sendRemoteTrackSuspension(trackId, true, MODE_DISABLE_TRACK);
+      });
+    } else {
+      execute(entry, () -> {
+        RtpTransceiver.RtpTransceiverDirection previous = entry.pco.suspendReceiving(trackId);
+        synchronized (RemoteTrackSuspender.this) {
+          entry.previousDirection = previous;
+        }
+        if (previous != null) {
+          entry.pco.sendRemoteTrackSuspension(trackId, true, MODE_DIRECTION);
+        }
+      });
+    }
+  }
+
+  private void resume(final Entry entry) {
+    entry.suspended = false;
+    final String trackId = entry.track.id();
+    final String suspendedMode = entry.suspendedMode;
+    // Runs after the suspend task on the same serial executor, so the saved state is set.
+    execute(entry, () -> {
+      boolean wasEnabled;
+      RtpTransceiver.RtpTransceiverDirection previous;
+      synchronized (RemoteTrackSuspender.this) {
+        wasEnabled = entry.wasEnabled;
+        previous = entry.previousDirection;
+        entry.previousDirection = null;
+      }
+      if (MODE_DISABLE_TRACK.equals(suspendedMode)) {
+        entry.track.setEnabled(wasEnabled);
+      } else if (previous != null) {
+        entry.pco.resumeReceiving(trackId);
+      } else {
+        return;
+      }
+      entry.pco.sendRemoteTrackSuspension(trackId, false, suspendedMode);
+    });
+  }
+
+  /** Runs {@code task} on the serial executor of the track's peer connection. */
+  private void execute(Entry entry, Runnable task) {
+    entry.pco.getExecutor().execute(() -> {
+      try {
+        task.run();
+      } catch (Exception e) {
+        // The track or connection was disposed in the meantime.
+        Log.w(TAG, "Remote track suspension failed", e);
+      }
+    });
+  }
+}
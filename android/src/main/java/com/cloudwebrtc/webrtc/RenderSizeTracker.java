@@ -0,0 +1,99 @@
+package com.cloudwebrtc.webrtc;
+
+import androidx.annotation.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Collects the on-screen pixel size of every renderer and reports, per remote video track, the
+ * largest size any renderer shows it at as a {@code preferredResolution} event on the owning
+ * peer connection. Apps forward it to their SFU to pick a simulcast layer or an SVC spatial
+ * layer no larger than needed. A size of 0x0 means the track is not rendered anywhere.
+ */
+class RenderSizeTracker {
+  interface Listener {
+    /** The largest size {@code trackId} of {@code ownerTag} is shown at changed. */
+    void onPreferredResolution(String ownerTag, String trackId, int width, int height);
+  }
+
+  private static class Request {
+    final String ownerTag;
+    final String trackId;
+    final int width;
+    final int height;
+
+    Request(String ownerTag, String trackId, int width, int height) {
+      this.ownerTag = ownerTag;
+      this.trackId = trackId;
+      this.width = width;
+      this.height = height;
+    }
+
+    String key() {
+      return key(ownerTag, trackId);
+    }
+
+    static String key(String ownerTag, String trackId) {
+      return ownerTag + "/" + trackId;
+    }
+  }
+
+  private final Listener listener;
+  private final Map<Integer, Request> requests = new HashMap<>();
+  /** Last reported width and height per track key. */
+  private final Map<String, int[]> reported = new HashMap<>();
+
+  RenderSizeTracker(Listener listener) {
+    this.listener = listener;
+  }
+
+  /**
+   * Records that renderer {@code rendererId} shows {@code trackId} of {@code ownerTag} at
+   * {@code width}x{@code height} pixels; a null track means it shows nothing.
+   */
+  synchronized void update(int rendererId, @Nullable String ownerTag, @Nullable String trackId,
+                           int width, int height) {
+    Request previous = requests.remove(rendererId);
+    if (ownerTag != null && trackId != null && !ownerTag.isEmpty()
+            && !MediaObjectIndex.LOCAL_OWNER.equals(ownerTag)) {
+      requests.put(rendererId, new Request(ownerTag, trackId, width, height));
+      publish(ownerTag, trackId);
+    }
+    if (previous != null) {
+      publish(previous.ownerTag, previous.trackId);
+    }
+  }
+
+  synchronized void remove(int rendererId) {
+    Request previous = requests.remove(rendererId);
+    if (previous != null) {
+      publish(previous.ownerTag, previous.trackId);
+    }
+  }
+
+  private void publish(String ownerTag, String trackId) {
+    String key = Request.key(ownerTag, trackId);
+    int width = 0;
+    int height = 0;
+    for (Request request : requests.values()) {
+      if (request.key().equals(key)) {
+        width = Math.max(width, request.width);
+        height = Math.max(height, request.height);
+      }
+    }
+    int[] last = reported.get(key);
+    if (last != null && last[0] == width && last[1] == height) {
+      return;
+    }
+    if (width == 0 && height == 0) {
+      reported.remove(key);
+      if (last == null) {
+        return;
+      }
+    } else {
+      reported.put(key, new int[] {width, height});
+    }
+    listener.onPreferredResolution(ownerTag, trackId, width, height);
+  }
+}
@@ -0,0 +1,126 @@
+package com.cloudwebrtc.webrtc;
+
+import androidx.annotation.Nullable;
+
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+
+/**
+ * Frame delivery counters of one renderer: frames received from the track, frames drawn, frames
+ * dropped by the fps limit or because a newer frame arrived before the previous one was drawn
+ * (back-pressure), draws saved by vsync pacing, the latency from the frame's capture or decode
+ * timestamp to the draw, and freezes, i.e. periods without a drawn frame longer than a
+ * threshold.
+ *
+ * Written from the frame and render threads, read from the main thread.
+ */
+class RendererMetrics {
+  private long framesReceived;
+  private long framesRendered;
+  private long framesDroppedByFpsReduction;
+  private long framesDroppedByBackPressure;
+  private long drawsSavedByPacing;
+  private long latencyTotalNs;
+  private long latencyMaxNs;
+  private long lastRenderedNs;
+  private boolean frozen;
+  private long freezeStartNs;
+  private long freezeCount;
+  private long totalFreezeNs;
+  private long lastFreezeNs;
+
+  /** Whether back-pressure drops are counted, or derived from the other counters. */
+  private final boolean countsBackPressure;
+
+  RendererMetrics(boolean countsBackPressure) {
+    this.countsBackPressure = countsBackPressure;
+  }
+
+  synchronized void onFrameReceived() {
+    framesReceived++;
+  }
+
+  synchronized void onFrameDroppedByFpsReduction() {
+    framesDroppedByFpsReduction++;
+  }
+
+  synchronized void onFrameDroppedByBackPressure() {
+    framesDroppedByBackPressure++;
+  }
+
+  /** A frame queued for the next display refresh was superseded before it was presented. */
+  synchronized void onDrawSavedByPacing() {
+    drawsSavedByPacing++;
+  }
+
+  /** {@code timestampNs} is the {@code VideoFrame} timestamp, in the System.nanoTime() clock. */
+  synchronized void onFrameRendered(long timestampNs) {
+    long now = System.nanoTime();
+    framesRendered++;
+    lastRenderedNs = now;
+    long latency = now - timestampNs;
+    if (latency >= 0) {
+      latencyTotalNs += latency;
+      latencyMaxNs = Math.max(latencyMaxNs, latency);
+    }
+  }
+
+  /** Starts over after the renderer switched to another source. */
+  synchronized void resetFreeze() {
+    frozen = false;
+    lastRenderedNs = 0;
+  }
+
+  /**
+   * Updates the freeze state: frozen once no frame was drawn for {@code thresholdMs} while frames
+   * are expected, no longer frozen as soon as one was drawn again. Returns the new state if it
+   * changed, null otherwise.
+   */
+  @Nullable
+  synchronized Boolean checkFreeze(long thresholdMs, boolean expectFrames) {
+    long now = System.nanoTime();
+    if (frozen) {
+      if (lastRenderedNs > freezeStartNs || !expectFrames) {
+        frozen = false;
+        lastFreezeNs = (lastRenderedNs > freezeStartNs ? lastRenderedNs : now) - freezeStartNs;
+        totalFreezeNs += lastFreezeNs;
+        return false;
+      }
+      return null;
+    }
+    if (expectFrames && lastRenderedNs != 0 && now - lastRenderedNs > thresholdMs * 1000000L) {
+      frozen = true;
+      freezeStartNs = lastRenderedNs;
+      freezeCount++;
+      return true;
+    }
+    return null;
+  }
+
+  /** Duration of the last ended freeze. */
+  synchronized long lastFreezeMs() {
+    return lastFreezeNs / 1000000L;
+  }
+
+  synchronized ConstraintsMap toMap() {
+    ConstraintsMap params = new ConstraintsMap();
+    long backPressure = countsBackPressure
+            ? framesDroppedByBackPressure
+            // At most one frame may still be waiting to be drawn.
+            : Math.max(0, framesReceived - framesDroppedByFpsReduction - drawsSavedByPacing
+                    - framesRendered - 1);
+    params.putLong("framesReceived", framesReceived);
+    params.putLong("framesRendered", framesRendered);
+    params.putLong("framesDroppedByFpsReduction", framesDroppedByFpsReduction);
+    params.putLong("framesDroppedByBackPressure", backPressure);
+    params.putLong("drawsSavedByPacing", drawsSavedByPacing);
+    params.putDouble("averageLatencyMs",
+            framesRendered > 0 ? latencyTotalNs / 1e6 / framesRendered : 0);
+    params.putDouble("maxLatencyMs", latencyMaxNs / 1e6);
+    params.putDouble("lastFrameAgeMs",
+            lastRenderedNs != 0 ? (System.nanoTime() - lastRenderedNs) / 1e6 : -1);
+    params.putBoolean("frozen", frozen);
+    params.putLong("freezeCount", freezeCount);
+    params.putDouble("totalFreezeMs", totalFreezeNs / 1e6);
+    return params;
+  }
+}
@@ -0,0 +1,151 @@
+package com.cloudwebrtc.webrtc;
+
+import androidx.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.webrtc.MediaStreamTrack;
+import org.webrtc.PeerConnection;
+import org.webrtc.RtpReceiver;
+import org.webrtc.RtpSender;
+import org.webrtc.RtpTransceiver;
+
+/**
+ * Cached senders, receivers and transceivers of one peer connection, indexed by id, mid and
+ * track id.
+ *
+ * {@code PeerConnection.getSenders()}, {@code getReceivers()} and {@code getTransceivers()} are
+ * JNI calls that create new wrapper lists and dispose the wrappers they returned previously, so
+ * they are only called here, and only after {@link #invalidate()} reported a change (signaling
+ * state, tracks added or removed, local sender/transceiver changes). All other lookups are hash
+ * lookups on the last snapshot.
+ *
+ * A rebuild disposes the wrappers returned before it, and it can happen on any thread that looks
+ * something up. Callers that use returned senders, receivers or transceivers beyond the lookup,
+ * e.g. to iterate a list or call into them, must hold the index's monitor for as long as they do
+ * ({@code synchronized (index) { ... }}); the methods below are synchronized on it as well, so no
+ * rebuild can run meanwhile. Wrappers must not be kept after the monitor is released.
+ */
+class RtpObjectIndex {
+  private final PeerConnection peerConnection;
+  private final boolean unifiedPlan;
+  private volatile boolean dirty = true;
+
+  private List<RtpSender> senders = Collections.emptyList();
+  private List<RtpReceiver> receivers = Collections.emptyList();
+  private List<RtpTransceiver> transceivers = Collections.emptyList();
+  private final Map<String, RtpSender> sendersById = new HashMap<>();
+  private final Map<String, RtpSender> sendersByTrackId = new HashMap<>();
+  private final Map<String, RtpReceiver> receiversById = new HashMap<>();
+  private final Map<String, RtpReceiver> receiversByTrackId = new HashMap<>();
+  private final Map<String, RtpTransceiver> transceiversByMid = new HashMap<>();
+  private final Map<String, RtpTransceiver> transceiversBySenderId = new HashMap<>();
+
+  RtpObjectIndex(PeerConnection peerConnection, boolean unifiedPlan) {
+    this.peerConnection = peerConnection;
+    this.unifiedPlan = unifiedPlan;
+  }
+
+  /** Marks the snapshot stale, it is rebuilt on the next lookup. */
+  void invalidate() {
+    dirty = true;
+  }
+
+  synchronized List<RtpSender> getSenders() {
+    ensure();
+    return senders;
+  }
+
+  synchronized List<RtpReceiver> getReceivers() {
+    ensure();
+    return receivers;
+  }
+
+  /** Empty for Plan B connections. */
+  synchronized List<RtpTransceiver> getTransceivers() {
+    ensure();
+    return transceivers;
+  }
+
+  @Nullable
+  synchronized RtpSender getSender(String id) {
+    ensure();
+    return sendersById.get(id);
+  }
+
+  @Nullable
+  synchronized RtpSender getSenderForTrack(String trackId) {
+    ensure();
+    return sendersByTrackId.get(trackId);
+  }
+
+  @Nullable
+  synchronized RtpReceiver getReceiver(String id) {
+    ensure();
+    return receiversById.get(id);
+  }
+
+  @Nullable
+  synchronized RtpReceiver getReceiverForTrack(String trackId) {
+    ensure();
+    return receiversByTrackId.get(trackId);
+  }
+
+  @Nullable
+  synchronized RtpTransceiver getTransceiverByMid(String mid) {
+    ensure();
+    return transceiversByMid.get(mid);
+  }
+
+  @Nullable
+  synchronized RtpTransceiver getTransceiverBySenderId(String senderId) {
+    ensure();
+    return transceiversBySenderId.get(senderId);
+  }
+
+  private void ensure() {
+    if (!dirty) {
+      return;
+    }
+    // Cleared before reading so that a change reported while rebuilding triggers another one.
+    dirty = false;
+
+    senders = peerConnection.getSenders();
+    sendersById.clear();
+    sendersByTrackId.clear();
+    for (RtpSender sender : senders) {
+      sendersById.put(sender.id(), sender);
+      MediaStreamTrack track = sender.track();
+      if (track != null) {
+        sendersByTrackId.put(track.id(), sender);
+      }
+    }
+
+    receivers = peerConnection.getReceivers();
+    receiversById.clear();
+    receiversByTrackId.clear();
+    for (RtpReceiver receiver : receivers) {
+      receiversById.put(receiver.id(), receiver);
+      MediaStreamTrack track = receiver.track();
+      if (track != null) {
+        receiversByTrackId.put(track.id(), receiver);
+      }
+    }
+
+    transceiversByMid.clear();
+    transceiversBySenderId.clear();
+    if (!unifiedPlan) {
+      return;
+    }
+    transceivers = peerConnection.getTransceivers();
+    for (RtpTransceiver transceiver : transceivers) {
+      if (transceiver.getMid() != null) {
+        transceiversByMid.put(transceiver.getMid(), transceiver);
+      }
+      transceiversBySenderId.put(transceiver.getSender().id(), transceiver);
+    }
+  }
+}
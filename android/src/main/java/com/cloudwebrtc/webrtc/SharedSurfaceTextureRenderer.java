@@ -0,0 +1,283 @@
+package com.cloudwebrtc.webrtc;
+
+import android.graphics.SurfaceTexture;
+import android.opengl.EGL14;
+import android.opengl.EGLSurface;
+
+import androidx.annotation.Nullable;
+
+import org.webrtc.EglBase;
+import org.webrtc.RendererCommon;
+import org.webrtc.ThreadUtils;
+import org.webrtc.VideoFrame;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Draws a video track into a Flutter {@link SurfaceTexture} on a {@link VideoRenderThread}
+ * shared with other renderers, instead of a render thread and EGL context of its own.
+ * Only the latest frame is kept; the shared thread draws it when this renderer's turn comes.
+ *
+ * As a member of a {@link VideoRendererGroup} the renderer draws on the group's thread and
+ * receives its frames from the group, which draws all members in one pass.
+ */
+class SharedSurfaceTextureRenderer implements TextureRenderer, VideoRenderThread.Target {
+  @Nullable
+  private final VideoRenderThreadPool pool;
+  @Nullable
+  private final VideoRendererGroup group;
+  private final RendererMetrics metrics;
+  private final FrameRateLimiter frameRateLimiter = new FrameRateLimiter();
+  private final Object frameLock = new Object();
+
+  // Guarded by frameLock.
+  private VideoRenderThread thread;
+  private RendererCommon.RendererEvents rendererEvents;
+  private VideoFrame pendingFrame;
+  private boolean isFirstFrameRendered;
+  private int rotatedFrameWidth;
+  private int rotatedFrameHeight;
+  private int frameRotation;
+  private SurfaceTexture texture;
+  private int targetWidth;
+  private int targetHeight;
+  private int bufferWidth;
+  private int bufferHeight;
+
+  /** Render thread only. */
+  private EGLSurface eglSurface = EGL14.EGL_NO_SURFACE;
+
+  @Nullable
+  private volatile VsyncPacer vsyncPacer;
+
+  SharedSurfaceTextureRenderer(VideoRenderThreadPool pool, RendererMetrics metrics) {
+    this.pool = pool;
+    this.group = null;
+    this.metrics = metrics;
+  }
+
+  SharedSurfaceTextureRenderer(VideoRendererGroup group, RendererMetrics metrics) {
+    this.pool = null;
+    this.group = group;
+    this.metrics = metrics;
+  }
+
+  /** {@code sharedContext} is ignored, the shared threads always share the root context. */
+  @Override
+  public void init(EglBase.Context sharedContext, RendererCommon.RendererEvents rendererEvents) {
+    ThreadUtils.checkIsOnMainThread();
+    synchronized (frameLock) {
+      if (thread != null) {
+        throw new IllegalStateException("Already initialized");
+      }
+      resetFrameTracking(rendererEvents);
+      thread = group != null ? group.getThread() : pool.acquire();
+    }
+  }
+
+  @Override
+  public void resetFrameTracking(RendererCommon.RendererEvents rendererEvents) {
+    synchronized (frameLock) {
+      this.rendererEvents = rendererEvents;
+      isFirstFrameRendered = false;
+      rotatedFrameWidth = 0;
+      rotatedFrameHeight = 0;
+      frameRotation = -1;
+    }
+  }
+
+  @Override
+  public void setFpsReduction(float fps) {
+    frameRateLimiter.setFps(fps);
+  }
+
+  @Override
+  public void disableFpsReduction() {
+    setFpsReduction(Float.POSITIVE_INFINITY);
+  }
+
+  @Override
+  public void pauseVideo() {
+    setFpsReduction(0f);
+  }
+
+  @Override
+  public void setVsyncPacing(boolean enabled) {
+    ThreadUtils.checkIsOnMainThread();
+    VsyncPacer pacer = vsyncPacer;
+    if (enabled == (pacer != null)) {
+      return;
+    }
+    if (pacer != null) {
+      vsyncPacer = null;
+      pacer.release();
+    } else {
+      vsyncPacer = new VsyncPacer(this::present, metrics);
+    }
+  }
+
+  @Override
+  public void surfaceCreated(final SurfaceTexture texture) {
+    ThreadUtils.checkIsOnMainThread();
+    final VideoRenderThread thread;
+    synchronized (frameLock) {
+      this.texture = texture;
+      thread = this.thread;
+    }
+    if (thread != null) {
+      thread.post(() -> eglSurface = thread.createSurface(texture));
+    }
+  }
+
+  @Override
+  public void release() {
+    VsyncPacer pacer = vsyncPacer;
+    vsyncPacer = null;
+    if (pacer != null) {
+      pacer.release();
+    }
+    final VideoRenderThread thread;
+    synchronized (frameLock) {
+      thread = this.thread;
+      this.thread = null;
+      if (pendingFrame != null) {
+        pendingFrame.release();
+        pendingFrame = null;
+      }
+    }
+    if (thread == null) {
+      return;
+    }
+    final CountDownLatch released = new CountDownLatch(1);
+    thread.post(() -> {
+      thread.releaseSurface(eglSurface);
+      eglSurface = EGL14.EGL_NO_SURFACE;
+      released.countDown();
+    });
+    ThreadUtils.awaitUninterruptibly(released);
+    if (pool != null) {
+      pool.release(thread);
+    }
+  }
+
+  /**
+   * Sets the size, in physical pixels, the texture is shown at. Larger frames are then scaled
+   * down on the GPU while drawing, keeping the aspect ratio; 0x0 keeps the frame size.
+   */
+  void setTargetSize(int width, int height) {
+    synchronized (frameLock) {
+      targetWidth = width;
+      targetHeight = height;
+      updateBufferSize();
+    }
+  }
+
+  @Override
+  public void onFrame(VideoFrame frame) {
+    synchronized (frameLock) {
+      if (thread == null) {
+        return;
+      }
+    }
+    metrics.onFrameReceived();
+    if (!frameRateLimiter.accept()) {
+      metrics.onFrameDroppedByFpsReduction();
+      return;
+    }
+    VsyncPacer pacer = vsyncPacer;
+    if (pacer != null) {
+      pacer.onFrame(frame);
+    } else {
+      present(frame);
+    }
+  }
+
+  private void present(VideoFrame frame) {
+    VideoRenderThread thread;
+    synchronized (frameLock) {
+      thread = this.thread;
+      if (thread == null) {
+        return;
+      }
+      updateFrameDimensionsAndReportEvents(frame);
+      if (pendingFrame != null) {
+        pendingFrame.release();
+        thread.countDroppedFrame();
+        metrics.onFrameDroppedByBackPressure();
+      }
+      frame.retain();
+      pendingFrame = frame;
+    }
+    // Group members are drawn together, in the group's pass.
+    thread.schedule(group != null ? group : this);
+  }
+
+  @Override
+  public void draw(VideoRenderThread thread) {
+    VideoFrame frame = takeFrame();
+    if (frame != null) {
+      thread.drawFrame(this, frame);
+    }
+  }
+
+  VideoFrame takeFrame() {
+    synchronized (frameLock) {
+      VideoFrame frame = pendingFrame;
+      pendingFrame = null;
+      return frame;
+    }
+  }
+
+  /** Called by the render thread once {@code frame} was swapped to the texture. */
+  void onFrameRendered(VideoFrame frame) {
+    metrics.onFrameRendered(frame.getTimestampNs());
+  }
+
+  /** Render thread only. */
+  EGLSurface getEglSurface() {
+    return eglSurface;
+  }
+
+  // Called with frameLock held.
+  private void updateFrameDimensionsAndReportEvents(VideoFrame frame) {
+    if (!isFirstFrameRendered) {
+      isFirstFrameRendered = true;
+      if (rendererEvents != null) {
+        rendererEvents.onFirstFrameRendered();
+      }
+    }
+    if (rotatedFrameWidth != frame.getRotatedWidth()
+            || rotatedFrameHeight != frame.getRotatedHeight()
+            || frameRotation != frame.getRotation()) {
+      if (rendererEvents != null) {
+        rendererEvents.onFrameResolutionChanged(
+                frame.getBuffer().getWidth(), frame.getBuffer().getHeight(), frame.getRotation());
+      }
+      rotatedFrameWidth = frame.getRotatedWidth();
+      rotatedFrameHeight = frame.getRotatedHeight();
+      updateBufferSize();
+      frameRotation = frame.getRotation();
+    }
+  }
+
+  // Called with frameLock held.
+  private void updateBufferSize() {
+    if (texture == null || rotatedFrameWidth == 0 || rotatedFrameHeight == 0) {
+      return;
+    }
+    int width = rotatedFrameWidth;
+    int height = rotatedFrameHeight;
+    if (targetWidth > 0 && targetHeight > 0) {
+      // Enough pixels to fill the view in either fit mode.
+      float scale = Math.min(1f, Math.max((float) targetWidth / width,
+              (float) targetHeight / height));
+      width = Math.max(1, Math.round(width * scale));
+      height = Math.max(1, Math.round(height * scale));
+    }
+    if (width != bufferWidth || height != bufferHeight) {
+      bufferWidth = width;
+      bufferHeight = height;
+      texture.setDefaultBufferSize(width, height);
+    }
+  }
+}
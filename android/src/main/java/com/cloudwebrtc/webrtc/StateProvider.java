@@ -28,6 +28,15 @@ public interface StateProvider {
 
   String getNextTrackUUID();
 
+  /** Streams by id, owned by {@link MediaObjectIndex#LOCAL_OWNER} or a peer connection id. */
+  MediaObjectIndex<MediaStream> getStreamIndex();
+
+  /** Tracks by id, owned by {@link MediaObjectIndex#LOCAL_OWNER} or a peer connection id. */
+  MediaObjectIndex<MediaStreamTrack> getTrackIndex();
+
+  /** Tracks sinks attached to remote video tracks; see {@link RemoteTrackSuspender}. */
+  RemoteTrackSuspender getRemoteTrackSuspender();
+
   PeerConnectionFactory getPeerConnectionFactory();
 
   PeerConnectionObserver getPeerConnectionObserver(String peerConnectionId);
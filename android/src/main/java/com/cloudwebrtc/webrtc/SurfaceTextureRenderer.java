@@ -2,6 +2,8 @@ package com.cloudwebrtc.webrtc;
 
 import android.graphics.SurfaceTexture;
 
+import androidx.annotation.Nullable;
+
 import org.webrtc.EglBase;
 import org.webrtc.EglRenderer;
 import org.webrtc.GlRectDrawer;
@@ -19,23 +21,35 @@ import java.util.concurrent.CountDownLatch;
  * Interaction from C++ rtc::VideoSinkInterface in renderFrame.
  * Interaction from SurfaceHolder lifecycle in surfaceCreated, surfaceChanged, and surfaceDestroyed.
  */
-public class SurfaceTextureRenderer extends EglRenderer {
-  // Callback for reporting renderer events. Read-only after initilization so no lock required.
+public class SurfaceTextureRenderer extends EglRenderer implements TextureRenderer {
+  // Callback for reporting renderer events. Guarded by layoutLock.
   private RendererCommon.RendererEvents rendererEvents;
   private final Object layoutLock = new Object();
-  private boolean isRenderingPaused;
   private boolean isFirstFrameRendered;
   private int rotatedFrameWidth;
   private int rotatedFrameHeight;
   private int frameRotation;
+  @Nullable
+  private final RendererMetrics metrics;
+  private final FrameRateLimiter frameRateLimiter = new FrameRateLimiter();
+  /** Timestamp of the latest frame passed to EglRenderer, the one it draws next. */
+  private volatile long lastFrameTimestampNs;
+  @Nullable
+  private volatile VsyncPacer vsyncPacer;
 
   /**
    * In order to render something, you must first call init().
    */
   public SurfaceTextureRenderer(String name) {
+    this(name, null);
+  }
+
+  SurfaceTextureRenderer(String name, @Nullable RendererMetrics metrics) {
     super(name);
+    this.metrics = metrics;
   }
 
+  @Override
   public void init(final EglBase.Context sharedContext,
                    RendererCommon.RendererEvents rendererEvents) {
     init(sharedContext, rendererEvents, EglBase.CONFIG_PLAIN, new GlRectDrawer());
@@ -51,14 +65,20 @@ public class SurfaceTextureRenderer extends EglRenderer {
                    RendererCommon.RendererEvents rendererEvents, final int[] configAttributes,
                    RendererCommon.GlDrawer drawer) {
     ThreadUtils.checkIsOnMainThread();
-    this.rendererEvents = rendererEvents;
+    resetFrameTracking(rendererEvents);
+    super.init(sharedContext, configAttributes,
+            metrics != null ? new MetricsDrawer(drawer) : drawer);
+  }
+
+  @Override
+  public void resetFrameTracking(RendererCommon.RendererEvents rendererEvents) {
     synchronized (layoutLock) {
+      this.rendererEvents = rendererEvents;
       isFirstFrameRendered = false;
       rotatedFrameWidth = 0;
       rotatedFrameHeight = 0;
       frameRotation = -1;
     }
-    super.init(sharedContext, configAttributes, drawer);
   }
   @Override
   public void init(final EglBase.Context sharedContext, final int[] configAttributes,
@@ -67,40 +87,77 @@ public class SurfaceTextureRenderer extends EglRenderer {
   }
   /**
    * Limit render framerate.
+   * Frames are dropped here rather than by EglRenderer, so that the frames EglRenderer drops are
+   * only those replaced before they were drawn.
    *
    * @param fps Limit render framerate to this value, or use Float.POSITIVE_INFINITY to disable fps
    *            reduction.
    */
   @Override
   public void setFpsReduction(float fps) {
-    synchronized (layoutLock) {
-      isRenderingPaused = fps == 0f;
-    }
-    super.setFpsReduction(fps);
+    frameRateLimiter.setFps(fps);
   }
   @Override
   public void disableFpsReduction() {
-    synchronized (layoutLock) {
-      isRenderingPaused = false;
-    }
-    super.disableFpsReduction();
+    setFpsReduction(Float.POSITIVE_INFINITY);
   }
   @Override
   public void pauseVideo() {
-    synchronized (layoutLock) {
-      isRenderingPaused = true;
+    setFpsReduction(0f);
+  }
+  @Override
+  public void setVsyncPacing(boolean enabled) {
+    ThreadUtils.checkIsOnMainThread();
+    VsyncPacer pacer = vsyncPacer;
+    if (enabled == (pacer != null)) {
+      return;
+    }
+    if (pacer != null) {
+      vsyncPacer = null;
+      pacer.release();
+    } else {
+      vsyncPacer = new VsyncPacer(this::present,
+              metrics != null ? metrics : new RendererMetrics(false));
     }
-    super.pauseVideo();
+  }
+  @Override
+  public void release() {
+    VsyncPacer pacer = vsyncPacer;
+    vsyncPacer = null;
+    if (pacer != null) {
+      pacer.release();
+    }
+    super.release();
   }
   // VideoSink interface.
   @Override
   public void onFrame(VideoFrame frame) {
+    if (metrics != null) {
+      metrics.onFrameReceived();
+    }
+    if (!frameRateLimiter.accept()) {
+      if (metrics != null) {
+        metrics.onFrameDroppedByFpsReduction();
+      }
+      return;
+    }
+    VsyncPacer pacer = vsyncPacer;
+    if (pacer != null) {
+      pacer.onFrame(frame);
+    } else {
+      present(frame);
+    }
+  }
+
+  private void present(VideoFrame frame) {
     updateFrameDimensionsAndReportEvents(frame);
+    lastFrameTimestampNs = frame.getTimestampNs();
     super.onFrame(frame);
   }
 
   private SurfaceTexture texture;
 
+  @Override
   public void surfaceCreated(final SurfaceTexture texture) {
     ThreadUtils.checkIsOnMainThread();
     this.texture = texture;
@@ -117,9 +174,6 @@ public class SurfaceTextureRenderer extends EglRenderer {
   // Update frame dimensions and report any changes to |rendererEvents|.
   private void updateFrameDimensionsAndReportEvents(VideoFrame frame) {
     synchronized (layoutLock) {
-      if (isRenderingPaused) {
-        return;
-      }
       if (!isFirstFrameRendered) {
         isFirstFrameRendered = true;
         if (rendererEvents != null) {
@@ -140,4 +194,45 @@ public class SurfaceTextureRenderer extends EglRenderer {
       }
     }
   }
+
+  /**
+   * Reports every frame EglRenderer draws to the metrics. EglRenderer swaps right after drawing
+   * and only draws its latest frame, so the draw time and timestamp stand for the swapped frame.
+   */
+  private class MetricsDrawer implements RendererCommon.GlDrawer {
+    private final RendererCommon.GlDrawer drawer;
+
+    MetricsDrawer(RendererCommon.GlDrawer drawer) {
+      this.drawer = drawer;
+    }
+
+    @Override
+    public void drawOes(int oesTextureId, float[] texMatrix, int frameWidth, int frameHeight,
+                        int viewportX, int viewportY, int viewportWidth, int viewportHeight) {
+      drawer.drawOes(oesTextureId, texMatrix, frameWidth, frameHeight,
+              viewportX, viewportY, viewportWidth, viewportHeight);
+      metrics.onFrameRendered(lastFrameTimestampNs);
+    }
+
+    @Override
+    public void drawRgb(int textureId, float[] texMatrix, int frameWidth, int frameHeight,
+                        int viewportX, int viewportY, int viewportWidth, int viewportHeight) {
+      drawer.drawRgb(textureId, texMatrix, frameWidth, frameHeight,
+              viewportX, viewportY, viewportWidth, viewportHeight);
+      metrics.onFrameRendered(lastFrameTimestampNs);
+    }
+
+    @Override
+    public void drawYuv(int[] yuvTextures, float[] texMatrix, int frameWidth, int frameHeight,
+                        int viewportX, int viewportY, int viewportWidth, int viewportHeight) {
+      drawer.drawYuv(yuvTextures, texMatrix, frameWidth, frameHeight,
+              viewportX, viewportY, viewportWidth, viewportHeight);
+      metrics.onFrameRendered(lastFrameTimestampNs);
+    }
+
+    @Override
+    public void release() {
+      drawer.release();
+    }
+  }
 }
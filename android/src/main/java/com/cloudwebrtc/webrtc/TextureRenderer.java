@@ -0,0 +1,40 @@
+package com.cloudwebrtc.webrtc;
+
+import android.graphics.SurfaceTexture;
+
+import org.webrtc.EglBase;
+import org.webrtc.RendererCommon;
+import org.webrtc.VideoSink;
+
+/**
+ * A video sink drawing into the {@link SurfaceTexture} of a Flutter texture, either on its own
+ * render thread ({@link SurfaceTextureRenderer}) or on a shared one
+ * ({@link SharedSurfaceTextureRenderer}).
+ */
+interface TextureRenderer extends VideoSink {
+  void init(EglBase.Context sharedContext, RendererCommon.RendererEvents rendererEvents);
+
+  void surfaceCreated(SurfaceTexture texture);
+
+  /**
+   * Prepares for frames from a different source while keeping the EGL context and surface: the
+   * next frame is reported as the first one and resolution tracking starts over, reporting to
+   * {@code rendererEvents}.
+   */
+  void resetFrameTracking(RendererCommon.RendererEvents rendererEvents);
+
+  /** Limits the render frame rate; 0 pauses rendering, keeping the last frame on screen. */
+  void setFpsReduction(float fps);
+
+  void disableFpsReduction();
+
+  void pauseVideo();
+
+  /**
+   * With {@code enabled}, frames are queued and the latest one is presented at most once per
+   * display refresh. Main thread only.
+   */
+  void setVsyncPacing(boolean enabled);
+
+  void release();
+}
@@ -0,0 +1,271 @@
+package com.cloudwebrtc.webrtc;
+
+import android.graphics.SurfaceTexture;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLSurface;
+import android.opengl.GLES20;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+
+import org.webrtc.EglBase;
+import org.webrtc.EglBase14;
+import org.webrtc.GlRectDrawer;
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoFrameDrawer;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One render thread with one EGL context drawing the frames of many
+ * {@link SharedSurfaceTextureRenderer}s, each into its own window surface.
+ *
+ * Renderers only keep their latest frame and are queued once when it arrives. The thread draws
+ * the queued targets in arrival order, one frame each, so a tile receiving frames at a high
+ * rate cannot starve the others; a frame replaced before it was drawn counts as dropped.
+ */
+class VideoRenderThread {
+  private static final String TAG = FlutterWebRTCPlugin.TAG;
+
+  /** Something queued for drawing: a single renderer or a {@link VideoRendererGroup}. */
+  interface Target {
+    /** Draws the pending frames on {@code thread} with {@link #drawFrame}. */
+    void draw(VideoRenderThread thread);
+  }
+
+  private final String name;
+  private final HandlerThread thread;
+  private final Handler handler;
+
+  // Render thread only.
+  private EGLDisplay display = EGL14.EGL_NO_DISPLAY;
+  private EGLContext context = EGL14.EGL_NO_CONTEXT;
+  private EGLConfig config;
+  private EGLSurface pbuffer = EGL14.EGL_NO_SURFACE;
+  private GlRectDrawer drawer;
+  private VideoFrameDrawer frameDrawer;
+
+  /** Queued targets in arrival order, each at most once. */
+  private final LinkedHashSet<Target> ready = new LinkedHashSet<>();
+  private boolean drainPosted;
+
+  /** Number of renderers assigned to this thread, guarded by the owning pool. */
+  int renderers;
+
+  private final AtomicLong framesDrawn = new AtomicLong();
+  private final AtomicLong framesDropped = new AtomicLong();
+  private final AtomicLong drawNanos = new AtomicLong();
+  private volatile long maxDrawNanos;
+
+  VideoRenderThread(String name, final EglBase.Context sharedContext) {
+    this.name = name;
+    thread = new HandlerThread(name);
+    thread.start();
+    handler = new Handler(thread.getLooper());
+    handler.post(() -> initEgl(sharedContext));
+  }
+
+  String getName() {
+    return name;
+  }
+
+  void post(Runnable runnable) {
+    handler.post(runnable);
+  }
+
+  /** Queues {@code target} for drawing unless it is already queued. */
+  void schedule(Target target) {
+    synchronized (ready) {
+      ready.add(target);
+      if (!drainPosted) {
+        drainPosted = true;
+        handler.post(this::drain);
+      }
+    }
+  }
+
+  void countDroppedFrame() {
+    framesDropped.incrementAndGet();
+  }
+
+  /** Creates a window surface for {@code texture}. Must be called on this thread. */
+  EGLSurface createSurface(SurfaceTexture texture) {
+    if (context == EGL14.EGL_NO_CONTEXT) {
+      return EGL14.EGL_NO_SURFACE;
+    }
+    int[] attributes = {EGL14.EGL_NONE};
+    EGLSurface surface = EGL14.eglCreateWindowSurface(display, config, texture, attributes, 0);
+    if (surface == null || surface == EGL14.EGL_NO_SURFACE) {
+      Log.e(TAG, name + ": eglCreateWindowSurface failed: 0x"
+              + Integer.toHexString(EGL14.eglGetError()));
+      return EGL14.EGL_NO_SURFACE;
+    }
+    return surface;
+  }
+
+  /** Destroys a surface returned by {@link #createSurface}. Must be called on this thread. */
+  void releaseSurface(EGLSurface surface) {
+    if (surface == EGL14.EGL_NO_SURFACE || context == EGL14.EGL_NO_CONTEXT) {
+      return;
+    }
+    if (surface.equals(EGL14.eglGetCurrentSurface(EGL14.EGL_DRAW))) {
+      EGL14.eglMakeCurrent(display, pbuffer, pbuffer, context);
+    }
+    EGL14.eglDestroySurface(display, surface);
+  }
+
+  ConstraintsMap getStats() {
+    ConstraintsMap params = new ConstraintsMap();
+    long drawn = framesDrawn.get();
+    params.putString("name", name);
+    params.putLong("framesDrawn", drawn);
+    params.putLong("framesDropped", framesDropped.get());
+    params.putDouble("averageDrawMs", drawn > 0 ? drawNanos.get() / 1e6 / drawn : 0);
+    params.putDouble("maxDrawMs", maxDrawNanos / 1e6);
+    return params;
+  }
+
+  /** Releases the EGL context and stops the thread once queued work has run. */
+  void release() {
+    handler.post(() -> {
+      if (context != EGL14.EGL_NO_CONTEXT) {
+        drawer.release();
+        frameDrawer.release();
+        EGL14.eglMakeCurrent(display, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE,
+                EGL14.EGL_NO_CONTEXT);
+        EGL14.eglDestroySurface(display, pbuffer);
+        EGL14.eglDestroyContext(display, context);
+        EGL14.eglReleaseThread();
+        context = EGL14.EGL_NO_CONTEXT;
+      }
+      thread.quit();
+    });
+  }
+
+  private void initEgl(EglBase.Context sharedContext) {
+    display = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+    int[] version = new int[2];
+    if (display == EGL14.EGL_NO_DISPLAY || !EGL14.eglInitialize(display, version, 0, version, 1)) {
+      Log.e(TAG, name + ": unable to initialize EGL display");
+      return;
+    }
+    int[] configAttributes = {
+            EGL14.EGL_RED_SIZE, 8,
+            EGL14.EGL_GREEN_SIZE, 8,
+            EGL14.EGL_BLUE_SIZE, 8,
+            EGL14.EGL_RENDERABLE_TYPE, EGL14.EGL_OPENGL_ES2_BIT,
+            EGL14.EGL_SURFACE_TYPE, EGL14.EGL_WINDOW_BIT | EGL14.EGL_PBUFFER_BIT,
+            EGL14.EGL_NONE
+    };
+    EGLConfig[] configs = new EGLConfig[1];
+    int[] numConfigs = new int[1];
+    if (!EGL14.eglChooseConfig(display, configAttributes, 0, configs, 0, 1, numConfigs, 0)
+            || numConfigs[0] == 0) {
+      Log.e(TAG, name + ": no matching EGL config");
+      return;
+    }
+    config = configs[0];
+    EGLContext shared = sharedContext instanceof EglBase14.Context
+            ? ((EglBase14.Context) sharedContext).getRawContext()
+            : EGL14.EGL_NO_CONTEXT;
+    int[] contextAttributes = {EGL14.EGL_CONTEXT_CLIENT_VERSION, 2, EGL14.EGL_NONE};
+    EGLContext created = EGL14.eglCreateContext(display, config, shared, contextAttributes, 0);
+    if (created == null || created == EGL14.EGL_NO_CONTEXT) {
+      Log.e(TAG, name + ": eglCreateContext failed: 0x" + Integer.toHexString(EGL14.eglGetError()));
+      return;
+    }
+    int[] pbufferAttributes = {EGL14.EGL_WIDTH, 1, EGL14.EGL_HEIGHT, 1, EGL14.EGL_NONE};
+    pbuffer = EGL14.eglCreatePbufferSurface(display, config, pbufferAttributes, 0);
+    EGL14.eglMakeCurrent(display, pbuffer, pbuffer, created);
+    context = created;
+    drawer = new GlRectDrawer();
+    frameDrawer = new VideoFrameDrawer();
+  }
+
+  /** Draws the renderers queued when the pass started, then yields to other posted work. */
+  private void drain() {
+    int count;
+    synchronized (ready) {
+      count = ready.size();
+    }
+    for (int i = 0; i < count; i++) {
+      Target target;
+      synchronized (ready) {
+        Iterator<Target> it = ready.iterator();
+        if (!it.hasNext()) {
+          break;
+        }
+        target = it.next();
+        it.remove();
+      }
+      target.draw(this);
+    }
+    synchronized (ready) {
+      if (ready.isEmpty()) {
+        drainPosted = false;
+      } else {
+        handler.post(this::drain);
+      }
+    }
+  }
+
+  /**
+   * Draws {@code frame} into the surface of {@code renderer}, scaled to the surface size, and
+   * releases it. Drawing the same frame into several surfaces in a row uploads it only once.
+   * Render thread only.
+   */
+  void drawFrame(SharedSurfaceTextureRenderer renderer, VideoFrame frame) {
+    EGLSurface surface = renderer.getEglSurface();
+    long start = System.nanoTime();
+    int[] size = new int[2];
+    if (!makeCurrent(surface, size)) {
+      frame.release();
+      return;
+    }
+    GLES20.glClearColor(0, 0, 0, 0);
+    GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+    frameDrawer.drawFrame(frame, drawer, null, 0, 0, size[0], size[1]);
+    EGL14.eglSwapBuffers(display, surface);
+    renderer.onFrameRendered(frame);
+    frame.release();
+    recordDraw(System.nanoTime() - start);
+  }
+
+  /**
+   * Makes {@code surface} current and stores its width and height in {@code size}. Returns
+   * false if there is nothing to draw into. Render thread only.
+   */
+  boolean makeCurrent(EGLSurface surface, int[] size) {
+    if (context == EGL14.EGL_NO_CONTEXT || surface == EGL14.EGL_NO_SURFACE) {
+      return false;
+    }
+    if (!EGL14.eglMakeCurrent(display, surface, surface, context)) {
+      Log.e(TAG, name + ": eglMakeCurrent failed: 0x" + Integer.toHexString(EGL14.eglGetError()));
+      return false;
+    }
+    EGL14.eglQuerySurface(display, surface, EGL14.EGL_WIDTH, size, 0);
+    EGL14.eglQuerySurface(display, surface, EGL14.EGL_HEIGHT, size, 1);
+    return true;
+  }
+
+  /** Presents {@code surface} after {@link #makeCurrent}. Render thread only. */
+  void swapBuffers(EGLSurface surface) {
+    EGL14.eglSwapBuffers(display, surface);
+  }
+
+  /** Counts one draw pass taking {@code elapsedNanos} in the thread stats. */
+  void recordDraw(long elapsedNanos) {
+    framesDrawn.incrementAndGet();
+    drawNanos.addAndGet(elapsedNanos);
+    if (elapsedNanos > maxDrawNanos) {
+      maxDrawNanos = elapsedNanos;
+    }
+  }
+}
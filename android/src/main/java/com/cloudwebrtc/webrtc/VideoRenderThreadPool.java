@@ -0,0 +1,67 @@
+package com.cloudwebrtc.webrtc;
+
+import com.cloudwebrtc.webrtc.utils.ConstraintsMap;
+import com.cloudwebrtc.webrtc.utils.EglUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A small fixed set of {@link VideoRenderThread}s shared by all renderers created in shared
+ * mode. Threads are started on demand, up to {@code maxThreads}, and each new renderer is
+ * assigned to the thread with the fewest renderers. A thread is stopped, with its EGL context,
+ * once its last renderer is released.
+ */
+class VideoRenderThreadPool {
+  private final List<VideoRenderThread> threads = new ArrayList<>();
+  private int maxThreads = 1;
+  private int threadsStarted;
+
+  /** Applies to renderers created afterwards; running threads are kept. */
+  synchronized void setMaxThreads(int maxThreads) {
+    this.maxThreads = Math.max(1, maxThreads);
+  }
+
+  synchronized VideoRenderThread acquire() {
+    VideoRenderThread best = null;
+    for (VideoRenderThread thread : threads) {
+      if (best == null || thread.renderers < best.renderers) {
+        best = thread;
+      }
+    }
+    if (threads.size() < maxThreads && (best == null || best.renderers > 0)) {
+      best = new VideoRenderThread("FlutterWebRTC-render-" + (++threadsStarted),
+              EglUtils.getRootEglBaseContext());
+      threads.add(best);
+    }
+    best.renderers++;
+    return best;
+  }
+
+  /** Called once the renderer no longer posts work to {@code thread}. */
+  synchronized void release(VideoRenderThread thread) {
+    if (--thread.renderers == 0 && threads.remove(thread)) {
+      thread.release();
+    }
+  }
+
+  synchronized ConstraintsMap getStats() {
+    ConstraintsMap params = new ConstraintsMap();
+    ArrayList<Object> list = new ArrayList<>();
+    for (VideoRenderThread thread : threads) {
+      ConstraintsMap stats = thread.getStats();
+      stats.putInt("renderers", thread.renderers);
+      list.add(stats.toMap());
+    }
+    params.putInt("maxThreads", maxThreads);
+    params.putArray("threads", list);
+    return params;
+  }
+
+  synchronized void dispose() {
+    for (VideoRenderThread thread : threads) {
+      thread.release();
+    }
+    threads.clear();
+  }
+}
@@ -0,0 +1,143 @@
+package com.cloudwebrtc.webrtc;
+
+import androidx.annotation.Nullable;
+
+import org.webrtc.MediaStream;
+import org.webrtc.VideoFrame;
+import org.webrtc.VideoSink;
+import org.webrtc.VideoTrack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Renders one video track into the textures of several {@link FlutterRTCVideoRenderer}s, e.g. a
+ * main view and a picture-in-picture view.
+ *
+ * The group is the only sink on the track. Every frame is handed to all member renderers, which
+ * hold it by reference count, and all members are drawn in one pass on the group's
+ * {@link VideoRenderThread}. A frame in CPU memory is therefore converted and uploaded once, and
+ * each member scales it to its own view size on the GPU. Members keep their own render policy,
+ * metrics and events.
+ *
+ * Main thread only, except for {@link #onFrame} and {@link #draw}.
+ */
+class VideoRendererGroup implements VideoSink, VideoRenderThread.Target {
+  private final int id;
+  private final VideoRenderThreadPool pool;
+  private final VideoRenderThread thread;
+  private final RemoteTrackSuspender remoteTrackSuspender;
+  private final CopyOnWriteArrayList<SharedSurfaceTextureRenderer> sinks =
+          new CopyOnWriteArrayList<>();
+  private final List<FlutterRTCVideoRenderer> renderers = new ArrayList<>();
+
+  private MediaStream mediaStream;
+  private VideoTrack videoTrack;
+  private String ownerTag;
+
+  VideoRendererGroup(int id, VideoRenderThreadPool pool,
+                     RemoteTrackSuspender remoteTrackSuspender) {
+    this.id = id;
+    this.pool = pool;
+    this.remoteTrackSuspender = remoteTrackSuspender;
+    this.thread = pool.acquire();
+  }
+
+  int getId() {
+    return id;
+  }
+
+  VideoRenderThread getThread() {
+    return thread;
+  }
+
+  void add(FlutterRTCVideoRenderer renderer) {
+    if (renderers.contains(renderer)) {
+      return;
+    }
+    renderers.add(renderer);
+    renderer.joinGroup(this);
+    renderer.setGroupTrack(videoTrack, ownerTag);
+  }
+
+  /** The renderer goes back to rendering on its own, showing nothing. */
+  void remove(FlutterRTCVideoRenderer renderer) {
+    if (renderers.remove(renderer)) {
+      renderer.leaveGroup();
+    }
+  }
+
+  /** Called by members when they create or release the renderer drawing their texture. */
+  void addSink(SharedSurfaceTextureRenderer sink) {
+    sinks.add(sink);
+  }
+
+  void removeSink(SharedSurfaceTextureRenderer sink) {
+    sinks.remove(sink);
+  }
+
+  /**
+   * Renders the video track {@code trackId} of {@code mediaStream}, or its first video track if
+   * {@code trackId} is null, in all members.
+   */
+  void setStream(@Nullable MediaStream mediaStream, @Nullable String trackId,
+                 @Nullable String ownerTag) {
+    this.mediaStream = mediaStream;
+    this.ownerTag = ownerTag;
+    setVideoTrack(FlutterRTCVideoRenderer.findVideoTrack(mediaStream, trackId));
+  }
+
+  void setVideoTrack(@Nullable VideoTrack videoTrack) {
+    VideoTrack oldValue = this.videoTrack;
+    if (oldValue == videoTrack) {
+      return;
+    }
+    if (oldValue != null) {
+      oldValue.removeSink(this);
+      remoteTrackSuspender.sinkRemoved(oldValue);
+    }
+    this.videoTrack = videoTrack;
+    for (FlutterRTCVideoRenderer renderer : renderers) {
+      renderer.setGroupTrack(videoTrack, ownerTag);
+    }
+    if (videoTrack != null) {
+      videoTrack.addSink(this);
+      remoteTrackSuspender.sinkAdded(videoTrack);
+    }
+  }
+
+  boolean checkMediaStream(String id, String ownerTag) {
+    return id != null && mediaStream != null && ownerTag != null
+            && ownerTag.equals(this.ownerTag) && id.equals(mediaStream.getId());
+  }
+
+  boolean checkVideoTrack(String id, String ownerTag) {
+    return id != null && videoTrack != null && ownerTag != null
+            && ownerTag.equals(this.ownerTag) && id.equals(videoTrack.id());
+  }
+
+  /** Stops rendering and returns the members to rendering on their own. */
+  void dispose() {
+    setStream(null, null, null);
+    for (FlutterRTCVideoRenderer renderer : new ArrayList<>(renderers)) {
+      remove(renderer);
+    }
+    pool.release(thread);
+  }
+
+  @Override
+  public void onFrame(VideoFrame frame) {
+    // Members queue the group once they hold the frame.
+    for (SharedSurfaceTextureRenderer sink : sinks) {
+      sink.onFrame(frame);
+    }
+  }
+
+  @Override
+  public void draw(VideoRenderThread thread) {
+    for (SharedSurfaceTextureRenderer sink : sinks) {
+      sink.draw(thread);
+    }
+  }
+}
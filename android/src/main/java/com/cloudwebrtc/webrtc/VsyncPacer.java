@@ -0,0 +1,79 @@
+package com.cloudwebrtc.webrtc;
+
+import android.view.Choreographer;
+
+import org.webrtc.VideoFrame;
+
+/**
+ * Presents at most one frame per display refresh. Incoming frames only replace the queued one;
+ * the latest is handed to the renderer on the next {@link Choreographer} callback, so irregular
+ * network delivery does not turn into irregular draws and frames superseded within one refresh
+ * are never drawn.
+ *
+ * Must be created on the main thread, whose Choreographer follows the display vsync.
+ */
+class VsyncPacer implements Choreographer.FrameCallback {
+  interface Presenter {
+    /** Draws {@code frame}; it is released after the call. */
+    void present(VideoFrame frame);
+  }
+
+  private final Choreographer choreographer = Choreographer.getInstance();
+  private final Presenter presenter;
+  private final RendererMetrics metrics;
+
+  // Guarded by this.
+  private VideoFrame pendingFrame;
+  private boolean callbackPosted;
+  private boolean released;
+
+  VsyncPacer(Presenter presenter, RendererMetrics metrics) {
+    this.presenter = presenter;
+    this.metrics = metrics;
+  }
+
+  void onFrame(VideoFrame frame) {
+    synchronized (this) {
+      if (released) {
+        return;
+      }
+      if (pendingFrame != null) {
+        pendingFrame.release();
+        metrics.onDrawSavedByPacing();
+      }
+      frame.retain();
+      pendingFrame = frame;
+      if (callbackPosted) {
+        return;
+      }
+      callbackPosted = true;
+    }
+    choreographer.postFrameCallback(this);
+  }
+
+  @Override
+  public void doFrame(long frameTimeNanos) {
+    VideoFrame frame;
+    synchronized (this) {
+      callbackPosted = false;
+      frame = pendingFrame;
+      pendingFrame = null;
+    }
+    if (frame != null) {
+      presenter.present(frame);
+      frame.release();
+    }
+  }
+
+  /** Drops the queued frame; frames arriving afterwards are ignored. */
+  void release() {
+    synchronized (this) {
+      released = true;
+      if (pendingFrame != null) {
+        pendingFrame.release();
+        pendingFrame = null;
+      }
+    }
+    choreographer.removeFrameCallback(this);
+  }
+}
@@ -51,6 +51,9 @@ public class MediaRecorderImpl {
 
     public File getRecordFile() { return recordFile; }
 
+    @Nullable
+    public VideoTrack getVideoTrack() { return videoTrack; }
+
     public void stopRecording() {
         isRunning = false;
         if (audioInterceptor != null)
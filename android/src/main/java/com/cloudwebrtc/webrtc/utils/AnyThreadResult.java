@@ -8,31 +8,60 @@ import io.flutter.plugin.common.MethodChannel;
 public final class AnyThreadResult implements MethodChannel.Result {
     final private MethodChannel.Result result;
     final private Handler handler = new Handler(Looper.getMainLooper());
+    final private String method;
+    final private PluginMetrics metrics;
+    final private long startNanos = System.nanoTime();
 
     public AnyThreadResult(MethodChannel.Result result) {
+        this(result, null, null);
+    }
+
+    /**
+     * Records the latency from construction until the result is delivered into {@code metrics}
+     * under {@code method}.
+     */
+    public AnyThreadResult(MethodChannel.Result result, String method, PluginMetrics metrics) {
         this.result = result;
+        this.method = method;
+        this.metrics = metrics;
     }
 
     @Override
     public void success(Object o) {
-        post(()->result.success(o));
+        post(()->{
+            result.success(o);
+            record(false);
+        });
     }
 
     @Override
     public void error(String s, String s1, Object o) {
-        post(()->result.error(s, s1, o));
+        post(()->{
+            result.error(s, s1, o);
+            record(true);
+        });
     }
 
     @Override
     public void notImplemented() {
-        post(result::notImplemented);
+        post(()->{
+            result.notImplemented();
+            record(true);
+        });
+    }
+
+    private void record(boolean error) {
+        if (metrics != null) {
+            metrics.record(method, System.nanoTime() - startNanos, error);
+        }
     }
 
     private void post(Runnable r) {
+        String label = method != null ? method : "result";
         if(Looper.getMainLooper() == Looper.myLooper()){
-            r.run();
+            MainThreadWatchdog.INSTANCE.run(label, r);
         }else{
-            handler.post(r);
+            handler.post(MainThreadWatchdog.INSTANCE.wrap(label, r));
         }
     }
 }
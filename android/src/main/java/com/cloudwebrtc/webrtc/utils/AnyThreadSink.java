@@ -30,9 +30,9 @@ public final class AnyThreadSink implements EventChannel.EventSink {
 
     private void post(Runnable r) {
         if(Looper.getMainLooper() == Looper.myLooper()){
-            r.run();
+            MainThreadWatchdog.INSTANCE.run("eventSink", r);
         }else{
-            handler.post(r);
+            handler.post(MainThreadWatchdog.INSTANCE.wrap("eventSink", r));
         }
     }
 }
@@ -0,0 +1,128 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.webrtc.VideoCodecInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists the results of the hardware codec factories' {@code getSupportedCodecs()}, which
+ * enumerate MediaCodecList on every call, so later cold starts can skip the enumeration.
+ *
+ * Entries are only valid for the device build and app install they were recorded with: the key
+ * combines {@link Build#FINGERPRINT} (changes with every OS or vendor codec update), the app's
+ * last update time (changes whenever a new plugin version is installed with the app) and
+ * {@link #FORMAT_VERSION}. Any mismatch drops the whole cache.
+ */
+public final class CodecCapabilityCache {
+    private static final String TAG = "CodecCapabilityCache";
+    private static final String PREFERENCES = "FlutterWebRTC.codecCapabilities";
+    private static final String KEY = "key";
+    /** Bump when the stored format or the codec factory configuration changes. */
+    private static final int FORMAT_VERSION = 2;
+
+    private final SharedPreferences preferences;
+    private final String key;
+    private final Map<String, VideoCodecInfo[]> memo = new HashMap<>();
+
+    public CodecCapabilityCache(Context context) {
+        this.preferences = context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        this.key = createKey(context);
+        if (!key.equals(preferences.getString(KEY, null))) {
+            preferences.edit().clear().putString(KEY, key).apply();
+        }
+    }
+
+    /** The cached codecs recorded under {@code name}, or null on a miss. */
+    @Nullable
+    public synchronized VideoCodecInfo[] get(String name) {
+        VideoCodecInfo[] codecs = memo.get(name);
+        if (codecs != null) {
+            return codecs;
+        }
+        String json = preferences.getString(name, null);
+        if (json == null) {
+            return null;
+        }
+        try {
+            codecs = fromJson(new JSONArray(json));
+        } catch (JSONException e) {
+            Log.w(TAG, "Dropping unreadable entry " + name, e);
+            preferences.edit().remove(name).apply();
+            return null;
+        }
+        memo.put(name, codecs);
+        return codecs;
+    }
+
+    public synchronized void put(String name, VideoCodecInfo[] codecs) {
+        memo.put(name, codecs);
+        try {
+            preferences.edit().putString(name, toJson(codecs).toString()).apply();
+        } catch (JSONException e) {
+            Log.w(TAG, "Failed to store entry " + name, e);
+        }
+    }
+
+    private static String createKey(Context context) {
+        long lastUpdateTime = 0;
+        try {
+            lastUpdateTime = context.getPackageManager()
+                    .getPackageInfo(context.getPackageName(), 0).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w(TAG, "Package info unavailable", e);
+        }
+        return FORMAT_VERSION + "|" + Build.FINGERPRINT + "|" + lastUpdateTime;
+    }
+
+    private static JSONArray toJson(VideoCodecInfo[] codecs) throws JSONException {
+        JSONArray array = new JSONArray();
+        for (VideoCodecInfo codec : codecs) {
+            JSONObject params = new JSONObject();
+            for (Map.Entry<String, String> entry : codec.params.entrySet()) {
+                params.put(entry.getKey(), entry.getValue());
+            }
+            JSONObject item = new JSONObject();
+            item.put("name", codec.name);
+            item.put("params", params);
+            item.put("scalabilityModes", new JSONArray(codec.scalabilityModes));
+            array.put(item);
+        }
+        return array;
+    }
+
+    private static VideoCodecInfo[] fromJson(JSONArray array) throws JSONException {
+        VideoCodecInfo[] codecs = new VideoCodecInfo[array.length()];
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject item = array.getJSONObject(i);
+            JSONObject params = item.getJSONObject("params");
+            Map<String, String> paramsMap = new HashMap<>();
+            Iterator<String> keys = params.keys();
+            while (keys.hasNext()) {
+                String name = keys.next();
+                paramsMap.put(name, params.getString(name));
+            }
+            JSONArray modes = item.getJSONArray("scalabilityModes");
+            List<String> scalabilityModes = new ArrayList<>(modes.length());
+            for (int j = 0; j < modes.length(); j++) {
+                scalabilityModes.add(modes.getString(j));
+            }
+            codecs[i] = new VideoCodecInfo(item.getString("name"), paramsMap, scalabilityModes);
+        }
+        return codecs;
+    }
+}
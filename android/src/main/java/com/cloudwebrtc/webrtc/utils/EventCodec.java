@@ -0,0 +1,170 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import io.flutter.plugin.common.StandardMessageCodec;
+import io.flutter.plugin.common.StandardMethodCodec;
+
+/**
+ * {@link StandardMessageCodec} that writes the high frequency plugin events as compact typed
+ * records instead of {@code HashMap}s keyed by strings.
+ *
+ * Every record starts with a one byte type tag (128+, outside of the range used by the standard
+ * codec) followed by its fields in a fixed order, so neither side needs to build an intermediate
+ * map to decode it. The Dart counterpart lives in {@code lib/src/native/event_codec.dart} and the
+ * two must be kept in sync. Events that are not listed here keep using plain maps.
+ */
+public class EventCodec extends StandardMessageCodec {
+    public static final EventCodec INSTANCE = new EventCodec();
+
+    public static final StandardMethodCodec METHOD_CODEC = new StandardMethodCodec(INSTANCE);
+
+    private static final byte ICE_CANDIDATE = (byte) 128;
+    private static final byte STATE_CHANGED = (byte) 129;
+    private static final byte BUFFERED_AMOUNT_CHANGED = (byte) 130;
+    private static final byte VIDEO_SIZE_CHANGED = (byte) 131;
+    private static final byte ROTATION_CHANGED = (byte) 132;
+
+    public static final int KIND_SIGNALING = 0;
+    public static final int KIND_ICE_GATHERING = 1;
+    public static final int KIND_ICE_CONNECTION = 2;
+    public static final int KIND_PEER_CONNECTION = 3;
+    public static final int KIND_DATA_CHANNEL = 4;
+
+    /** Replaces the {@code onCandidate} event. */
+    public static final class IceCandidateEvent {
+        public final String sdpMid;
+        public final int sdpMLineIndex;
+        public final String candidate;
+
+        public IceCandidateEvent(String sdpMid, int sdpMLineIndex, String candidate) {
+            this.sdpMid = sdpMid;
+            this.sdpMLineIndex = sdpMLineIndex;
+            this.candidate = candidate;
+        }
+    }
+
+    /**
+     * Replaces the {@code signalingState}, {@code iceGatheringState}, {@code iceConnectionState},
+     * {@code peerConnectionState} and {@code dataChannelStateChanged} events. {@code id} is the
+     * data channel id for {@link #KIND_DATA_CHANNEL} and unused otherwise.
+     */
+    public static final class StateChangedEvent {
+        public final int kind;
+        public final int id;
+        public final String state;
+
+        public StateChangedEvent(int kind, int id, String state) {
+            this.kind = kind;
+            this.id = id;
+            this.state = state;
+        }
+    }
+
+    /** Replaces the {@code dataChannelBufferedAmountChange} event. */
+    public static final class BufferedAmountChangedEvent {
+        public final int id;
+        public final long bufferedAmount;
+        public final long changedAmount;
+
+        public BufferedAmountChangedEvent(int id, long bufferedAmount, long changedAmount) {
+            this.id = id;
+            this.bufferedAmount = bufferedAmount;
+            this.changedAmount = changedAmount;
+        }
+    }
+
+    /** Replaces the {@code didTextureChangeVideoSize} event. */
+    public static final class VideoSizeChangedEvent {
+        public final int textureId;
+        public final int width;
+        public final int height;
+
+        public VideoSizeChangedEvent(int textureId, int width, int height) {
+            this.textureId = textureId;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /** Replaces the {@code didTextureChangeRotation} event. */
+    public static final class RotationChangedEvent {
+        public final int textureId;
+        public final int rotation;
+
+        public RotationChangedEvent(int textureId, int rotation) {
+            this.textureId = textureId;
+            this.rotation = rotation;
+        }
+    }
+
+    @Override
+    protected void writeValue(ByteArrayOutputStream stream, Object value) {
+        if (value instanceof IceCandidateEvent) {
+            IceCandidateEvent event = (IceCandidateEvent) value;
+            stream.write(ICE_CANDIDATE);
+            writeValue(stream, event.sdpMid);
+            writeInt(stream, event.sdpMLineIndex);
+            writeValue(stream, event.candidate);
+        } else if (value instanceof StateChangedEvent) {
+            StateChangedEvent event = (StateChangedEvent) value;
+            stream.write(STATE_CHANGED);
+            stream.write(event.kind);
+            writeInt(stream, event.id);
+            writeValue(stream, event.state);
+        } else if (value instanceof BufferedAmountChangedEvent) {
+            BufferedAmountChangedEvent event = (BufferedAmountChangedEvent) value;
+            stream.write(BUFFERED_AMOUNT_CHANGED);
+            writeInt(stream, event.id);
+            writeLong(stream, event.bufferedAmount);
+            writeLong(stream, event.changedAmount);
+        } else if (value instanceof VideoSizeChangedEvent) {
+            VideoSizeChangedEvent event = (VideoSizeChangedEvent) value;
+            stream.write(VIDEO_SIZE_CHANGED);
+            writeInt(stream, event.textureId);
+            writeInt(stream, event.width);
+            writeInt(stream, event.height);
+        } else if (value instanceof RotationChangedEvent) {
+            RotationChangedEvent event = (RotationChangedEvent) value;
+            stream.write(ROTATION_CHANGED);
+            writeInt(stream, event.textureId);
+            writeInt(stream, event.rotation);
+        } else {
+            super.writeValue(stream, value);
+        }
+    }
+
+    @Override
+    protected Object readValueOfType(byte type, ByteBuffer buffer) {
+        switch (type) {
+            case ICE_CANDIDATE: {
+                String sdpMid = (String) readValue(buffer);
+                int sdpMLineIndex = buffer.getInt();
+                String candidate = (String) readValue(buffer);
+                return new IceCandidateEvent(sdpMid, sdpMLineIndex, candidate);
+            }
+            case STATE_CHANGED: {
+                int kind = buffer.get();
+                int id = buffer.getInt();
+                String state = (String) readValue(buffer);
+                return new StateChangedEvent(kind, id, state);
+            }
+            case BUFFERED_AMOUNT_CHANGED:
+                return new BufferedAmountChangedEvent(buffer.getInt(), buffer.getLong(), buffer.getLong());
+            case VIDEO_SIZE_CHANGED:
+                return new VideoSizeChangedEvent(buffer.getInt(), buffer.getInt(), buffer.getInt());
+            case ROTATION_CHANGED:
+                return new RotationChangedEvent(buffer.getInt(), buffer.getInt());
+            default:
+                return super.readValueOfType(type, buffer);
+        }
+    }
+
+    /** Convenience for {@link StateChangedEvent}s that may carry a {@code null} state string. */
+    public static StateChangedEvent stateChanged(int kind, @Nullable String state) {
+        return new StateChangedEvent(kind, 0, state == null ? "" : state);
+    }
+}
@@ -0,0 +1,29 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Allocates ids for streams, tracks, transceivers, data channels and frame cryptors.
+ *
+ * Ids are a per-process random prefix followed by an atomic counter, so they are unique within
+ * the process without any collision checks, and unlikely to clash with ids generated by the
+ * remote peer. Unlike {@code UUID.randomUUID()} this never touches {@code SecureRandom}, which
+ * can block while the entropy pool is seeded on some devices.
+ */
+public final class IdAllocator {
+    private static final String PREFIX = createPrefix();
+    private static final AtomicLong counter = new AtomicLong();
+
+    private IdAllocator() {
+    }
+
+    public static String next() {
+        return PREFIX + Long.toString(counter.incrementAndGet(), 36);
+    }
+
+    private static String createPrefix() {
+        long random = new Random().nextLong() ^ System.currentTimeMillis();
+        return Long.toHexString(random) + "-";
+    }
+}
@@ -0,0 +1,161 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Optional watchdog for plugin work running on the main thread.
+ *
+ * Runnables passed through {@link #wrap} or {@link #run} are timestamped when posted and when
+ * they start. A background thread polls the task that is currently running and, once it has
+ * been running for longer than the threshold, captures the main thread stack. Every task that
+ * exceeds the threshold is kept in a small ring buffer together with its label (usually the
+ * method name), queue delay, run time and the captured stack.
+ *
+ * Disabled by default; when disabled {@link #wrap} returns the runnable unchanged.
+ */
+public final class MainThreadWatchdog {
+    public static final MainThreadWatchdog INSTANCE = new MainThreadWatchdog();
+
+    private static final int CAPACITY = 32;
+    private static final long MIN_POLL_INTERVAL_MS = 5;
+
+    private volatile boolean enabled = false;
+    private volatile long thresholdNanos = 50 * 1000000L;
+    private HandlerThread watchdogThread;
+    private Handler watchdogHandler;
+
+    // Written on the main thread, read by the watchdog thread.
+    private volatile long currentStartNanos;
+    private volatile StackTraceElement[] currentStack;
+    // Main thread only.
+    private int depth;
+
+    private final ArrayDeque<Map<String, Object>> stalls = new ArrayDeque<>();
+
+    private final Runnable poll = new Runnable() {
+        @Override
+        public void run() {
+            long start = currentStartNanos;
+            if (start != 0 && currentStack == null && System.nanoTime() - start > thresholdNanos) {
+                StackTraceElement[] stack = Looper.getMainLooper().getThread().getStackTrace();
+                if (currentStartNanos == start) {
+                    currentStack = stack;
+                }
+            }
+            Handler handler = watchdogHandler;
+            if (handler != null) {
+                handler.postDelayed(this, pollIntervalMs());
+            }
+        }
+    };
+
+    private MainThreadWatchdog() {
+    }
+
+    public synchronized void setEnabled(boolean enabled, long thresholdMs) {
+        if (thresholdMs > 0) {
+            thresholdNanos = thresholdMs * 1000000L;
+        }
+        if (enabled && watchdogThread == null) {
+            watchdogThread = new HandlerThread("FlutterWebRTC-watchdog");
+            watchdogThread.start();
+            watchdogHandler = new Handler(watchdogThread.getLooper());
+            watchdogHandler.post(poll);
+        } else if (!enabled && watchdogThread != null) {
+            watchdogHandler.removeCallbacksAndMessages(null);
+            watchdogHandler = null;
+            watchdogThread.quitSafely();
+            watchdogThread = null;
+        }
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wraps a runnable that is about to be posted to the main thread.
+     */
+    public Runnable wrap(final String label, final Runnable r) {
+        if (!enabled) {
+            return r;
+        }
+        final long postedNanos = System.nanoTime();
+        return () -> run(label, postedNanos, r);
+    }
+
+    /**
+     * Runs {@code r} under observation if called on the main thread, otherwise just runs it.
+     */
+    public void run(String label, Runnable r) {
+        run(label, System.nanoTime(), r);
+    }
+
+    private void run(String label, long postedNanos, Runnable r) {
+        // Only the outermost task is observed, nested ones are part of its run time.
+        if (!enabled || depth > 0 || Looper.myLooper() != Looper.getMainLooper()) {
+            r.run();
+            return;
+        }
+        depth++;
+        currentStack = null;
+        long start = System.nanoTime();
+        currentStartNanos = start;
+        try {
+            r.run();
+        } finally {
+            long duration = System.nanoTime() - start;
+            currentStartNanos = 0;
+            depth--;
+            if (duration > thresholdNanos) {
+                record(label, start - postedNanos, duration, currentStack);
+            }
+        }
+    }
+
+    private void record(String label, long queuedNanos, long durationNanos,
+                        StackTraceElement[] stack) {
+        ConstraintsMap stall = new ConstraintsMap();
+        stall.putString("method", label);
+        stall.putLong("timestamp", System.currentTimeMillis());
+        stall.putDouble("queuedMs", queuedNanos / 1e6);
+        stall.putDouble("durationMs", durationNanos / 1e6);
+        ArrayList<Object> frames = new ArrayList<>();
+        if (stack != null) {
+            for (StackTraceElement element : stack) {
+                frames.add(element.toString());
+            }
+        }
+        stall.putArray("stack", frames);
+        synchronized (stalls) {
+            if (stalls.size() == CAPACITY) {
+                stalls.pollFirst();
+            }
+            stalls.addLast(stall.toMap());
+        }
+    }
+
+    /**
+     * Returns the recorded stalls, oldest first, and optionally clears the buffer.
+     */
+    public ArrayList<Object> getStalls(boolean clear) {
+        synchronized (stalls) {
+            ArrayList<Object> result = new ArrayList<Object>(stalls);
+            if (clear) {
+                stalls.clear();
+            }
+            return result;
+        }
+    }
+
+    private long pollIntervalMs() {
+        return Math.max(MIN_POLL_INTERVAL_MS, thresholdNanos / 2000000L);
+    }
+}
@@ -0,0 +1,94 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-method latency histograms for platform calls, measured from call entry until the result
+ * is delivered back on the main thread. Buckets are fixed so recording is lock free and cheap
+ * enough to stay enabled in production builds.
+ */
+public class PluginMetrics {
+    /** Upper bounds (inclusive, in milliseconds) of all but the last, open-ended bucket. */
+    public static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000};
+
+    private static final class MethodStats {
+        final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long latencyNanos, boolean error) {
+            long latencyMs = latencyNanos / 1000000;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && latencyMs > BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+            count.incrementAndGet();
+            if (error) {
+                errors.incrementAndGet();
+            }
+            totalNanos.addAndGet(latencyNanos);
+            long max;
+            do {
+                max = maxNanos.get();
+            } while (latencyNanos > max && !maxNanos.compareAndSet(max, latencyNanos));
+        }
+
+        Map<String, Object> toMap() {
+            ConstraintsMap map = new ConstraintsMap();
+            map.putLong("count", count.get());
+            map.putLong("errors", errors.get());
+            map.putDouble("totalMs", totalNanos.get() / 1e6);
+            map.putDouble("maxMs", maxNanos.get() / 1e6);
+            ArrayList<Object> counts = new ArrayList<>();
+            for (int i = 0; i < buckets.length(); i++) {
+                counts.add(buckets.get(i));
+            }
+            map.putArray("buckets", counts);
+            return map.toMap();
+        }
+    }
+
+    private final ConcurrentHashMap<String, MethodStats> stats = new ConcurrentHashMap<>();
+
+    public void record(String method, long latencyNanos, boolean error) {
+        MethodStats methodStats = stats.get(method);
+        if (methodStats == null) {
+            MethodStats created = new MethodStats();
+            methodStats = stats.putIfAbsent(method, created);
+            if (methodStats == null) {
+                methodStats = created;
+            }
+        }
+        methodStats.record(latencyNanos, error);
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    /**
+     * {@code {"bucketBoundsMs": [...], "methods": {name: {count, errors, totalMs, maxMs,
+     * buckets}}}}, where {@code buckets} has one more entry than {@code bucketBoundsMs}.
+     */
+    public Map<String, Object> toMap() {
+        ConstraintsMap methods = new ConstraintsMap();
+        for (Map.Entry<String, MethodStats> entry : stats.entrySet()) {
+            methods.putMap(entry.getKey(), entry.getValue().toMap());
+        }
+        ArrayList<Object> bounds = new ArrayList<>();
+        for (long bound : BUCKET_BOUNDS_MS) {
+            bounds.add(bound);
+        }
+        ConstraintsMap params = new ConstraintsMap();
+        params.putArray("bucketBoundsMs", bounds);
+        params.putMap("methods", methods.toMap());
+        return params.toMap();
+    }
+}
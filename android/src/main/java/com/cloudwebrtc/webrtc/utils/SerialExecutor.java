@@ -0,0 +1,39 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Runs submitted tasks one at a time, in submission order, on top of a shared backing
+ * {@link Executor}. Several {@code SerialExecutor}s sharing a pool run in parallel with each
+ * other while each one keeps its own ordering.
+ */
+public final class SerialExecutor implements Executor {
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor;
+    private Runnable active;
+
+    public SerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void execute(final Runnable r) {
+        tasks.offer(() -> {
+            try {
+                r.run();
+            } finally {
+                scheduleNext();
+            }
+        });
+        if (active == null) {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        if ((active = tasks.poll()) != null) {
+            executor.execute(active);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package org.webrtc.video;
 
 import androidx.annotation.Nullable;
 
+import com.cloudwebrtc.webrtc.utils.CodecCapabilityCache;
+
 import org.webrtc.EglBase;
 import org.webrtc.SoftwareVideoDecoderFactory;
 import org.webrtc.VideoCodecInfo;
@@ -19,6 +21,9 @@ public class CustomVideoDecoderFactory implements VideoDecoderFactory {
 
     private List<String> forceSWCodecs = new ArrayList<>();
 
+    @Nullable
+    private CodecCapabilityCache capabilityCache;
+
     public  CustomVideoDecoderFactory(EglBase.Context sharedContext) {
         this.wrappedVideoDecoderFactory = new WrappedVideoDecoderFactory(sharedContext);
     }
@@ -31,6 +36,11 @@ public class CustomVideoDecoderFactory implements VideoDecoderFactory {
         this.forceSWCodecs = forceSWCodecs;
     }
 
+    /** Serves the hardware codec list from the cache instead of enumerating MediaCodecList. */
+    public void setCapabilityCache(@Nullable CodecCapabilityCache capabilityCache) {
+        this.capabilityCache = capabilityCache;
+    }
+
     @Nullable
     @Override
     public VideoDecoder createDecoder(VideoCodecInfo videoCodecInfo) {
@@ -50,6 +60,14 @@ public class CustomVideoDecoderFactory implements VideoDecoderFactory {
         if(forceSWCodec && forceSWCodecs.isEmpty()) {
             return softwareVideoDecoderFactory.getSupportedCodecs();
         }
-        return wrappedVideoDecoderFactory.getSupportedCodecs();
+        if (capabilityCache == null) {
+            return wrappedVideoDecoderFactory.getSupportedCodecs();
+        }
+        VideoCodecInfo[] codecs = capabilityCache.get("decoder");
+        if (codecs == null) {
+            codecs = wrappedVideoDecoderFactory.getSupportedCodecs();
+            capabilityCache.put("decoder", codecs);
+        }
+        return codecs;
     }
 }
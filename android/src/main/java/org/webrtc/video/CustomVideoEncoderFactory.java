@@ -3,6 +3,7 @@ package org.webrtc.video;
 import androidx.annotation.Nullable;
 
 import com.cloudwebrtc.webrtc.SimulcastVideoEncoderFactoryWrapper;
+import com.cloudwebrtc.webrtc.utils.CodecCapabilityCache;
 
 import org.webrtc.EglBase;
 import org.webrtc.SoftwareVideoEncoderFactory;
@@ -21,6 +22,9 @@ public class CustomVideoEncoderFactory implements VideoEncoderFactory {
 
     private List<String> forceSWCodecs = new ArrayList<>();
 
+    @Nullable
+    private CodecCapabilityCache capabilityCache;
+
     public CustomVideoEncoderFactory(EglBase.Context sharedContext,
                                      boolean enableIntelVp8Encoder,
                                      boolean enableH264HighProfile) {
@@ -35,6 +39,11 @@ public class CustomVideoEncoderFactory implements VideoEncoderFactory {
         this.forceSWCodecs = forceSWCodecs;
     }
 
+    /** Serves the hardware codec list from the cache instead of enumerating MediaCodecList. */
+    public void setCapabilityCache(@Nullable CodecCapabilityCache capabilityCache) {
+        this.capabilityCache = capabilityCache;
+    }
+
     @Nullable
     @Override
     public VideoEncoder createEncoder(VideoCodecInfo videoCodecInfo) {
@@ -56,6 +65,14 @@ public class CustomVideoEncoderFactory implements VideoEncoderFactory {
         if(forceSWCodec && forceSWCodecs.isEmpty()) {
             return softwareVideoEncoderFactory.getSupportedCodecs();
         }
-        return simulcastVideoEncoderFactoryWrapper.getSupportedCodecs();
+        if (capabilityCache == null) {
+            return simulcastVideoEncoderFactoryWrapper.getSupportedCodecs();
+        }
+        VideoCodecInfo[] codecs = capabilityCache.get("encoder");
+        if (codecs == null) {
+            codecs = simulcastVideoEncoderFactoryWrapper.getSupportedCodecs();
+            capabilityCache.put("encoder", codecs);
+        }
+        return codecs;
     }
 }
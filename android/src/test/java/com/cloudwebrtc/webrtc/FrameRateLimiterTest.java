@@ -0,0 +1,59 @@
+package com.cloudwebrtc.webrtc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FrameRateLimiterTest {
+  @Test
+  public void acceptsEveryFrameWithoutALimit() {
+    FrameRateLimiter limiter = new FrameRateLimiter();
+    for (int i = 0; i < 100; i++) {
+      assertTrue(limiter.accept());
+    }
+    limiter.setFps(Float.POSITIVE_INFINITY);
+    assertTrue(limiter.accept());
+    assertTrue(limiter.accept());
+  }
+
+  @Test
+  public void zeroFpsPausesUntilTheLimitIsLifted() {
+    FrameRateLimiter limiter = new FrameRateLimiter();
+    limiter.setFps(0f);
+    assertTrue(limiter.isPaused());
+    assertFalse(limiter.accept());
+
+    limiter.setFps(30f);
+    assertFalse(limiter.isPaused());
+    assertTrue(limiter.accept());
+  }
+
+  @Test
+  public void acceptsOneFramePerPeriod() throws InterruptedException {
+    FrameRateLimiter limiter = new FrameRateLimiter();
+    limiter.setFps(10f);
+    assertTrue(limiter.accept());
+    assertFalse(limiter.accept());
+    Thread.sleep(120);
+    assertTrue(limiter.accept());
+    assertFalse(limiter.accept());
+  }
+
+  @Test
+  public void limitsAFastSourceToTheConfiguredRate() throws InterruptedException {
+    FrameRateLimiter limiter = new FrameRateLimiter();
+    limiter.setFps(20f);
+    int accepted = 0;
+    long end = System.nanoTime() + 500_000_000L;
+    while (System.nanoTime() < end) {
+      if (limiter.accept()) {
+        accepted++;
+      }
+      Thread.sleep(1);
+    }
+    // 500 ms at 20 fps, give or take one frame for timer jitter.
+    assertEquals(10, accepted, 1);
+  }
+}
@@ -0,0 +1,95 @@
+package com.cloudwebrtc.webrtc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class MediaObjectIndexTest {
+  private static final int PEER_CONNECTIONS = 64;
+  private static final int TRACKS_PER_CONNECTION = 8;
+
+  private static String trackId(int peer, int track) {
+    return "track-" + peer + "-" + track;
+  }
+
+  @Test
+  public void keepsOwnersOfTheSameIdApart() {
+    MediaObjectIndex<String> index = new MediaObjectIndex<>();
+    index.put("t", MediaObjectIndex.LOCAL_OWNER, "local");
+    index.put("t", "pc1", "remote");
+
+    assertEquals("local", index.get("t", MediaObjectIndex.LOCAL_OWNER));
+    assertEquals("remote", index.get("t", "pc1"));
+    assertEquals("remote", index.getRemote("t"));
+    assertNull(index.get("t", "pc2"));
+
+    index.remove("t", "pc1");
+    assertNull(index.getRemote("t"));
+    assertTrue(index.contains("t"));
+
+    index.remove("t", MediaObjectIndex.LOCAL_OWNER);
+    assertFalse(index.contains("t"));
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void removeOwnerDropsOnlyThatConnection() {
+    MediaObjectIndex<String> index = new MediaObjectIndex<>();
+    for (int peer = 0; peer < PEER_CONNECTIONS; peer++) {
+      for (int track = 0; track < TRACKS_PER_CONNECTION; track++) {
+        index.put(trackId(peer, track), "pc" + peer, trackId(peer, track));
+      }
+    }
+    assertEquals(PEER_CONNECTIONS * TRACKS_PER_CONNECTION, index.size());
+
+    index.removeOwner("pc3");
+
+    assertEquals((PEER_CONNECTIONS - 1) * TRACKS_PER_CONNECTION, index.size());
+    assertNull(index.getRemote(trackId(3, 0)));
+    assertEquals(trackId(4, 0), index.getRemote(trackId(4, 0)));
+  }
+
+  /**
+   * With {@value #PEER_CONNECTIONS} peer connections the index finds exactly what the
+   * per-connection scan it replaced finds, for hits and for ids that are not indexed at all.
+   */
+  @Test
+  public void agreesWithScanningManyPeerConnections() {
+    MediaObjectIndex<String> index = new MediaObjectIndex<>();
+    Map<String, Map<String, String>> tracksByConnection = new HashMap<>();
+    for (int peer = 0; peer < PEER_CONNECTIONS; peer++) {
+      Map<String, String> tracks = new HashMap<>();
+      for (int track = 0; track < TRACKS_PER_CONNECTION; track++) {
+        index.put(trackId(peer, track), "pc" + peer, trackId(peer, track));
+        tracks.put(trackId(peer, track), trackId(peer, track));
+      }
+      tracksByConnection.put("pc" + peer, tracks);
+    }
+    int hits = 0;
+    for (int i = 0; i < PEER_CONNECTIONS * TRACKS_PER_CONNECTION * 2; i++) {
+      int peer = i % PEER_CONNECTIONS;
+      int track = (i / PEER_CONNECTIONS) % TRACKS_PER_CONNECTION;
+      // Every other query is a miss.
+      String query = i % 2 == 0 ? trackId(peer, track) : "missing-" + i;
+      String scanned = null;
+      for (Map<String, String> tracks : tracksByConnection.values()) {
+        if (tracks.get(query) != null) {
+          scanned = tracks.get(query);
+          break;
+        }
+      }
+      String indexed = index.getRemote(query);
+      assertEquals(scanned, indexed);
+      if (indexed != null) {
+        hits++;
+      }
+    }
+    assertEquals(PEER_CONNECTIONS * TRACKS_PER_CONNECTION, hits);
+  }
+}
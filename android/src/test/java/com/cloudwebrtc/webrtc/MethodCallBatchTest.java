@@ -0,0 +1,203 @@
+package com.cloudwebrtc.webrtc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.cloudwebrtc.webrtc.utils.PluginMetrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.flutter.plugin.common.MethodCall;
+import io.flutter.plugin.common.MethodChannel.Result;
+
+public class MethodCallBatchTest {
+  /** Answers every call synchronously with a canned result and keeps the calls it saw. */
+  private static class FakeStepHandler implements MethodCallBatch.StepHandler {
+    final Map<String, Object> answers = new HashMap<>();
+    final List<MethodCall> calls = new ArrayList<>();
+
+    @Override
+    public void handle(MethodCall call, Result result) {
+      calls.add(call);
+      if (!answers.containsKey(call.method)) {
+        result.error(call.method, call.method + "(): failed", null);
+      } else {
+        result.success(answers.get(call.method));
+      }
+    }
+  }
+
+  private static class RecordingResult implements Result {
+    Object value;
+    String errorMessage;
+    Map<?, ?> errorDetails;
+
+    @Override
+    public void success(@Nullable Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public void error(@NonNull String errorCode, @Nullable String errorMessage,
+                      @Nullable Object errorDetails) {
+      this.errorMessage = errorMessage;
+      this.errorDetails = (Map<?, ?>) errorDetails;
+    }
+
+    @Override
+    public void notImplemented() {
+      this.errorMessage = "notImplemented";
+    }
+  }
+
+  private static Map<String, Object> op(String method, Map<String, Object> arguments) {
+    Map<String, Object> operation = new HashMap<>();
+    operation.put("method", method);
+    operation.put("arguments", arguments);
+    return operation;
+  }
+
+  private static Map<String, Object> ref(int step, @Nullable String path) {
+    Map<String, Object> ref = new HashMap<>();
+    ref.put(MethodCallBatch.REF_KEY, step);
+    if (path != null) {
+      ref.put(MethodCallBatch.PATH_KEY, path);
+    }
+    return ref;
+  }
+
+  private static Map<String, Object> args(Object... keysAndValues) {
+    Map<String, Object> map = new HashMap<>();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      map.put((String) keysAndValues[i], keysAndValues[i + 1]);
+    }
+    return map;
+  }
+
+  @Test
+  public void resolvesReferencesToEarlierResults() {
+    FakeStepHandler handler = new FakeStepHandler();
+    handler.answers.put("createPeerConnection", args("peerConnectionId", "pc1"));
+    handler.answers.put("addTransceiver",
+            args("transceivers", Arrays.asList(args("transceiverId", "t0"))));
+    handler.answers.put("createOffer", args("sdp", "v=0", "type", "offer"));
+    handler.answers.put("setLocalDescription", null);
+    RecordingResult result = new RecordingResult();
+
+    new MethodCallBatch(handler, Arrays.asList(
+            op("createPeerConnection", args()),
+            op("addTransceiver", args("peerConnectionId", ref(0, "peerConnectionId"))),
+            op("createOffer", args("peerConnectionId", ref(0, "peerConnectionId"),
+                    "transceiverId", ref(1, "transceivers.0.transceiverId"))),
+            op("setLocalDescription", args("peerConnectionId", ref(0, "peerConnectionId"),
+                    "description", ref(2, null)))
+    ), result, null).start();
+
+    assertNull(result.errorMessage);
+    assertEquals(4, handler.calls.size());
+    assertEquals("pc1", handler.calls.get(1).argument("peerConnectionId"));
+    assertEquals("t0", handler.calls.get(2).argument("transceiverId"));
+    assertEquals(args("sdp", "v=0", "type", "offer"),
+            handler.calls.get(3).argument("description"));
+    List<?> results = (List<?>) ((Map<?, ?>) result.value).get("results");
+    assertEquals(4, results.size());
+    assertEquals(args("peerConnectionId", "pc1"), results.get(0));
+    assertNull(results.get(3));
+  }
+
+  @Test
+  public void resolvesReferencesNestedInListsAndMaps() {
+    FakeStepHandler handler = new FakeStepHandler();
+    handler.answers.put("first", "value");
+    handler.answers.put("second", null);
+    RecordingResult result = new RecordingResult();
+
+    new MethodCallBatch(handler, Arrays.asList(
+            op("first", null),
+            op("second", args("list", Arrays.asList(ref(0, null), "plain"),
+                    "map", args("inner", ref(0, ""))))
+    ), result, null).start();
+
+    assertNull(result.errorMessage);
+    MethodCall second = handler.calls.get(1);
+    assertEquals(Arrays.asList("value", "plain"), second.argument("list"));
+    assertEquals(args("inner", "value"), second.argument("map"));
+  }
+
+  @Test
+  public void referenceToLaterStepFails() {
+    FakeStepHandler handler = new FakeStepHandler();
+    handler.answers.put("first", "value");
+    RecordingResult result = new RecordingResult();
+
+    new MethodCallBatch(handler, Arrays.asList(
+            op("first", args("self", ref(0, null)))
+    ), result, null).start();
+
+    assertTrue(handler.calls.isEmpty());
+    assertEquals(0, result.errorDetails.get("failedIndex"));
+    assertTrue(result.errorMessage.contains("has not run"));
+  }
+
+  @Test
+  public void failingStepAbortsBatch() {
+    FakeStepHandler handler = new FakeStepHandler();
+    handler.answers.put("first", "value");
+    handler.answers.put("third", "value");
+    RecordingResult result = new RecordingResult();
+
+    new MethodCallBatch(handler, Arrays.asList(
+            op("first", null),
+            op("second", null),
+            op("third", null)
+    ), result, null).start();
+
+    assertEquals(2, handler.calls.size());
+    assertEquals(1, result.errorDetails.get("failedIndex"));
+    assertEquals(Collections.singletonList("value"), result.errorDetails.get("results"));
+    assertTrue(result.errorMessage.contains("step 1 (second)"));
+  }
+
+  @Test
+  public void rejectsMethodsAnsweredBeforeDispatch() {
+    for (String method : MethodCallBatch.UNBATCHABLE_METHODS) {
+      FakeStepHandler handler = new FakeStepHandler();
+      RecordingResult result = new RecordingResult();
+
+      new MethodCallBatch(handler, Collections.singletonList(op(method, null)), result, null)
+              .start();
+
+      assertTrue(handler.calls.isEmpty());
+      assertTrue(result.errorMessage.contains(method + " cannot run inside executeBatch"));
+    }
+  }
+
+  @Test
+  public void recordsEveryStepInMetrics() {
+    FakeStepHandler handler = new FakeStepHandler();
+    handler.answers.put("first", "value");
+    PluginMetrics metrics = new PluginMetrics();
+
+    new MethodCallBatch(handler, Arrays.asList(
+            op("first", null),
+            op("first", null),
+            op("second", null)
+    ), new RecordingResult(), metrics).start();
+
+    Map<?, ?> methods = (Map<?, ?>) metrics.toMap().get("methods");
+    assertEquals(2L, ((Map<?, ?>) methods.get("first")).get("count"));
+    assertEquals(0L, ((Map<?, ?>) methods.get("first")).get("errors"));
+    assertEquals(1L, ((Map<?, ?>) methods.get("second")).get("errors"));
+  }
+}
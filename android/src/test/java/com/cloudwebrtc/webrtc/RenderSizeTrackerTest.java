@@ -0,0 +1,79 @@
+package com.cloudwebrtc.webrtc;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RenderSizeTrackerTest {
+  private final List<String> events = new ArrayList<>();
+  private RenderSizeTracker tracker;
+
+  @Before
+  public void setUp() {
+    events.clear();
+    tracker = new RenderSizeTracker((ownerTag, trackId, width, height) ->
+            events.add(ownerTag + "/" + trackId + " " + width + "x" + height));
+  }
+
+  @Test
+  public void reportsTheLargestSizeOfAllRenderers() {
+    tracker.update(1, "pc1", "t", 320, 180);
+    tracker.update(2, "pc1", "t", 1280, 720);
+    tracker.update(3, "pc1", "t", 640, 360);
+
+    assertEquals(2, events.size());
+    assertEquals("pc1/t 320x180", events.get(0));
+    assertEquals("pc1/t 1280x720", events.get(1));
+
+    tracker.remove(2);
+    assertEquals("pc1/t 640x360", events.get(2));
+    tracker.remove(3);
+    assertEquals("pc1/t 320x180", events.get(3));
+    tracker.remove(1);
+    assertEquals("pc1/t 0x0", events.get(4));
+    assertEquals(5, events.size());
+  }
+
+  @Test
+  public void doesNotRepeatAnUnchangedSize() {
+    tracker.update(1, "pc1", "t", 640, 360);
+    tracker.update(1, "pc1", "t", 640, 360);
+    tracker.update(2, "pc1", "t", 320, 180);
+
+    assertEquals(1, events.size());
+  }
+
+  @Test
+  public void keepsTracksOfDifferentConnectionsApart() {
+    tracker.update(1, "pc1", "t", 640, 360);
+    tracker.update(2, "pc2", "t", 320, 180);
+
+    assertEquals(2, events.size());
+    assertEquals("pc1/t 640x360", events.get(0));
+    assertEquals("pc2/t 320x180", events.get(1));
+  }
+
+  @Test
+  public void movingARendererUpdatesBothTracks() {
+    tracker.update(1, "pc1", "a", 640, 360);
+    tracker.update(1, "pc1", "b", 640, 360);
+
+    assertEquals(3, events.size());
+    assertEquals("pc1/b 640x360", events.get(1));
+    assertEquals("pc1/a 0x0", events.get(2));
+  }
+
+  @Test
+  public void ignoresLocalAndUnknownTracks() {
+    tracker.update(1, MediaObjectIndex.LOCAL_OWNER, "t", 640, 360);
+    tracker.update(2, null, "t", 640, 360);
+    tracker.update(3, "pc1", null, 640, 360);
+    tracker.remove(4);
+
+    assertEquals(0, events.size());
+  }
+}
@@ -0,0 +1,83 @@
+package com.cloudwebrtc.webrtc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+public class RendererMetricsTest {
+  private static final long THRESHOLD_MS = 50;
+
+  @Test
+  public void noFreezeBeforeTheFirstFrame() throws InterruptedException {
+    RendererMetrics metrics = new RendererMetrics(true);
+    Thread.sleep(THRESHOLD_MS * 2);
+    assertNull(metrics.checkFreeze(THRESHOLD_MS, true));
+  }
+
+  @Test
+  public void freezesAndRecoversOnTheNextFrame() throws InterruptedException {
+    RendererMetrics metrics = new RendererMetrics(true);
+    metrics.onFrameRendered(System.nanoTime());
+    assertNull(metrics.checkFreeze(THRESHOLD_MS, true));
+
+    Thread.sleep(THRESHOLD_MS * 2);
+    assertEquals(Boolean.TRUE, metrics.checkFreeze(THRESHOLD_MS, true));
+    assertNull(metrics.checkFreeze(THRESHOLD_MS, true));
+
+    metrics.onFrameRendered(System.nanoTime());
+    assertEquals(Boolean.FALSE, metrics.checkFreeze(THRESHOLD_MS, true));
+    assertTrue(metrics.lastFreezeMs() >= THRESHOLD_MS * 2);
+
+    Map<String, Object> map = metrics.toMap().toMap();
+    assertEquals(false, map.get("frozen"));
+    assertEquals(1L, map.get("freezeCount"));
+    assertTrue((double) map.get("totalFreezeMs") >= THRESHOLD_MS * 2);
+  }
+
+  @Test
+  public void noFreezeWhileNoFramesAreExpected() throws InterruptedException {
+    RendererMetrics metrics = new RendererMetrics(true);
+    metrics.onFrameRendered(System.nanoTime());
+    Thread.sleep(THRESHOLD_MS * 2);
+    assertNull(metrics.checkFreeze(THRESHOLD_MS, false));
+  }
+
+  @Test
+  public void freezeEndsWhenFramesAreNoLongerExpected() throws InterruptedException {
+    RendererMetrics metrics = new RendererMetrics(true);
+    metrics.onFrameRendered(System.nanoTime());
+    Thread.sleep(THRESHOLD_MS * 2);
+    assertEquals(Boolean.TRUE, metrics.checkFreeze(THRESHOLD_MS, true));
+    assertEquals(Boolean.FALSE, metrics.checkFreeze(THRESHOLD_MS, false));
+    assertNull(metrics.checkFreeze(THRESHOLD_MS, false));
+  }
+
+  @Test
+  public void resetStartsOverAfterASourceSwitch() throws InterruptedException {
+    RendererMetrics metrics = new RendererMetrics(true);
+    metrics.onFrameRendered(System.nanoTime());
+    Thread.sleep(THRESHOLD_MS * 2);
+    metrics.resetFreeze();
+    assertNull(metrics.checkFreeze(THRESHOLD_MS, true));
+  }
+
+  @Test
+  public void derivesBackPressureDropsFromTheOtherCounters() {
+    RendererMetrics metrics = new RendererMetrics(false);
+    for (int i = 0; i < 10; i++) {
+      metrics.onFrameReceived();
+    }
+    metrics.onFrameDroppedByFpsReduction();
+    metrics.onDrawSavedByPacing();
+    for (int i = 0; i < 5; i++) {
+      metrics.onFrameRendered(System.nanoTime());
+    }
+    // One frame may still be waiting to be drawn.
+    assertEquals(2L, metrics.toMap().toMap().get("framesDroppedByBackPressure"));
+  }
+}
@@ -0,0 +1,70 @@
+package com.cloudwebrtc.webrtc.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class IdAllocatorTest {
+    private static String prefixOf(String id) {
+        return id.substring(0, id.indexOf('-') + 1);
+    }
+
+    private static long counterOf(String id) {
+        return Long.parseLong(id.substring(id.indexOf('-') + 1), 36);
+    }
+
+    @Test
+    public void idsShareOnePrefixAndCountUp() {
+        String first = IdAllocator.next();
+        String second = IdAllocator.next();
+
+        assertTrue(first.matches("[0-9a-f]+-[0-9a-z]+"));
+        assertEquals(prefixOf(first), prefixOf(second));
+        assertTrue(counterOf(second) > counterOf(first));
+    }
+
+    @Test
+    public void idsAreUniqueAcrossThreads() throws InterruptedException {
+        final int threads = 8;
+        final int idsPerThread = 20000;
+        final Set<String> ids = ConcurrentHashMap.newKeySet();
+        final String prefix = prefixOf(IdAllocator.next());
+        // Assertions in the workers would not fail the test, so they count violations instead.
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        final AtomicInteger otherPrefix = new AtomicInteger();
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                long last = 0;
+                for (int i = 0; i < idsPerThread; i++) {
+                    String id = IdAllocator.next();
+                    ids.add(id);
+                    // Within one thread the counter only grows.
+                    long counter = counterOf(id);
+                    if (counter <= last) {
+                        outOfOrder.incrementAndGet();
+                    }
+                    if (!prefix.equals(prefixOf(id))) {
+                        otherPrefix.incrementAndGet();
+                    }
+                    last = counter;
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        assertEquals(threads * idsPerThread, ids.size());
+        assertEquals(0, outOfOrder.get());
+        assertEquals(0, otherPrefix.get());
+    }
+}
@@ -3,6 +3,7 @@ library flutter_webrtc;
 export 'package:webrtc_interface/webrtc_interface.dart'
     hide MediaDevices, MediaRecorder, Navigator;
 
+export 'src/batch_operation.dart';
 export 'src/helper.dart';
 export 'src/desktop_capturer.dart';
 export 'src/media_devices.dart';
@@ -15,7 +16,11 @@ export 'src/native/rtc_video_view_impl.dart'
     if (dart.library.html) 'src/web/rtc_video_view_impl.dart';
 export 'src/native/utils.dart' if (dart.library.html) 'src/web/utils.dart';
 export 'src/native/adapter_type.dart';
+export 'src/native/rtc_peerconnection_snapshot.dart';
+export 'src/native/rtc_transceiver_change.dart';
 export 'src/native/android/audio_configuration.dart';
 export 'src/native/ios/audio_configuration.dart';
 export 'src/native/rtc_video_platform_view_controller.dart';
 export 'src/native/rtc_video_platform_view.dart';
+export 'src/native/rtc_video_renderer_group.dart';
+export 'src/native/rtc_composite_video_renderer.dart';
@@ -0,0 +1,39 @@
+import 'package:webrtc_interface/webrtc_interface.dart';
+
+/// A single step of [Helper.executeBatch].
+///
+/// [arguments] may contain [BatchOperation.ref] placeholders which the
+/// platform replaces with the result of an earlier step before running this
+/// one.
+class BatchOperation {
+  BatchOperation(this.method, [this.arguments]);
+
+  final String method;
+  final Map<String, dynamic>? arguments;
+
+  /// Placeholder for the result of step [step], optionally narrowed by a dot
+  /// separated [path] of map keys and list indexes, e.g.
+  /// `BatchOperation.ref(0, 'peerConnectionId')` or
+  /// `BatchOperation.ref(4, 'transceivers.0.transceiverId')`.
+  static Map<String, dynamic> ref(int step, [String? path]) =>
+      <String, dynamic>{
+        '\$ref': step,
+        if (path != null) 'path': path,
+      };
+
+  Map<String, dynamic> toMap() => <String, dynamic>{
+        'method': method,
+        'arguments': arguments,
+      };
+}
+
+/// Result of [Helper.createPeerConnectionBatch].
+class PeerConnectionBatchResult {
+  PeerConnectionBatchResult(this.peerConnection, this.results);
+
+  /// The connection created by the first step.
+  final RTCPeerConnection peerConnection;
+
+  /// Results of the operations that followed, in order.
+  final List<dynamic> results;
+}
@@ -1,7 +1,10 @@
 import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
 
 import '../flutter_webrtc.dart';
 import 'native/audio_management.dart';
+import 'native/factory_impl.dart';
+import 'native/rtc_peerconnection_impl.dart';
 
 class Helper {
   static Future<List<MediaDeviceInfo>> enumerateDevices(String type) async {
@@ -171,4 +174,287 @@ class Helper {
       throw Exception('requestCapturePermission only support for Android');
     }
   }
+
+  /// Returns per-method latency histograms of the Android plugin, measured
+  /// from call entry until the result is delivered.
+  ///
+  /// The result has the shape
+  /// `{'bucketBoundsMs': [1, 2, 5, ...], 'methods': {name: {'count', 'errors',
+  /// 'totalMs', 'maxMs', 'buckets'}}}`, where `buckets` holds one more
+  /// (open-ended) entry than `bucketBoundsMs`.
+  /// Pass [reset] to clear the collected data after reading it.
+  static Future<Map<String, dynamic>> getPluginMetrics(
+      {bool reset = false}) async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod(
+          'getPluginMetrics', <String, dynamic>{'reset': reset});
+      return Map<String, dynamic>.from(response);
+    } else {
+      throw Exception('getPluginMetrics only support for Android');
+    }
+  }
+
+  /// Enables or disables the Android main-thread stall watchdog.
+  ///
+  /// While enabled, plugin work running on the main thread (method calls,
+  /// results and events) that takes longer than [thresholdMs] (default 50)
+  /// is recorded together with a stack sample, see [getMainThreadStalls].
+  static Future<void> setMainThreadWatchdog(
+      {required bool enabled, int? thresholdMs}) async {
+    if (WebRTC.platformIsAndroid) {
+      await WebRTC.invokeMethod('setMainThreadWatchdog', <String, dynamic>{
+        'enabled': enabled,
+        if (thresholdMs != null) 'thresholdMs': thresholdMs,
+      });
+    } else {
+      throw Exception('setMainThreadWatchdog only support for Android');
+    }
+  }
+
+  /// Returns the most recent main-thread stalls, oldest first. Each entry is
+  /// `{'method', 'timestamp', 'queuedMs', 'durationMs', 'stack'}`.
+  /// Pass [clear] to empty the buffer after reading it.
+  static Future<List<Map<String, dynamic>>> getMainThreadStalls(
+      {bool clear = false}) async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod(
+          'getMainThreadStalls', <String, dynamic>{'clear': clear});
+      return (response['stalls'] as List)
+          .map((e) => Map<String, dynamic>.from(e))
+          .toList();
+    } else {
+      throw Exception('getMainThreadStalls only support for Android');
+    }
+  }
+
+  /// Returns the signaling/ICE/connection states, local and remote
+  /// descriptions and senders/receivers/transceivers of [peerConnection] in a
+  /// single platform call. When [previous] is given, sections that did not
+  /// change since are not re-sent and are reused from it.
+  static Future<RTCPeerConnectionSnapshot> getPeerConnectionSnapshot(
+      RTCPeerConnection peerConnection,
+      {RTCPeerConnectionSnapshot? previous}) async {
+    if (WebRTC.platformIsAndroid) {
+      return (peerConnection as RTCPeerConnectionNative)
+          .getSnapshot(previous: previous);
+    } else {
+      throw Exception('getPeerConnectionSnapshot only support for Android');
+    }
+  }
+
+  /// Sets the handler of `transceiverChanged` events of [peerConnection].
+  /// After each negotiation step the platform reports only the transceivers
+  /// whose mid, direction or send encodings changed, so there is no need to
+  /// call `getTransceivers` again.
+  static void setTransceiverChangedHandler(RTCPeerConnection peerConnection,
+      void Function(List<RTCTransceiverChange> changes)? handler) {
+    if (WebRTC.platformIsAndroid) {
+      (peerConnection as RTCPeerConnectionNative).onTransceiverChanged =
+          handler;
+    } else {
+      throw Exception('setTransceiverChangedHandler only support for Android');
+    }
+  }
+
+  /// Suspends remote video tracks that no renderer or recorder has used for
+  /// [grace], and resumes them when one is attached again.
+  ///
+  /// With [mode] `'direction'` the receiving transceiver drops its receive
+  /// direction, which stops reception and decoding but triggers
+  /// `onRenegotiationNeeded`; the app must renegotiate as usual. With
+  /// `'disableTrack'` the track is only disabled, which needs no
+  /// renegotiation but keeps decoding. Transitions are reported through
+  /// `RTCPeerConnectionNative.onRemoteTrackSuspensionChanged`. The track
+  /// removal and re-addition caused by the `'direction'` renegotiations are
+  /// not reported as `onRemoveTrack` or `onTrack`; the track stays usable.
+  static Future<Map<String, dynamic>> setRemoteTrackSuspension(
+      {required bool enabled,
+      Duration grace = const Duration(seconds: 3),
+      String mode = 'direction'}) async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod(
+          'setRemoteTrackSuspension', <String, dynamic>{
+        'enabled': enabled,
+        'graceMs': grace.inMilliseconds,
+        'mode': mode,
+      });
+      return Map<String, dynamic>.from(response);
+    } else {
+      throw Exception('setRemoteTrackSuspension only support for Android');
+    }
+  }
+
+  /// Tears down all peer connections, camera capturers, local streams and
+  /// local tracks, including tracks removed from their stream, in one call,
+  /// e.g. when leaving a room. Peer connections and capturers are released
+  /// in parallel after renderers are detached. Dart-side objects for them
+  /// must not be used afterwards.
+  ///
+  /// Returns `{'totalMs', 'peerConnections', 'capturers', 'streams',
+  /// 'timedOut', 'phases': {'renderersMs', 'peerConnectionsMs',
+  /// 'capturersMs', 'streamsMs'}}`.
+  ///
+  /// If peer connections or capturers are not released within 5 seconds,
+  /// the later phases are skipped and a [PlatformException] is thrown with
+  /// this report as details. Calling [disposeAll] again waits for them and
+  /// finishes the teardown.
+  static Future<Map<String, dynamic>> disposeAll() async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod('disposeAll');
+      return Map<String, dynamic>.from(response);
+    } else {
+      throw Exception('disposeAll only support for Android');
+    }
+  }
+
+  /// Runs [operations] natively back to back in a single platform call and
+  /// returns the result of every step, in order.
+  ///
+  /// Arguments of later steps can refer to results of earlier ones with
+  /// [BatchOperation.ref], which saves a platform channel round trip per
+  /// step, e.g. for `createPeerConnection`, `addTransceiver`, `createOffer`
+  /// and `setLocalDescription` during call setup. The first failing step
+  /// aborts the batch with a [PlatformException] whose details contain
+  /// `failedIndex` and the `results` of the steps that completed.
+  ///
+  /// `executeBatch`, `getPluginMetrics`, `setMainThreadWatchdog` and
+  /// `getMainThreadStalls` cannot be batched and fail their step.
+  ///
+  /// Use [createPeerConnectionBatch] to set up a new connection, so that
+  /// its events are delivered and a [RTCPeerConnection] is returned for it.
+  static Future<List<dynamic>> executeBatch(
+      List<BatchOperation> operations) async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod(
+          'executeBatch', <String, dynamic>{
+        'operations': operations.map((e) => e.toMap()).toList(),
+      });
+      return List<dynamic>.from(response['results']);
+    } else {
+      throw Exception('executeBatch only support for Android');
+    }
+  }
+
+  /// Creates a peer connection for [configuration] and [constraints] and
+  /// runs [operations] on it in the same platform call, e.g. `addTransceiver`,
+  /// `createOffer` and `setLocalDescription`.
+  ///
+  /// The connection is step 0, so [operations] refer to it with
+  /// `BatchOperation.ref(0, 'peerConnectionId')` and the first operation is
+  /// step 1. Events the connection emits during the batch, such as ICE
+  /// candidates and state changes, are delivered once the returned
+  /// connection has subscribed. If an operation fails the connection is
+  /// closed and the [PlatformException] rethrown.
+  static Future<PeerConnectionBatchResult> createPeerConnectionBatch(
+      Map<String, dynamic> configuration, List<BatchOperation> operations,
+      {Map<String, dynamic> constraints = const {}}) async {
+    if (!WebRTC.platformIsAndroid) {
+      throw Exception('createPeerConnectionBatch only support for Android');
+    }
+    final create = BatchOperation('createPeerConnection', <String, dynamic>{
+      'configuration': configuration,
+      'constraints': constraints.isEmpty
+          ? RTCFactoryNative.defaultConstraints
+          : constraints,
+    });
+    try {
+      final results = await executeBatch([create, ...operations]);
+      final peerConnection = RTCPeerConnectionNative(
+          results[0]['peerConnectionId'], configuration);
+      return PeerConnectionBatchResult(peerConnection, results.sublist(1));
+    } on PlatformException catch (e) {
+      final details = e.details;
+      if (details is Map && details['failedIndex'] != 0) {
+        final created = List<dynamic>.from(details['results'])[0];
+        final peerConnection = RTCPeerConnectionNative(
+            created['peerConnectionId'], configuration);
+        await peerConnection.close();
+        await peerConnection.dispose();
+      }
+      rethrow;
+    }
+  }
+
+  /// Keeps [count] peer connections for [configuration] and [constraints]
+  /// created in advance, e.g. while the user is still in a lobby, and
+  /// returns the pool statistics.
+  ///
+  /// Pooled connections start gathering ICE candidates immediately (an
+  /// `iceCandidatePoolSize` of 1 is used if [configuration] sets none).
+  /// [createPeerConnection] with the same configuration and constraints then
+  /// returns a pooled connection at once and the pool is refilled in the
+  /// background. Idle connections older than [maxAge] are discarded.
+  /// A [count] of 0 releases the pool for this configuration.
+  static Future<Map<String, dynamic>> prewarmPeerConnections(
+      Map<String, dynamic> configuration,
+      {Map<String, dynamic> constraints = const {},
+      int count = 1,
+      Duration maxAge = const Duration(minutes: 5)}) async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod(
+          'prewarmPeerConnections', <String, dynamic>{
+        'configuration': configuration,
+        'constraints': constraints.isEmpty
+            ? RTCFactoryNative.defaultConstraints
+            : constraints,
+        'count': count,
+        'maxAgeMs': maxAge.inMilliseconds,
+      });
+      return Map<String, dynamic>.from(response);
+    } else {
+      throw Exception('prewarmPeerConnections only support for Android');
+    }
+  }
+
+  /// Makes renderers created afterwards draw on [threads] shared render
+  /// threads, each with a single EGL context switching between the renderers'
+  /// surfaces, instead of one render thread and EGL context per renderer.
+  /// Useful for large galleries. Existing renderers keep their mode.
+  static Future<void> setSharedVideoRendering(
+      {required bool enabled, int threads = 1}) async {
+    if (WebRTC.platformIsAndroid) {
+      await WebRTC.invokeMethod('setSharedVideoRendering', <String, dynamic>{
+        'enabled': enabled,
+        'threads': threads,
+      });
+    } else {
+      throw Exception('setSharedVideoRendering only support for Android');
+    }
+  }
+
+  /// Renderers allocate their EGL resources when a track is first attached
+  /// and free them once no track was attached for [idle] (5 seconds by
+  /// default); the texture id stays the same. Null keeps them until the
+  /// renderer is disposed. Applies to existing renderers too.
+  static Future<void> setVideoRendererIdleRelease(Duration? idle) async {
+    if (WebRTC.platformIsAndroid) {
+      await WebRTC.invokeMethod(
+          'setVideoRendererIdleRelease', <String, dynamic>{
+        'idleMs': idle?.inMilliseconds,
+      });
+    } else {
+      throw Exception('setVideoRendererIdleRelease only support for Android');
+    }
+  }
+
+  /// Returns `{'shared', 'renderers', 'maxThreads', 'threads': [{'name',
+  /// 'renderers', 'framesDrawn', 'framesDropped', 'averageDrawMs',
+  /// 'maxDrawMs'}]}` for the shared render threads.
+  static Future<Map<String, dynamic>> getVideoRenderingStats() async {
+    if (WebRTC.platformIsAndroid) {
+      final response = await WebRTC.invokeMethod('getVideoRenderingStats');
+      return Map<String, dynamic>.from(response);
+    } else {
+      throw Exception('getVideoRenderingStats only support for Android');
+    }
+  }
+
+  /// Releases every prewarmed peer connection.
+  static Future<void> clearPeerConnectionPool() async {
+    if (WebRTC.platformIsAndroid) {
+      await WebRTC.invokeMethod('clearPeerConnectionPool');
+    } else {
+      throw Exception('clearPeerConnectionPool only support for Android');
+    }
+  }
 }
@@ -0,0 +1,133 @@
+import 'package:flutter/foundation.dart';
+import 'package:flutter/services.dart';
+
+/// Kinds of [StateChangedEvent], must match `EventCodec.KIND_*` on Android.
+enum StateChangedKind {
+  signaling,
+  iceGathering,
+  iceConnection,
+  peerConnection,
+  dataChannel,
+}
+
+/// Decoded `onCandidate` event.
+class IceCandidateEvent {
+  IceCandidateEvent(this.sdpMid, this.sdpMLineIndex, this.candidate);
+  final String? sdpMid;
+  final int sdpMLineIndex;
+  final String? candidate;
+}
+
+/// Decoded signaling, ice, peer connection and data channel state events.
+/// [id] is the data channel id for [StateChangedKind.dataChannel].
+class StateChangedEvent {
+  StateChangedEvent(this.kind, this.id, this.state);
+  final StateChangedKind kind;
+  final int id;
+  final String state;
+}
+
+/// Decoded `dataChannelBufferedAmountChange` event.
+class BufferedAmountChangedEvent {
+  BufferedAmountChangedEvent(this.id, this.bufferedAmount, this.changedAmount);
+  final int id;
+  final int bufferedAmount;
+  final int changedAmount;
+}
+
+/// Decoded `didTextureChangeVideoSize` event.
+class VideoSizeChangedEvent {
+  VideoSizeChangedEvent(this.textureId, this.width, this.height);
+  final int textureId;
+  final int width;
+  final int height;
+}
+
+/// Decoded `didTextureChangeRotation` event.
+class RotationChangedEvent {
+  RotationChangedEvent(this.textureId, this.rotation);
+  final int textureId;
+  final int rotation;
+}
+
+/// Message codec for the plugin event channels.
+///
+/// Hot-path events are sent by the platform as compact typed records and
+/// decoded straight into the classes above. Everything else, including all
+/// events from platforms that still send maps, goes through
+/// [StandardMessageCodec] unchanged.
+class FlutterWebRTCEventCodec extends StandardMessageCodec {
+  const FlutterWebRTCEventCodec();
+
+  static const MethodCodec methodCodec =
+      StandardMethodCodec(FlutterWebRTCEventCodec());
+
+  static const int _iceCandidate = 128;
+  static const int _stateChanged = 129;
+  static const int _bufferedAmountChanged = 130;
+  static const int _videoSizeChanged = 131;
+  static const int _rotationChanged = 132;
+
+  @override
+  void writeValue(WriteBuffer buffer, Object? value) {
+    if (value is IceCandidateEvent) {
+      buffer.putUint8(_iceCandidate);
+      writeValue(buffer, value.sdpMid);
+      buffer.putInt32(value.sdpMLineIndex);
+      writeValue(buffer, value.candidate);
+    } else if (value is StateChangedEvent) {
+      buffer.putUint8(_stateChanged);
+      buffer.putUint8(value.kind.index);
+      buffer.putInt32(value.id);
+      writeValue(buffer, value.state);
+    } else if (value is BufferedAmountChangedEvent) {
+      buffer.putUint8(_bufferedAmountChanged);
+      buffer.putInt32(value.id);
+      buffer.putInt64(value.bufferedAmount);
+      buffer.putInt64(value.changedAmount);
+    } else if (value is VideoSizeChangedEvent) {
+      buffer.putUint8(_videoSizeChanged);
+      buffer.putInt32(value.textureId);
+      buffer.putInt32(value.width);
+      buffer.putInt32(value.height);
+    } else if (value is RotationChangedEvent) {
+      buffer.putUint8(_rotationChanged);
+      buffer.putInt32(value.textureId);
+      buffer.putInt32(value.rotation);
+    } else {
+      super.writeValue(buffer, value);
+    }
+  }
+
+  @override
+  Object? readValueOfType(int type, ReadBuffer buffer) {
+    switch (type) {
+      case _iceCandidate:
+        final sdpMid = readValue(buffer) as String?;
+        final sdpMLineIndex = buffer.getInt32();
+        final candidate = readValue(buffer) as String?;
+        return IceCandidateEvent(sdpMid, sdpMLineIndex, candidate);
+      case _stateChanged:
+        final kind = StateChangedKind.values[buffer.getUint8()];
+        final id = buffer.getInt32();
+        final state = readValue(buffer) as String;
+        return StateChangedEvent(kind, id, state);
+      case _bufferedAmountChanged:
+        final id = buffer.getInt32();
+        final bufferedAmount = buffer.getInt64();
+        final changedAmount = buffer.getInt64();
+        return BufferedAmountChangedEvent(id, bufferedAmount, changedAmount);
+      case _videoSizeChanged:
+        final textureId = buffer.getInt32();
+        final width = buffer.getInt32();
+        final height = buffer.getInt32();
+        return VideoSizeChangedEvent(textureId, width, height);
+      case _rotationChanged:
+        final textureId = buffer.getInt32();
+        final rotation = buffer.getInt32();
+        return RotationChangedEvent(textureId, rotation);
+      default:
+        return super.readValueOfType(type, buffer);
+    }
+  }
+}
@@ -18,6 +18,14 @@ class RTCFactoryNative extends RTCFactory {
 
   static final RTCFactory instance = RTCFactoryNative._internal();
 
+  /// Constraints sent by [createPeerConnection] when none are given.
+  static const Map<String, dynamic> defaultConstraints = <String, dynamic>{
+    'mandatory': <String, dynamic>{},
+    'optional': [
+      {'DtlsSrtpKeyAgreement': true},
+    ],
+  };
+
   @override
   Future<MediaStream> createLocalMediaStream(String label) async {
     final response = await WebRTC.invokeMethod('createLocalMediaStream');
@@ -31,13 +39,6 @@ class RTCFactoryNative extends RTCFactory {
   Future<RTCPeerConnection> createPeerConnection(
       Map<String, dynamic> configuration,
       [Map<String, dynamic> constraints = const {}]) async {
-    var defaultConstraints = <String, dynamic>{
-      'mandatory': {},
-      'optional': [
-        {'DtlsSrtpKeyAgreement': true},
-      ],
-    };
-
     final response = await WebRTC.invokeMethod(
       'createPeerConnection',
       <String, dynamic>{
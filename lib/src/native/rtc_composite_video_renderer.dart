@@ -0,0 +1,110 @@
+import 'dart:async';
+
+import 'package:flutter/services.dart';
+
+import 'package:webrtc_interface/webrtc_interface.dart';
+
+import 'event_codec.dart';
+import 'media_stream_track_impl.dart';
+import 'utils.dart';
+
+/// One tile of an [RTCCompositeVideoRenderer].
+class RTCCompositeTile {
+  RTCCompositeTile(this.track, {this.maxFps, this.mirror = false});
+
+  final MediaStreamTrack track;
+
+  /// Frame rate cap of this tile, null for none.
+  final double? maxFps;
+  final bool mirror;
+
+  Map<String, dynamic> toMap() => <String, dynamic>{
+        'trackId': track.id,
+        'ownerTag': track is MediaStreamTrackNative
+            ? (track as MediaStreamTrackNative).peerConnectionId
+            : 'local',
+        'maxFps': maxFps,
+        'mirror': mirror,
+      };
+}
+
+/// Android only: draws many video tracks as the tiles of a grid into one
+/// texture, so Flutter composites a single texture for a whole gallery
+/// instead of one per participant. Show it with `Texture(textureId: ...)`.
+class RTCCompositeVideoRenderer {
+  int? _textureId;
+  StreamSubscription<dynamic>? _eventSubscription;
+
+  int? get textureId => _textureId;
+
+  /// Called with the track id, size and rotation of a tile's frames when its
+  /// first frame arrives and whenever they change.
+  void Function(String trackId, int width, int height, int rotation)?
+      onTileResolution;
+
+  Future<void> initialize() async {
+    if (_textureId != null) {
+      return;
+    }
+    if (!WebRTC.platformIsAndroid) {
+      throw Exception('RTCCompositeVideoRenderer only support for Android');
+    }
+    final response =
+        await WebRTC.invokeMethod('createCompositeVideoRenderer', {});
+    _textureId = response['textureId'];
+    _eventSubscription = EventChannel('FlutterWebRTC/Texture$_textureId',
+            FlutterWebRTCEventCodec.methodCodec)
+        .receiveBroadcastStream()
+        .listen(_eventListener);
+  }
+
+  /// Shows [tiles] in order in a grid of [columns] columns (null for a
+  /// square-ish grid) on a [width]x[height] texture in physical pixels, with
+  /// [gap] pixels between tiles. With [objectFit] `cover` frames are cropped
+  /// to their tile, with `contain` they are letterboxed. Can be called again
+  /// at any time, e.g. when participants join or leave.
+  Future<void> setLayout(
+    List<RTCCompositeTile> tiles, {
+    int? columns,
+    required int width,
+    required int height,
+    int gap = 0,
+    RTCVideoViewObjectFit objectFit =
+        RTCVideoViewObjectFit.RTCVideoViewObjectFitCover,
+  }) async {
+    if (_textureId == null) throw 'Call initialize before setting the layout';
+    final contain =
+        objectFit == RTCVideoViewObjectFit.RTCVideoViewObjectFitContain;
+    await WebRTC.invokeMethod(
+        'compositeVideoRendererSetLayout', <String, dynamic>{
+      'textureId': _textureId,
+      'tiles': tiles.map((tile) => tile.toMap()).toList(),
+      'columns': columns,
+      'width': width,
+      'height': height,
+      'gap': gap,
+      'objectFit': contain ? 'contain' : 'cover',
+    });
+  }
+
+  Future<void> dispose() async {
+    await _eventSubscription?.cancel();
+    _eventSubscription = null;
+    if (_textureId == null) return;
+    try {
+      await WebRTC.invokeMethod('compositeVideoRendererDispose',
+          <String, dynamic>{'textureId': _textureId});
+      _textureId = null;
+    } on PlatformException catch (e) {
+      throw 'Failed to RTCCompositeVideoRenderer::dispose: ${e.message}';
+    }
+  }
+
+  void _eventListener(dynamic event) {
+    if (event is! Map) return;
+    if (event['event'] == 'didChangeTileResolution') {
+      onTileResolution?.call(event['trackId'], event['width'],
+          event['height'], event['rotation']);
+    }
+  }
+}
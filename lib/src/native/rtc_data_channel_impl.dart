@@ -4,6 +4,7 @@ import 'package:flutter/services.dart';
 
 import 'package:webrtc_interface/webrtc_interface.dart';
 
+import 'event_codec.dart';
 import 'utils.dart';
 
 final _typeStringToMessageType = <String, MessageType>{
@@ -60,14 +61,19 @@ class RTCDataChannelNative extends RTCDataChannel {
 
   /// RTCDataChannel event listener.
   void eventListener(dynamic event) {
+    if (event is StateChangedEvent) {
+      _handleStateChanged(event.id, event.state);
+      return;
+    }
+    if (event is BufferedAmountChangedEvent) {
+      _handleBufferedAmountChange(event.bufferedAmount, event.changedAmount);
+      return;
+    }
+
     final Map<dynamic, dynamic> map = event;
     switch (map['event']) {
       case 'dataChannelStateChanged':
-        _dataChannelId = map['id'];
-        _state = rtcDataChannelStateForString(map['state']);
-        onDataChannelState?.call(_state!);
-
-        _stateChangeController.add(_state!);
+        _handleStateChanged(map['id'], map['state']);
         break;
       case 'dataChannelReceiveMessage':
         _dataChannelId = map['id'];
@@ -87,20 +93,34 @@ class RTCDataChannelNative extends RTCDataChannel {
         break;
 
       case 'dataChannelBufferedAmountChange':
-        _bufferedAmount = map['bufferedAmount'];
-        if (bufferedAmountLowThreshold != null) {
-          if (_bufferedAmount < bufferedAmountLowThreshold!) {
-            onBufferedAmountLow?.call(_bufferedAmount);
-          }
-        }
-        onBufferedAmountChange?.call(_bufferedAmount, map['changedAmount']);
+        _handleBufferedAmountChange(
+            map['bufferedAmount'], map['changedAmount']);
         break;
     }
   }
 
+  void _handleStateChanged(int id, String state) {
+    _dataChannelId = id;
+    _state = rtcDataChannelStateForString(state);
+    onDataChannelState?.call(_state!);
+
+    _stateChangeController.add(_state!);
+  }
+
+  void _handleBufferedAmountChange(int bufferedAmount, int changedAmount) {
+    _bufferedAmount = bufferedAmount;
+    if (bufferedAmountLowThreshold != null) {
+      if (_bufferedAmount < bufferedAmountLowThreshold!) {
+        onBufferedAmountLow?.call(_bufferedAmount);
+      }
+    }
+    onBufferedAmountChange?.call(_bufferedAmount, changedAmount);
+  }
+
   EventChannel _eventChannelFor(String peerConnectionId, String flutterId) {
     return EventChannel(
-        'FlutterWebRTC/dataChannelEvent$peerConnectionId$flutterId');
+        'FlutterWebRTC/dataChannelEvent$peerConnectionId$flutterId',
+        FlutterWebRTCEventCodec.methodCodec);
   }
 
   void errorListener(Object obj) {
@@ -4,13 +4,16 @@ import 'package:flutter/services.dart';
 
 import 'package:webrtc_interface/webrtc_interface.dart';
 
+import 'event_codec.dart';
 import 'media_stream_impl.dart';
 import 'media_stream_track_impl.dart';
 import 'rtc_data_channel_impl.dart';
 import 'rtc_dtmf_sender_impl.dart';
+import 'rtc_peerconnection_snapshot.dart';
 import 'rtc_rtp_receiver_impl.dart';
 import 'rtc_rtp_sender_impl.dart';
 import 'rtc_rtp_transceiver_impl.dart';
+import 'rtc_transceiver_change.dart';
 import 'utils.dart';
 
 /*
@@ -35,6 +38,20 @@ class RTCPeerConnectionNative extends RTCPeerConnection {
   RTCIceConnectionState? _iceConnectionState;
   RTCPeerConnectionState? _connectionState;
 
+  /// Called with the transceivers whose mid, direction or send encodings
+  /// changed after a description was applied or a track arrived.
+  void Function(List<RTCTransceiverChange> changes)? onTransceiverChanged;
+
+  /// Android only: a remote video track was suspended or resumed, see
+  /// [Helper.setRemoteTrackSuspension].
+  void Function(String trackId, bool suspended)?
+      onRemoteTrackSuspensionChanged;
+
+  /// Android only: the largest size, in physical pixels, at which any
+  /// renderer shows the remote video track, or 0x0 if none does. Forward it
+  /// to the SFU to receive no larger layer than needed.
+  void Function(String trackId, int width, int height)? onPreferredResolution;
+
   final Map<String, dynamic> defaultSdpConstraints = {
     'mandatory': {
       'OfferToReceiveAudio': true,
@@ -136,24 +153,30 @@ class RTCPeerConnectionNative extends RTCPeerConnection {
    * PeerConnection event listener.
    */
   void eventListener(dynamic event) {
+    if (event is StateChangedEvent) {
+      _handleStateChanged(event.kind, event.state);
+      return;
+    }
+    if (event is IceCandidateEvent) {
+      onIceCandidate?.call(RTCIceCandidate(
+          event.candidate, event.sdpMid, event.sdpMLineIndex));
+      return;
+    }
+
     final Map<dynamic, dynamic> map = event;
 
     switch (map['event']) {
       case 'signalingState':
-        _signalingState = signalingStateForString(map['state']);
-        onSignalingState?.call(_signalingState!);
+        _handleStateChanged(StateChangedKind.signaling, map['state']);
         break;
       case 'peerConnectionState':
-        _connectionState = peerConnectionStateForString(map['state']);
-        onConnectionState?.call(_connectionState!);
+        _handleStateChanged(StateChangedKind.peerConnection, map['state']);
         break;
       case 'iceGatheringState':
-        _iceGatheringState = iceGatheringStateforString(map['state']);
-        onIceGatheringState?.call(_iceGatheringState!);
+        _handleStateChanged(StateChangedKind.iceGathering, map['state']);
         break;
       case 'iceConnectionState':
-        _iceConnectionState = iceConnectionStateForString(map['state']);
-        onIceConnectionState?.call(_iceConnectionState!);
+        _handleStateChanged(StateChangedKind.iceConnection, map['state']);
         break;
       case 'onCandidate':
         Map<dynamic, dynamic> cand = map['candidate'];
@@ -242,6 +265,21 @@ class RTCPeerConnectionNative extends RTCPeerConnection {
         onRenegotiationNeeded?.call();
         break;
 
+      case 'transceiverChanged':
+        final List<dynamic> changes = map['changes'];
+        onTransceiverChanged
+            ?.call(changes.map((e) => RTCTransceiverChange.fromMap(e)).toList());
+        break;
+
+      case 'remoteTrackSuspensionChanged':
+        onRemoteTrackSuspensionChanged?.call(map['trackId'], map['suspended']);
+        break;
+
+      case 'preferredResolution':
+        onPreferredResolution?.call(
+            map['trackId'], map['width'], map['height']);
+        break;
+
       /// Unified-Plan
       case 'onTrack':
         var params = map['streams'] as List<dynamic>;
@@ -287,6 +325,29 @@ class RTCPeerConnectionNative extends RTCPeerConnection {
     }
   }
 
+  void _handleStateChanged(StateChangedKind kind, String state) {
+    switch (kind) {
+      case StateChangedKind.signaling:
+        _signalingState = signalingStateForString(state);
+        onSignalingState?.call(_signalingState!);
+        break;
+      case StateChangedKind.peerConnection:
+        _connectionState = peerConnectionStateForString(state);
+        onConnectionState?.call(_connectionState!);
+        break;
+      case StateChangedKind.iceGathering:
+        _iceGatheringState = iceGatheringStateforString(state);
+        onIceGatheringState?.call(_iceGatheringState!);
+        break;
+      case StateChangedKind.iceConnection:
+        _iceConnectionState = iceConnectionStateForString(state);
+        onIceConnectionState?.call(_iceConnectionState!);
+        break;
+      case StateChangedKind.dataChannel:
+        break;
+    }
+  }
+
   void errorListener(Object obj) {
     if (obj is Exception) throw obj;
   }
@@ -301,7 +362,8 @@ class RTCPeerConnectionNative extends RTCPeerConnection {
   }
 
   EventChannel _eventChannelFor(String peerConnectionId) {
-    return EventChannel('FlutterWebRTC/peerConnectionEvent$peerConnectionId');
+    return EventChannel('FlutterWebRTC/peerConnectionEvent$peerConnectionId',
+        FlutterWebRTCEventCodec.methodCodec);
   }
 
   @override
@@ -563,6 +625,24 @@ class RTCPeerConnectionNative extends RTCPeerConnection {
     }
   }
 
+  /// Fetches state, descriptions and senders/receivers/transceivers in one
+  /// call. Pass the [previous] snapshot to let the platform skip the
+  /// sections that have not changed since.
+  Future<RTCPeerConnectionSnapshot> getSnapshot(
+      {RTCPeerConnectionSnapshot? previous}) async {
+    try {
+      final response = await WebRTC.invokeMethod(
+          'getPeerConnectionSnapshot', <String, dynamic>{
+        'peerConnectionId': _peerConnectionId,
+        if (previous != null) 'knownVersions': previous.versions,
+      });
+      return RTCPeerConnectionSnapshot.fromMap(response,
+          peerConnectionId: _peerConnectionId, previous: previous);
+    } on PlatformException catch (e) {
+      throw 'Unable to RTCPeerConnection::getSnapshot: ${e.message}';
+    }
+  }
+
   @override
   Future<RTCRtpSender> addTrack(MediaStreamTrack track,
       [MediaStream? stream]) async {
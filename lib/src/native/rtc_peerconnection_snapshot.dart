@@ -0,0 +1,86 @@
+import 'package:webrtc_interface/webrtc_interface.dart';
+
+import 'rtc_rtp_receiver_impl.dart';
+import 'rtc_rtp_sender_impl.dart';
+import 'rtc_rtp_transceiver_impl.dart';
+
+/// State, descriptions and senders/receivers/transceivers of a peer
+/// connection, gathered in a single platform call, see
+/// [Helper.getPeerConnectionSnapshot].
+class RTCPeerConnectionSnapshot {
+  RTCPeerConnectionSnapshot({
+    required this.versions,
+    this.signalingState,
+    this.iceGatheringState,
+    this.iceConnectionState,
+    this.connectionState,
+    this.localDescription,
+    this.remoteDescription,
+    this.senders = const [],
+    this.receivers = const [],
+    this.transceivers = const [],
+  });
+
+  /// Builds a snapshot from the platform response. Sections the platform
+  /// left out because their version matched are copied from [previous].
+  factory RTCPeerConnectionSnapshot.fromMap(Map<dynamic, dynamic> map,
+      {required String peerConnectionId, RTCPeerConnectionSnapshot? previous}) {
+    final versions = Map<String, int>.from(map['versions']);
+    final state = map['state'];
+    final description = map['description'];
+    final rtp = map['rtp'];
+    return RTCPeerConnectionSnapshot(
+      versions: versions,
+      signalingState: state != null
+          ? signalingStateForString(state['signalingState'])
+          : previous?.signalingState,
+      iceGatheringState: state != null
+          ? iceGatheringStateforString(state['iceGatheringState'])
+          : previous?.iceGatheringState,
+      iceConnectionState: state != null
+          ? iceConnectionStateForString(state['iceConnectionState'])
+          : previous?.iceConnectionState,
+      connectionState: state != null
+          ? peerConnectionStateForString(state['connectionState'])
+          : previous?.connectionState,
+      localDescription: description != null
+          ? _sessionDescription(description['localDescription'])
+          : previous?.localDescription,
+      remoteDescription: description != null
+          ? _sessionDescription(description['remoteDescription'])
+          : previous?.remoteDescription,
+      senders: rtp != null
+          ? RTCRtpSenderNative.fromMaps(rtp['senders'],
+              peerConnectionId: peerConnectionId)
+          : previous?.senders ?? const [],
+      receivers: rtp != null
+          ? RTCRtpReceiverNative.fromMaps(rtp['receivers'],
+              peerConnectionId: peerConnectionId)
+          : previous?.receivers ?? const [],
+      transceivers: rtp != null
+          ? RTCRtpTransceiverNative.fromMaps(rtp['transceivers'],
+              peerConnectionId: peerConnectionId)
+          : previous?.transceivers ?? const [],
+    );
+  }
+
+  static RTCSessionDescription? _sessionDescription(dynamic map) {
+    if (map == null) {
+      return null;
+    }
+    return RTCSessionDescription(map['sdp'], map['type']);
+  }
+
+  /// Version of each section (`state`, `description`, `rtp`), passed back to
+  /// the platform to skip sections that did not change.
+  final Map<String, int> versions;
+  final RTCSignalingState? signalingState;
+  final RTCIceGatheringState? iceGatheringState;
+  final RTCIceConnectionState? iceConnectionState;
+  final RTCPeerConnectionState? connectionState;
+  final RTCSessionDescription? localDescription;
+  final RTCSessionDescription? remoteDescription;
+  final List<RTCRtpSender> senders;
+  final List<RTCRtpReceiver> receivers;
+  final List<RTCRtpTransceiver> transceivers;
+}
@@ -0,0 +1,47 @@
+import 'package:webrtc_interface/webrtc_interface.dart';
+
+/// One entry of a `transceiverChanged` event. Only the fields that changed
+/// since the previous event are set; a transceiver seen for the first time
+/// reports all of them.
+class RTCTransceiverChange {
+  RTCTransceiverChange({
+    required this.senderId,
+    this.transceiverId,
+    this.mid,
+    this.direction,
+    this.currentDirection,
+    this.encodings,
+    this.removed = false,
+  });
+
+  factory RTCTransceiverChange.fromMap(Map<dynamic, dynamic> map) {
+    return RTCTransceiverChange(
+      senderId: map['senderId'],
+      transceiverId: map['transceiverId'],
+      mid: map['mid'],
+      direction: map['direction'] != null
+          ? typeStringToRtpTransceiverDirection[map['direction']]
+          : null,
+      currentDirection: map['currentDirection'] != null
+          ? typeStringToRtpTransceiverDirection[map['currentDirection']]
+          : null,
+      encodings: map['encodings'] != null
+          ? (map['encodings'] as List<dynamic>)
+              .map((e) => RTCRtpEncoding.fromMap(e))
+              .toList()
+          : null,
+      removed: map['removed'] ?? false,
+    );
+  }
+
+  /// Stable key of the transceiver, its id changes once it gets a mid.
+  final String senderId;
+  final String? transceiverId;
+  final String? mid;
+  final TransceiverDirection? direction;
+  final TransceiverDirection? currentDirection;
+  final List<RTCRtpEncoding>? encodings;
+
+  /// The transceiver no longer exists on the peer connection.
+  final bool removed;
+}
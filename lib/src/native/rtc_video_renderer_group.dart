@@ -0,0 +1,95 @@
+import 'package:flutter/services.dart';
+
+import 'package:webrtc_interface/webrtc_interface.dart';
+
+import 'rtc_video_renderer_impl.dart';
+import 'utils.dart';
+
+/// Android only: shows one video track in several [RTCVideoRenderer]s, e.g.
+/// a main view and a picture-in-picture view, with a single track sink.
+///
+/// Each frame is converted and uploaded once and drawn into all member
+/// textures in one pass, scaled on the GPU to the size each renderer is
+/// shown at. Members keep their own render policy, metrics and events, but
+/// their own `srcObject` can not be set while they are in the group.
+class RTCVideoRendererGroup {
+  int? _groupId;
+  MediaStream? _srcObject;
+  final List<RTCVideoRenderer> _renderers = [];
+
+  MediaStream? get srcObject => _srcObject;
+
+  List<RTCVideoRenderer> get renderers => List.unmodifiable(_renderers);
+
+  Future<void> initialize() async {
+    if (_groupId != null) {
+      return;
+    }
+    if (!WebRTC.platformIsAndroid) {
+      throw Exception('RTCVideoRendererGroup only support for Android');
+    }
+    final response =
+        await WebRTC.invokeMethod('createVideoRendererGroup', {});
+    _groupId = response['groupId'];
+  }
+
+  /// Adds an initialized [renderer]; it drops its own stream and shows the
+  /// stream of the group from then on.
+  Future<void> add(RTCVideoRenderer renderer) async {
+    if (_groupId == null) throw 'Call initialize before adding renderers';
+    if (_renderers.contains(renderer)) return;
+    await _invoke('videoRendererGroupAdd', renderer);
+    _renderers.add(renderer);
+    renderer.updateGroupSource(_srcObject);
+  }
+
+  /// Removes [renderer] from the group; it shows nothing until a new
+  /// `srcObject` is set on it.
+  Future<void> remove(RTCVideoRenderer renderer) async {
+    if (_groupId == null || !_renderers.remove(renderer)) return;
+    await _invoke('videoRendererGroupRemove', renderer);
+    renderer.updateGroupSource(null);
+  }
+
+  /// Shows the video track [trackId], or the first video track, of [stream]
+  /// in all members.
+  Future<void> setSrcObject({MediaStream? stream, String? trackId}) async {
+    if (_groupId == null) throw 'Call initialize before setting the stream';
+    try {
+      await WebRTC.invokeMethod(
+          'videoRendererGroupSetSrcObject', <String, dynamic>{
+        'groupId': _groupId,
+        'streamId': stream?.id ?? '',
+        'ownerTag': stream?.ownerTag ?? '',
+        'trackId': trackId,
+      });
+    } on PlatformException catch (e) {
+      throw 'Got exception for RTCVideoRendererGroup::setSrcObject: ${e.message}';
+    }
+    _srcObject = stream;
+    for (var renderer in _renderers) {
+      renderer.updateGroupSource(stream);
+    }
+  }
+
+  /// Disposes the group; members go back to rendering on their own.
+  Future<void> dispose() async {
+    if (_groupId == null) return;
+    await WebRTC.invokeMethod('videoRendererGroupDispose', <String, dynamic>{
+      'groupId': _groupId,
+    });
+    _groupId = null;
+    _srcObject = null;
+    for (var renderer in _renderers) {
+      renderer.updateGroupSource(null);
+    }
+    _renderers.clear();
+  }
+
+  Future<void> _invoke(String method, RTCVideoRenderer renderer) {
+    return WebRTC.invokeMethod(method, <String, dynamic>{
+      'groupId': _groupId,
+      'textureId': renderer.textureId,
+    });
+  }
+}
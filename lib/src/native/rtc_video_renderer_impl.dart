@@ -6,6 +6,7 @@ import 'package:flutter/services.dart';
 import 'package:webrtc_interface/webrtc_interface.dart';
 
 import '../helper.dart';
+import 'event_codec.dart';
 import 'utils.dart';
 
 class RTCVideoRenderer extends ValueNotifier<RTCVideoValue>
@@ -23,7 +24,8 @@ class RTCVideoRenderer extends ValueNotifier<RTCVideoValue>
     }
     final response = await WebRTC.invokeMethod('createVideoRenderer', {});
     _textureId = response['textureId'];
-    _eventSubscription = EventChannel('FlutterWebRTC/Texture$textureId')
+    _eventSubscription = EventChannel('FlutterWebRTC/Texture$textureId',
+            FlutterWebRTCEventCodec.methodCodec)
         .receiveBroadcastStream()
         .listen(eventListener, onError: errorListener);
   }
@@ -46,6 +48,109 @@ class RTCVideoRenderer extends ValueNotifier<RTCVideoValue>
   @override
   Function? onFirstFrameRendered;
 
+  /// Android only: called with `true` when the renderer auto-paused because
+  /// its texture is not composited, and `false` when it resumed.
+  void Function(bool paused)? onAutoPauseChanged;
+
+  /// Android only: periodic frame metrics, see [setMetricsOptions].
+  void Function(Map<String, dynamic> metrics)? onMetrics;
+
+  /// Android only: called with `true` when no frame was rendered for the
+  /// freeze threshold while frames are expected, and with `false` and the
+  /// freeze duration once frames are rendered again.
+  void Function(bool frozen, Duration? duration)? onFreezeChanged;
+
+  int _viewWidth = 0;
+  int _viewHeight = 0;
+
+  /// Android only: tells the platform the size, in physical pixels, this
+  /// renderer is shown at. For remote tracks the largest size across all
+  /// renderers is reported as `onPreferredResolution` on the peer connection,
+  /// to forward to the SFU. [RTCVideoView] calls this on layout.
+  Future<void> setViewSize(int width, int height) async {
+    if (_textureId == null || !WebRTC.platformIsAndroid) return;
+    if (width == _viewWidth && height == _viewHeight) return;
+    _viewWidth = width;
+    _viewHeight = height;
+    await WebRTC.invokeMethod('videoRendererSetViewSize', <String, dynamic>{
+      'textureId': _textureId,
+      'width': width,
+      'height': height,
+    });
+  }
+
+  /// Android only: limits how this renderer draws frames.
+  ///
+  /// [maxFps] caps the frame rate (e.g. 5 for thumbnails, null for no cap),
+  /// [paused] stops drawing and keeps the last frame on screen. With
+  /// [autoPause] the renderer drops to about 1 fps on its own while Flutter
+  /// does not composite its texture, e.g. when the tile is scrolled out of
+  /// view, and restores the policy once it is composited again. With
+  /// [vsyncPacing] the latest frame is presented at most once per display
+  /// refresh, smoothing irregular delivery; frames superseded in between are
+  /// never drawn and counted as `drawsSavedByPacing` in [getMetrics].
+  Future<void> setRenderPolicy(
+      {double? maxFps,
+      bool paused = false,
+      bool autoPause = false,
+      bool vsyncPacing = false}) async {
+    if (_textureId == null) throw 'Call initialize before setting the policy';
+    if (!WebRTC.platformIsAndroid) {
+      throw Exception('setRenderPolicy only support for Android');
+    }
+    await WebRTC.invokeMethod(
+        'videoRendererSetRenderPolicy', <String, dynamic>{
+      'textureId': _textureId,
+      'maxFps': maxFps,
+      'paused': paused,
+      'autoPause': autoPause,
+      'vsyncPacing': vsyncPacing,
+    });
+  }
+
+  /// Android only: frame delivery counters of this renderer. `framesReceived`,
+  /// `framesRendered`, `framesDroppedByFpsReduction`,
+  /// `framesDroppedByBackPressure` (replaced before drawn),
+  /// `drawsSavedByPacing`,
+  /// `averageLatencyMs` and `maxLatencyMs` (frame timestamp to draw),
+  /// `lastFrameAgeMs`, `frozen`, `freezeCount` and `totalFreezeMs`.
+  Future<Map<String, dynamic>> getMetrics() async {
+    if (_textureId == null) throw 'Call initialize before getting metrics';
+    if (!WebRTC.platformIsAndroid) {
+      throw Exception('getMetrics only support for Android');
+    }
+    final response = await WebRTC.invokeMethod(
+        'videoRendererGetMetrics', <String, dynamic>{'textureId': _textureId});
+    return Map<String, dynamic>.from(response);
+  }
+
+  /// Android only: sends [getMetrics] to [onMetrics] every [interval], and
+  /// reports freezes longer than [freezeThreshold] to [onFreezeChanged].
+  /// Null turns the respective callback off.
+  Future<void> setMetricsOptions(
+      {Duration? interval, Duration? freezeThreshold}) async {
+    if (_textureId == null) throw 'Call initialize before setting options';
+    if (!WebRTC.platformIsAndroid) {
+      throw Exception('setMetricsOptions only support for Android');
+    }
+    await WebRTC.invokeMethod(
+        'videoRendererSetMetricsOptions', <String, dynamic>{
+      'textureId': _textureId,
+      'intervalMs': interval?.inMilliseconds ?? 0,
+      'freezeThresholdMs': freezeThreshold?.inMilliseconds ?? 0,
+    });
+  }
+
+  /// Called by [RTCVideoRendererGroup] when the stream of a group this
+  /// renderer is a member of changes.
+  void updateGroupSource(MediaStream? stream) {
+    if (_disposed) return;
+    _srcObject = stream;
+    value = (stream == null)
+        ? RTCVideoValue.empty
+        : value.copyWith(renderVideo: renderVideo);
+  }
+
   @override
   set srcObject(MediaStream? stream) {
     if (_disposed) {
@@ -110,6 +215,21 @@ class RTCVideoRenderer extends ValueNotifier<RTCVideoValue>
 
   void eventListener(dynamic event) {
     if (_disposed) return;
+    if (event is VideoSizeChangedEvent) {
+      value = value.copyWith(
+          width: event.width.toDouble(),
+          height: event.height.toDouble(),
+          renderVideo: renderVideo);
+      onResize?.call();
+      return;
+    }
+    if (event is RotationChangedEvent) {
+      value =
+          value.copyWith(rotation: event.rotation, renderVideo: renderVideo);
+      onResize?.call();
+      return;
+    }
+
     final Map<dynamic, dynamic> map = event;
     switch (map['event']) {
       case 'didTextureChangeRotation':
@@ -128,6 +248,17 @@ class RTCVideoRenderer extends ValueNotifier<RTCVideoValue>
         value = value.copyWith(renderVideo: renderVideo);
         onFirstFrameRendered?.call();
         break;
+      case 'didChangeAutoPause':
+        onAutoPauseChanged?.call(map['paused']);
+        break;
+      case 'didUpdateMetrics':
+        onMetrics?.call(Map<String, dynamic>.from(map));
+        break;
+      case 'didChangeFreeze':
+        final int? durationMs = map['durationMs'];
+        onFreezeChanged?.call(map['frozen'],
+            durationMs != null ? Duration(milliseconds: durationMs) : null);
+        break;
     }
   }
 
@@ -32,6 +32,13 @@ class RTCVideoView extends StatelessWidget {
   }
 
   Widget _buildVideoView(BuildContext context, BoxConstraints constraints) {
+    if (constraints.hasBoundedWidth && constraints.hasBoundedHeight) {
+      final ratio = MediaQuery.of(context).devicePixelRatio;
+      final width = (constraints.maxWidth * ratio).round();
+      final height = (constraints.maxHeight * ratio).round();
+      WidgetsBinding.instance.addPostFrameCallback(
+          (_) => _renderer.setViewSize(width, height).catchError((_) {}));
+    }
     return Center(
       child: Container(
         width: constraints.maxWidth,
@@ -34,6 +34,21 @@ class WebRTC {
 
   static bool initialized = false;
 
+  /// Android only: starts loading the native library, creating the EGL
+  /// context and enumerating the hardware codecs in the background, so a
+  /// later [initialize] has less to wait for. Otherwise this starts with the
+  /// first call to the plugin. Does nothing on other platforms.
+  static Future<void> prewarm() async {
+    if (platformIsAndroid && !initialized) {
+      await _channel.invokeMethod<void>('prewarm');
+    }
+  }
+
+  /// Android only: how long each phase of the native initialization took, in
+  /// milliseconds (`totalMs` and a `phases` map). Null until [initialize] has
+  /// completed, or on other platforms.
+  static Map<String, dynamic>? initializationTimings;
+
   /// Initialize the WebRTC plugin. If this is not manually called, will be
   /// initialized with default settings.
   ///
@@ -50,9 +65,13 @@ class WebRTC {
   /// "androidAudioConfiguration": an AndroidAudioConfiguration object mapped with toMap()
   static Future<void> initialize({Map<String, dynamic>? options}) async {
     if (!initialized) {
-      await _channel.invokeMethod<void>('initialize', <String, dynamic>{
+      final response = await _channel
+          .invokeMethod<Map<dynamic, dynamic>>('initialize', <String, dynamic>{
         'options': options ?? {},
       });
+      if (response != null) {
+        initializationTimings = Map<String, dynamic>.from(response);
+      }
       initialized = true;
     }
   }
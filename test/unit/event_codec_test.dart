@@ -0,0 +1,105 @@
+import 'dart:convert';
+import 'dart:typed_data';
+
+import 'package:flutter/services.dart';
+
+import 'package:flutter_test/flutter_test.dart';
+
+import 'package:flutter_webrtc/src/native/event_codec.dart';
+
+Object? roundTrip(Object? value) {
+  const codec = FlutterWebRTCEventCodec();
+  return codec.decodeMessage(codec.encodeMessage(value));
+}
+
+void main() {
+  test('IceCandidateEvent round trip', () {
+    final event = roundTrip(IceCandidateEvent('0', 1,
+            'candidate:1 1 udp 2122260223 192.168.1.2 54321 typ host'))
+        as IceCandidateEvent;
+    expect(event.sdpMid, '0');
+    expect(event.sdpMLineIndex, 1);
+    expect(event.candidate,
+        'candidate:1 1 udp 2122260223 192.168.1.2 54321 typ host');
+  });
+
+  test('IceCandidateEvent with null sdpMid round trip', () {
+    final event = roundTrip(IceCandidateEvent(null, -1, null))
+        as IceCandidateEvent;
+    expect(event.sdpMid, isNull);
+    expect(event.sdpMLineIndex, -1);
+    expect(event.candidate, isNull);
+  });
+
+  test('StateChangedEvent round trip for every kind', () {
+    for (var kind in StateChangedKind.values) {
+      final event = roundTrip(StateChangedEvent(kind, 7, 'connected'))
+          as StateChangedEvent;
+      expect(event.kind, kind);
+      expect(event.id, 7);
+      expect(event.state, 'connected');
+    }
+  });
+
+  test('BufferedAmountChangedEvent round trip keeps 64 bit amounts', () {
+    final event = roundTrip(BufferedAmountChangedEvent(3, 1 << 40, -1024))
+        as BufferedAmountChangedEvent;
+    expect(event.id, 3);
+    expect(event.bufferedAmount, 1 << 40);
+    expect(event.changedAmount, -1024);
+  });
+
+  test('VideoSizeChangedEvent round trip', () {
+    final event = roundTrip(VideoSizeChangedEvent(42, 1280, 720))
+        as VideoSizeChangedEvent;
+    expect(event.textureId, 42);
+    expect(event.width, 1280);
+    expect(event.height, 720);
+  });
+
+  test('RotationChangedEvent round trip', () {
+    final event =
+        roundTrip(RotationChangedEvent(42, 270)) as RotationChangedEvent;
+    expect(event.textureId, 42);
+    expect(event.rotation, 270);
+  });
+
+  test('Maps from platforms without the typed records decode unchanged', () {
+    final event = {
+      'event': 'onCandidate',
+      'candidate': {'candidate': 'a', 'sdpMid': '0', 'sdpMLineIndex': 0},
+    };
+    expect(roundTrip(event), event);
+  });
+
+  test('Records decode from a method call envelope', () {
+    const codec = FlutterWebRTCEventCodec.methodCodec;
+    final envelope = codec.encodeSuccessEnvelope(
+        StateChangedEvent(StateChangedKind.dataChannel, 5, 'open'));
+    final event = codec.decodeEnvelope(envelope) as StateChangedEvent;
+    expect(event.kind, StateChangedKind.dataChannel);
+    expect(event.id, 5);
+    expect(event.state, 'open');
+  });
+
+  test('Decodes the record layout written by the Android EventCodec', () {
+    // Tag 128, standard string sdpMid, little endian int32, standard string.
+    final sdpMid = utf8.encode('audio');
+    final candidate = utf8.encode('candidate:0');
+    final bytes = BytesBuilder()
+      ..addByte(128)
+      ..addByte(7)
+      ..addByte(sdpMid.length)
+      ..add(sdpMid)
+      ..add((ByteData(4)..setInt32(0, 2, Endian.little)).buffer.asUint8List())
+      ..addByte(7)
+      ..addByte(candidate.length)
+      ..add(candidate);
+    final event = const FlutterWebRTCEventCodec()
+            .decodeMessage(ByteData.sublistView(bytes.toBytes()))
+        as IceCandidateEvent;
+    expect(event.sdpMid, 'audio');
+    expect(event.sdpMLineIndex, 2);
+    expect(event.candidate, 'candidate:0');
+  });
+}